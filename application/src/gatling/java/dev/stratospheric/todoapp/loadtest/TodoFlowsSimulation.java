@@ -0,0 +1,157 @@
+package dev.stratospheric.todoapp.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.FeederBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.gatling.javaapi.core.CoreDsl.asLongAsDuring;
+import static io.gatling.javaapi.core.CoreDsl.css;
+import static io.gatling.javaapi.core.CoreDsl.during;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.exitBlockOnFail;
+import static io.gatling.javaapi.core.CoreDsl.global;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.listFeeder;
+import static io.gatling.javaapi.core.CoreDsl.pause;
+import static io.gatling.javaapi.core.CoreDsl.rampUsers;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * [N]:local - Load test of the todo flows against the local stack started with {@code docker-compose.yml} and the application running with the {@code dev} profile.<p/>
+ * Each virtual user logs in with one of the Keycloak users, then repeatedly creates, edits, shares and deletes a todo. As the confirmation token of a collaboration is only sent by email, the confirmation is the one made by the {@code CollaborationAutoConfirmer} of the {@code dev} profile: the {@code confirm} group measures the time from the share until the collaborator shows up on the dashboard.<p/>
+ * Configured with the system properties {@code loadtest.base-url}, {@code loadtest.users}, {@code loadtest.ramp-up} and {@code loadtest.duration} (see the {@code gatling} block of {@code build.gradle}).
+ */
+public class TodoFlowsSimulation extends Simulation {
+
+  private static final String BASE_URL = System.getProperty("loadtest.base-url", "http://localhost:8080");
+  private static final int USERS = Integer.getInteger("loadtest.users", 10);
+  private static final Duration RAMP_UP = Duration.parse(System.getProperty("loadtest.ramp-up", "PT30S"));
+  private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT5M"));
+  private static final Duration CONFIRMATION_TIMEOUT = Duration.ofSeconds(30);
+
+  // [N]:local]:cognito - The Keycloak users of src/test/resources/keycloak/stratospheric-realm.json, which all have the same password.
+  private static final String PASSWORD = "stratospheric";
+  private static final FeederBuilder<Object> ACCOUNTS = listFeeder(List.<Map<String, Object>>of(
+    Map.of("username", "duke", "collaboratorPrefix", "To"),
+    Map.of("username", "tom", "collaboratorPrefix", "Bj"),
+    Map.of("username", "bjoern", "collaboratorPrefix", "Ph"),
+    Map.of("username", "philip", "collaboratorPrefix", "Du")
+  )).circular();
+
+  private static final String CSRF_TOKEN = "input[name='_csrf']";
+  // [N] A todo failing the validation is rendered again in its form instead of redirecting to the dashboard.
+  private static final String TODO_FORM = "#todo-form";
+  // [N] The message of the dashboard a new todo redirects to carries its id.
+  private static final String CREATED_TODO_ID = "[data-todo-id]";
+
+  private final HttpProtocolBuilder httpProtocol = http
+    .baseUrl(BASE_URL)
+    .acceptHeader("text/html,application/json;q=0.9,*/*;q=0.8")
+    .userAgentHeader("stratospheric-load-test");
+
+  /**
+   * Follows the OIDC authorization code flow through the Keycloak login form.
+   */
+  private final ChainBuilder login = exec(
+    http("login: authorization request")
+      .get("/oauth2/authorization/cognito")
+      .check(css("#kc-form-login", "action").saveAs("loginAction")))
+    .exec(http("login: submit credentials")
+      .post("#{loginAction}")
+      .formParam("username", "#{username}")
+      .formParam("password", PASSWORD)
+      .formParam("credentialId", "")
+      .check(css("form[action='/logout']").exists()));
+
+  private final ChainBuilder create = exec(session -> session.set("title", "Load test " + UUID.randomUUID().toString().substring(0, 8)))
+    .exec(http("create: form")
+      .get("/todo/add")
+      .check(css(CSRF_TOKEN, "value").saveAs("csrf")))
+    .exec(http("create: submit")
+      .post("/todo")
+      .formParam("_csrf", "#{csrf}")
+      .formParam("title", "#{title}")
+      .formParam("description", "Created by the load test")
+      .formParam("priority", "DEFAULT")
+      .formParam("dueDate", LocalDate.now().plusDays(7).toString())
+      .check(status().is(200), css(TODO_FORM).notExists(), css(CREATED_TODO_ID, "data-todo-id").saveAs("todoId")))
+    // [N] The owned todos come first on the dashboard, ordered by id: seeking after the previous id returns the todo as the only row of the page, however many todos the account has.
+    .exec(session -> session.set("beforeTodoId", Long.parseLong(session.getString("todoId")) - 1));
+
+  private final ChainBuilder edit = exec(
+    http("edit: form")
+      .get("/todo/edit/#{todoId}")
+      .check(css(CSRF_TOKEN, "value").saveAs("csrf")))
+    .exec(http("edit: submit")
+      .post("/todo/update/#{todoId}")
+      .formParam("_csrf", "#{csrf}")
+      .formParam("title", "#{title} (edited)")
+      .formParam("description", "Edited by the load test")
+      .formParam("priority", "HIGH")
+      .formParam("dueDate", LocalDate.now().plusDays(14).toString())
+      .check(status().is(200), css(TODO_FORM).notExists()));
+
+  /**
+   * Shares the todo with the user whose name starts with the {@code collaboratorPrefix} of the account, if that user has already logged in, and waits for the collaboration to be auto-confirmed.
+   */
+  private final ChainBuilder shareAndConfirm = exec(
+    http("share: collaborators")
+      .get("/dashboard/collaborators")
+      .queryParam("query", "#{collaboratorPrefix}")
+      .check(jsonPath("$[*].id").findRandom().optional().saveAs("collaboratorId")))
+    .doIf(session -> session.contains("collaboratorId")).then(
+      exec(http("dashboard")
+        .get("/dashboard")
+        .check(css(CSRF_TOKEN, "value").saveAs("csrf")))
+        .exec(http("share: submit")
+          .post("/todo/#{todoId}/collaborations/#{collaboratorId}")
+          .formParam("_csrf", "#{csrf}")
+          .check(status().is(200)))
+        .group("confirm").on(
+          exec(session -> session.set("confirmed", false))
+            .asLongAsDuring(session -> !session.getBoolean("confirmed"), CONFIRMATION_TIMEOUT).on(
+              pause(Duration.ofMillis(500))
+                .exec(http("confirm: poll dashboard")
+                  .get("/dashboard/todos?afterId=#{beforeTodoId}&size=1")
+                  .check(jsonPath("$.content[?(@.id == #{todoId})].amountOfCollaborators")
+                    .ofInt()
+                    .transform(amountOfCollaborators -> amountOfCollaborators > 0)
+                    .saveAs("confirmed")))
+            )
+            // [N] Fails the group if the collaboration wasn't confirmed in time.
+            .exec(session -> session.getBoolean("confirmed") ? session : session.markAsFailed())
+        )
+        .exec(session -> session.remove("collaboratorId"))
+    );
+
+  private final ChainBuilder delete = exec(
+    http("delete")
+      .get("/todo/delete/#{todoId}")
+      .check(status().is(200)));
+
+  private final ScenarioBuilder todoFlows = scenario("Todo flows")
+    .feed(ACCOUNTS)
+    .exec(login)
+    .exitHereIfFailed()
+    .exec(during(DURATION).on(
+      // [N] A failed request skips the rest of the iteration, instead of running the next steps without a todo.
+      exitBlockOnFail(exec(create, edit, shareAndConfirm, delete))
+        .pause(Duration.ofSeconds(1))
+    ));
+
+  {
+    setUp(todoFlows.injectOpen(rampUsers(USERS).during(RAMP_UP)))
+      .protocols(httpProtocol)
+      .assertions(global().failedRequests().percent().lt(1.0));
+  }
+}
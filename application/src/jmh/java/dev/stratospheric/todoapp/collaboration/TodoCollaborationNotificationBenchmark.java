@@ -0,0 +1,46 @@
+package dev.stratospheric.todoapp.collaboration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.stratospheric.todoapp.todo.Priority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Serializes and deserializes the {@link TodoCollaborationNotification} sent through the todo sharing queue, with a shared {@code ObjectMapper} as Spring Cloud AWS does.
+ */
+@State(Scope.Benchmark)
+public class TodoCollaborationNotificationBenchmark {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private TodoCollaborationNotification notification;
+  private String json;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    notification = new TodoCollaborationNotification();
+    notification.setCollaboratorEmail("duke@stratospheric.dev");
+    notification.setCollaboratorName("Duke");
+    notification.setCollaboratorId(2L);
+    notification.setTodoTitle("Benchmark the sharing queue");
+    notification.setTodoDescription("Measure how long a collaboration notification takes to be (de)serialized");
+    notification.setTodoPriority(Priority.HIGH);
+    notification.setTodoId(42L);
+    notification.setToken("e0d9bb8e-56e2-4a4b-9c1d-4b7c4b3a8f43");
+
+    json = objectMapper.writeValueAsString(notification);
+  }
+
+  @Benchmark
+  public String serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(notification);
+  }
+
+  @Benchmark
+  public TodoCollaborationNotification deserialize() throws JsonProcessingException {
+    return objectMapper.readValue(json, TodoCollaborationNotification.class);
+  }
+}
@@ -0,0 +1,36 @@
+package dev.stratospheric.todoapp.config;
+
+import dev.stratospheric.todoapp.tracing.Breadcrumb;
+import io.awspring.cloud.dynamodb.DynamoDbTableNameResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+
+/**
+ * Resolves the name of the breadcrumb table, as the {@code DynamoDbTemplate} does for every item it reads or writes.
+ */
+@State(Scope.Benchmark)
+public class DynamoDbTableNameResolverBenchmark {
+
+  private DynamoDbTableNameResolver resolver;
+
+  @Setup
+  public void setUp() {
+    StandardEnvironment environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+      "custom.environment", "staging",
+      "spring.application.name", "todo-app")));
+
+    resolver = new AmazonDynamoDBConfig().dynamoDbTableNameResolver(environment);
+  }
+
+  @Benchmark
+  public String resolve() {
+    return resolver.resolve(Breadcrumb.class);
+  }
+}
@@ -0,0 +1,62 @@
+package dev.stratospheric.todoapp.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Adds the logged-in user to the MDC, as {@link LoggingContextInterceptor} does for every web request, for an anonymous and an OIDC user.
+ */
+@State(Scope.Thread)
+public class LoggingContextInterceptorBenchmark {
+
+  @Param({"anonymous", "oidc"})
+  public String principal;
+
+  private final LoggingContextInterceptor interceptor = new LoggingContextInterceptor();
+
+  @Setup
+  public void setUp() {
+    SecurityContextHolder.getContext().setAuthentication(authentication());
+  }
+
+  @TearDown
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+    MDC.clear();
+  }
+
+  @Benchmark
+  public boolean preHandle() {
+    return interceptor.preHandle(null, null, null);
+  }
+
+  private Authentication authentication() {
+    if ("anonymous".equals(principal)) {
+      return new AnonymousAuthenticationToken("key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    }
+
+    OidcIdToken idToken = new OidcIdToken(
+      "token",
+      Instant.now(),
+      Instant.now().plusSeconds(3600),
+      Map.of("sub", "duke", "preferred_username", "duke", "name", "Duke"));
+    OidcUser user = new DefaultOidcUser(AuthorityUtils.createAuthorityList("ROLE_USER"), idToken);
+    return new OAuth2AuthenticationToken(user, user.getAuthorities(), "cognito");
+  }
+}
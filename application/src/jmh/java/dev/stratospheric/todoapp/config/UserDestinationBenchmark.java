@@ -0,0 +1,230 @@
+package dev.stratospheric.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import org.apache.activemq.ActiveMQConnection;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.advisory.DestinationSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.security.Principal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects {@code users} web socket sessions, one per user, to the STOMP relay and counts the destinations of the broker, then sends a todo update to one user after the other and waits until it is delivered. Besides the time per delivery, it reports the number of destinations on the broker and the number of users, as the secondary results {@code sendToUser:destinations} and {@code sendToUser:users}: JMH adds them up over the measurement iterations, so that only their quotient, the number of destinations per user, is meaningful.<p/>
+ * {@code EMAIL_TOPIC} subscribes each user to "/topic/todoUpdates/{email}" as the application used to, {@code USER_QUEUE} subscribes to "/user/queue/todoUpdates" (see {@link WebSocketConfig}).<p/>
+ * The sessions are simulated on the client inbound channel, as the {@code StompSubProtocolHandler} of each web socket would do, so that the users only take one connection each, from the relay to the broker. {@value #USERS} users is the most a single instance serves: Spring caps the connection pool of the relay at 10,000, its system session included. Runs against the ActiveMQ of the {@code dev} profile (start it with {@code docker-compose up activemq}), whose destinations are listed over OpenWire on {@value #BROKER_OPENWIRE_URL}: restart the broker between two runs, the destinations outlive the sessions.
+ */
+@State(Scope.Benchmark)
+public class UserDestinationBenchmark {
+
+  static final String USERS = "9999";
+  static final String BROKER_OPENWIRE_URL = "tcp://localhost:61616";
+  static final int CONNECT_BATCH_SIZE = 200;
+  static final long TIMEOUT_SECONDS = 30;
+
+  public enum Addressing { EMAIL_TOPIC, USER_QUEUE }
+
+  @Param({"EMAIL_TOPIC", "USER_QUEUE"})
+  public Addressing addressing;
+
+  @Param({USERS})
+  public int users;
+
+  private ConfigurableApplicationContext context;
+  private SubscribableChannel clientInboundChannel;
+  private SimpMessagingTemplate messagingTemplate;
+  private volatile CountDownLatch connections;
+  private volatile Delivery delivery;
+  private int brokerDestinations;
+
+  /**
+   * A todo update sent to the session of a single user, which is waited for.
+   */
+  private record Delivery(String sessionId, CountDownLatch received) {
+
+    Delivery(String sessionId) {
+      this(sessionId, new CountDownLatch(1));
+    }
+  }
+
+  /**
+   * The destinations on the broker and the users of one iteration, which JMH adds up over the measurement iterations.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Results {
+
+    public long destinations;
+    public long users;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      destinations = 0;
+      users = 0;
+    }
+  }
+
+  @SpringBootConfiguration
+  @Import(WebSocketConfig.class)
+  static class WebSocket {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    context = new SpringApplicationBuilder(WebSocket.class)
+      .web(WebApplicationType.NONE)
+      .profiles("dev")
+      .run("--custom.web-socket-broker.mode=RELAY");
+    clientInboundChannel = context.getBean("clientInboundChannel", SubscribableChannel.class);
+    messagingTemplate = context.getBean(SimpMessagingTemplate.class);
+    context.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(this::toClient);
+
+    // the relay refuses the sessions until its system session is connected
+    StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+    for (int attempt = 0; !relay.isBrokerAvailable(); attempt++) {
+      if (attempt == TIMEOUT_SECONDS) {
+        throw new IllegalStateException("The relay couldn't connect to the broker");
+      }
+      Thread.sleep(1000);
+    }
+
+    for (int first = 0; first < users; first += CONNECT_BATCH_SIZE) {
+      int last = Math.min(users, first + CONNECT_BATCH_SIZE);
+      connections = new CountDownLatch(last - first);
+      for (int user = first; user < last; user++) {
+        connect(user);
+      }
+      if (!connections.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("The relay couldn't connect all the sessions to the broker");
+      }
+    }
+
+    // the subscriptions reach the broker asynchronously
+    for (int attempt = 0; !send(ThreadLocalRandom.current().nextInt(users), 1); attempt++) {
+      if (attempt == TIMEOUT_SECONDS) {
+        throw new IllegalStateException("The users don't receive the todo updates");
+      }
+    }
+    brokerDestinations = countBrokerDestinations();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public void sendToUser(Results results) throws InterruptedException {
+    if (!send(ThreadLocalRandom.current().nextInt(users), TIMEOUT_SECONDS)) {
+      throw new IllegalStateException("The user didn't receive the todo update");
+    }
+    results.destinations = brokerDestinations;
+    results.users = users;
+  }
+
+  private boolean send(int user, long timeoutSeconds) throws InterruptedException {
+    Delivery next = new Delivery(sessionId(user));
+    delivery = next;
+    switch (addressing) {
+      case EMAIL_TOPIC -> messagingTemplate.convertAndSend("/topic/todoUpdates/" + email(user), "Collaboration confirmed");
+      case USER_QUEUE -> messagingTemplate.convertAndSendToUser(email(user), "/queue/todoUpdates", "Collaboration confirmed");
+    }
+    return next.received().await(timeoutSeconds, TimeUnit.SECONDS);
+  }
+
+  private void connect(int user) {
+    Principal principal = () -> email(user);
+
+    StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+    connect.setSessionId(sessionId(user));
+    connect.setUser(principal);
+    connect.setAcceptVersion("1.2");
+    connect.setHeartbeat(0, 0);
+    Message<byte[]> connectMessage = MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders());
+    clientInboundChannel.send(connectMessage);
+    context.publishEvent(new SessionConnectedEvent(this, connectMessage, principal));
+  }
+
+  /**
+   * Like a STOMP client, waits for the CONNECTED frame before subscribing: the relay drops the frames that come before.
+   */
+  private void subscribe(String sessionId, Principal principal) {
+    StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+    subscribe.setSessionId(sessionId);
+    subscribe.setUser(principal);
+    subscribe.setSubscriptionId("todo-updates");
+    subscribe.setDestination(addressing == Addressing.EMAIL_TOPIC ? "/topic/todoUpdates/" + principal.getName() : "/user/queue/todoUpdates");
+    clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+  }
+
+  private void toClient(Message<?> message) {
+    StompCommand command = StompHeaderAccessor.wrap(message).getCommand();
+    if (StompCommand.CONNECTED.equals(command)) {
+      subscribe(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()), SimpMessageHeaderAccessor.getUser(message.getHeaders()));
+      connections.countDown();
+    } else if (SimpMessageType.MESSAGE.equals(SimpMessageHeaderAccessor.getMessageType(message.getHeaders()))) {
+      Delivery current = delivery;
+      if (current != null && current.sessionId().equals(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+        current.received().countDown();
+      }
+    }
+  }
+
+  private static int countBrokerDestinations() throws Exception {
+    Connection connection = new ActiveMQConnectionFactory(BROKER_OPENWIRE_URL).createConnection();
+    try {
+      connection.start();
+      DestinationSource destinations = ((ActiveMQConnection) connection).getDestinationSource();
+      destinations.start();
+      // the advisories of the existing destinations arrive asynchronously
+      int count = -1;
+      while (count != destinations.getTopics().size() + destinations.getQueues().size()) {
+        count = destinations.getTopics().size() + destinations.getQueues().size();
+        Thread.sleep(1000);
+      }
+      return count;
+    } finally {
+      connection.close();
+    }
+  }
+
+  private static String sessionId(int user) {
+    return "session-" + user;
+  }
+
+  private static String email(int user) {
+    return "user-" + user + "@stratospheric.dev";
+  }
+}
@@ -0,0 +1,120 @@
+package dev.stratospheric.todoapp.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@value #REQUESTS} simulated requests, each a blocking remote call of {@code remoteCallMillis} followed by a 2 ms query, for each {@link ThreadMode}. The score is the time per request, i.e. the inverse of the throughput.<p/>
+ * The connection pool has {@value #POOL_SIZE} connections, as Hikari by default, and the platform threads are as many as Tomcat's. The virtual modes require a Java 21 JVM, e.g. {@code ./gradlew jmh -PjmhIncludes=VirtualThread -PjmhJvm=/path/to/java21/bin/java}.<p/>
+ * Runs against the PostgreSQL database of the {@code dev} profile (start it with {@code docker-compose up postgres}), without touching its tables.
+ */
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+  static final int REQUESTS = 4000;
+  static final int POOL_SIZE = 10;
+  static final int TOMCAT_MAX_THREADS = 200;
+
+  /**
+   * How the requests are run.
+   */
+  public enum ThreadMode {
+    /**
+     * On a pool of platform threads, like Tomcat's.
+     */
+    PLATFORM,
+    /**
+     * On a virtual thread each, waiting for a connection in Hikari.
+     */
+    VIRTUAL,
+    /**
+     * On a virtual thread each, waiting for a connection in the {@link ConnectionLimitingDataSource}, as with {@code custom.threads.virtual}.
+     */
+    VIRTUAL_LIMITED
+  }
+
+  @Param({"PLATFORM", "VIRTUAL", "VIRTUAL_LIMITED"})
+  public ThreadMode mode;
+
+  @Param({"20", "200"})
+  public int remoteCallMillis;
+
+  private HikariDataSource hikariDataSource;
+  private DataSource dataSource;
+  private Executor executor;
+
+  @Setup
+  public void setUp() {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl("jdbc:postgresql://localhost:5432/stratospheric");
+    config.setUsername("stratospheric");
+    config.setPassword("stratospheric");
+    config.setMaximumPoolSize(POOL_SIZE);
+    hikariDataSource = new HikariDataSource(config);
+
+    dataSource = mode == ThreadMode.VIRTUAL_LIMITED
+      ? new ConnectionLimitingDataSource(hikariDataSource, POOL_SIZE, Duration.ofMillis(config.getConnectionTimeout()))
+      : hikariDataSource;
+    executor = mode == ThreadMode.PLATFORM
+      ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)
+      : VirtualThreads.taskExecutor("benchmark-", -1);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (executor instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+    hikariDataSource.close();
+  }
+
+  /**
+   * @return The number of failed requests, e.g. those which timed out waiting for a connection.
+   */
+  @Benchmark
+  @OperationsPerInvocation(REQUESTS)
+  public int requests() throws InterruptedException {
+    AtomicInteger failures = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(REQUESTS);
+
+    for (int i = 0; i < REQUESTS; i++) {
+      executor.execute(() -> {
+        try {
+          request();
+        } catch (Exception e) {
+          failures.incrementAndGet();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+
+    done.await();
+    return failures.get();
+  }
+
+  private void request() throws Exception {
+    Thread.sleep(remoteCallMillis);
+
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("select pg_sleep(0.002)");
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package dev.stratospheric.todoapp.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parses the message broker endpoint of {@link WebSocketConfig}, for a single broker and for an active/standby pair.
+ */
+@State(Scope.Benchmark)
+public class WebSocketEndpointBenchmark {
+
+  @Param({
+    "stomp+ssl://b-5b9a1d7e-4b3c-4f0a-9a57-1c2e3d4f5a6b-1.mq.eu-central-1.amazonaws.com:61614",
+    "failover:(//b-5b9a1d7e-1.mq.eu-central-1.amazonaws.com:61614,//b-5b9a1d7e-2.mq.eu-central-1.amazonaws.com:61614)"
+  })
+  public String endpoint;
+
+  @Benchmark
+  public WebSocketConfig.Endpoint fromEndpointString() {
+    return WebSocketConfig.Endpoint.fromEndpointString(endpoint);
+  }
+}
@@ -0,0 +1,175 @@
+package dev.stratospheric.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans a message out to {@code subscribers} SockJS clients subscribed to the same topic, for each {@link MessageBrokerMode} of {@link WebSocketConfig}.<p/>
+ * Each invocation sends a message with the {@code SimpMessagingTemplate} and waits until every subscriber received it: the score is the time until the slowest delivery, so that {@code subscribers} divided by the score is the number of messages delivered per second. The latency of a delivery is measured from the send until a client receives the message. Besides the score, it reports the number of deliveries and their total latency in microseconds over all measurement iterations, as the secondary results {@code fanOut:deliveries} and {@code fanOut:latencyMicros}: their quotient is the mean latency of a delivery.<p/>
+ * Only the web socket part of the application runs, on a random port. The {@code RELAY} mode relays to the ActiveMQ of the {@code dev} profile (start it with {@code docker-compose up activemq}).
+ */
+@State(Scope.Benchmark)
+public class WebSocketFanOutBenchmark {
+
+  static final String DESTINATION = "/topic/fanOutBenchmark";
+  static final long TIMEOUT_SECONDS = 10;
+
+  @Param({"SIMPLE", "EMBEDDED", "RELAY"})
+  public MessageBrokerMode mode;
+
+  @Param({"10", "100"})
+  public int subscribers;
+
+  private final List<StompSession> sessions = new ArrayList<>();
+  private ConfigurableApplicationContext context;
+  private SimpMessagingTemplate messagingTemplate;
+  private WebSocketStompClient stompClient;
+  private volatile Round round;
+
+  /**
+   * A message sent to all the subscribers, which are waited for.
+   * @param latencyNanos The total latency of the deliveries so far.
+   */
+  private record Round(long number, CountDownLatch deliveries, LongAdder latencyNanos) {
+
+    Round(long number, int subscribers) {
+      this(number, new CountDownLatch(subscribers), new LongAdder());
+    }
+  }
+
+  /**
+   * The deliveries and their latency of one iteration, which JMH adds up over the measurement iterations.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Results {
+
+    public long deliveries;
+    public long latencyMicros;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      deliveries = 0;
+      latencyMicros = 0;
+    }
+  }
+
+  @SpringBootConfiguration
+  @ImportAutoConfiguration({
+    ServletWebServerFactoryAutoConfiguration.class,
+    DispatcherServletAutoConfiguration.class,
+    WebSocketServletAutoConfiguration.class
+  })
+  @Import({WebSocketConfig.class, EmbeddedMessageBrokerConfig.class})
+  static class WebSocket {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    context = new SpringApplicationBuilder(WebSocket.class)
+      .profiles("dev")
+      .run(
+        "--server.port=0",
+        "--custom.web-socket-broker.mode=" + mode);
+    messagingTemplate = context.getBean(SimpMessagingTemplate.class);
+    round = new Round(0, subscribers);
+
+    stompClient = new WebSocketStompClient(new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+    stompClient.setMessageConverter(new StringMessageConverter());
+    String url = "ws://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/websocket";
+    for (int i = 0; i < subscribers; i++) {
+      StompSession session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() { }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      session.subscribe(DESTINATION, new Subscriber());
+      sessions.add(session);
+    }
+
+    // the subscriptions reach the broker asynchronously
+    for (int attempt = 0; !send(1); attempt++) {
+      if (attempt == TIMEOUT_SECONDS) {
+        throw new IllegalStateException("The subscribers don't receive the messages");
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    sessions.forEach(StompSession::disconnect);
+    stompClient.stop();
+    context.close();
+  }
+
+  @Benchmark
+  public void fanOut(Results results) throws InterruptedException {
+    if (!send(TIMEOUT_SECONDS)) {
+      throw new IllegalStateException("Not all the subscribers received the message");
+    }
+    results.deliveries += subscribers;
+    results.latencyMicros += TimeUnit.NANOSECONDS.toMicros(round.latencyNanos().sum());
+  }
+
+  private boolean send(long timeoutSeconds) throws InterruptedException {
+    Round next = new Round(round.number() + 1, subscribers);
+    round = next;
+    messagingTemplate.convertAndSend(DESTINATION, next.number() + ":" + System.nanoTime());
+    return next.deliveries().await(timeoutSeconds, TimeUnit.SECONDS);
+  }
+
+  private class Subscriber implements StompFrameHandler {
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+      return String.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+      long received = System.nanoTime();
+      String[] roundAndSent = ((String) payload).split(":");
+      Round current = round;
+      if (Long.parseLong(roundAndSent[0]) == current.number()) {
+        current.latencyNanos().add(received - Long.parseLong(roundAndSent[1]));
+        current.deliveries().countDown();
+      }
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package dev.stratospheric.todoapp.dashboard;
+
+import dev.stratospheric.todoapp.collaboration.TodoCollaborationRequest;
+import dev.stratospheric.todoapp.person.Person;
+import dev.stratospheric.todoapp.todo.Todo;
+import dev.stratospheric.todoapp.todo.TodoSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+
+/**
+ * Builds the {@link TodoDto}s listed on the dashboard, from a loaded {@link Todo} entity and from a {@link TodoSummary} projection.
+ */
+@State(Scope.Benchmark)
+public class TodoDtoBenchmark {
+
+  private Todo todo;
+  private TodoSummary todoSummary;
+
+  @Setup
+  public void setUp() {
+    todo = new Todo();
+    todo.setId(42L);
+    todo.setTitle("Benchmark the dashboard");
+    todo.setDueDate(LocalDate.of(2023, 12, 24));
+    for (int i = 0; i < 3; i++) {
+      todo.getCollaborators().add(new Person());
+      todo.getCollaborationRequests().add(new TodoCollaborationRequest());
+    }
+
+    todoSummary = new TodoSummary() {
+      @Override
+      public Long getId() {
+        return 42L;
+      }
+
+      @Override
+      public String getTitle() {
+        return "Benchmark the dashboard";
+      }
+
+      @Override
+      public LocalDate getDueDate() {
+        return LocalDate.of(2023, 12, 24);
+      }
+
+      @Override
+      public int getAmountOfCollaborators() {
+        return 3;
+      }
+
+      @Override
+      public int getAmountOfCollaborationRequests() {
+        return 3;
+      }
+
+      @Override
+      public boolean isCollaboration() {
+        return false;
+      }
+    };
+  }
+
+  @Benchmark
+  public TodoDto fromTodo() {
+    return new TodoDto(todo, false);
+  }
+
+  @Benchmark
+  public TodoDto fromTodoSummary() {
+    return new TodoDto(todoSummary);
+  }
+}
@@ -0,0 +1,192 @@
+package dev.stratospheric.todoapp.dashboard;
+
+import dev.stratospheric.todoapp.TodoApplication;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Searches the todos of a user among {@value #TODOS} todos, as the search form of the dashboard does, for the first page of results. Besides the time per search, it reports the number of searches and of todos found over all measurement iterations, as the secondary results {@code search:searches} and {@code search:todos}: their quotient is the number of todos on the first page.<p/>
+ * Runs against the PostgreSQL database of the {@code dev} profile (start it with {@code docker-compose up postgres}), with only the persistence part of the application, in the throwaway schema {@value #SCHEMA}: it is migrated and filled when each trial starts, which takes about a minute, and dropped when it ends. {@value #PERSONS} persons own about 90 todos each, except {@code search-benchmark-1@stratospheric.dev} who owns one todo in ten. One todo in five is shared, one in ten has a note.<p/>
+ * The common word matches about one todo in five, and half of the todos of the heavy user: all of them are ranked to find the first page. A rare term matches a single todo, found through the GIN index.
+ */
+@State(Scope.Benchmark)
+public class TodoSearchBenchmark {
+
+  static final String SCHEMA = "todo_search_benchmark";
+  static final int PERSONS = 10_000;
+  static final int TODOS = 1_000_000;
+  static final int PAGE_SIZE = 25;
+
+  private static final String WORDS = """
+    'meeting', 'invoice', 'budget', 'report', 'review', 'dentist', 'groceries', 'birthday', 'deploy', 'release',
+    'backup', 'insurance', 'taxes', 'garden', 'car', 'flight', 'hotel', 'contract', 'interview', 'workshop'""";
+
+  /**
+   * {@code typical} owns about 90 todos, {@code heavy} 100,000.
+   */
+  @Param({"typical", "heavy"})
+  public String user;
+
+  /**
+   * {@code common} searches a frequent word, {@code rare} the reference of a single todo.
+   */
+  @Param({"common", "rare"})
+  public String terms;
+
+  /**
+   * The searches and the todos found of one iteration, which JMH adds up over the measurement iterations.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Results {
+
+    public long searches;
+    public long todos;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      searches = 0;
+      todos = 0;
+    }
+  }
+
+  private ConfigurableApplicationContext context;
+  private DashboardService dashboardService;
+  private String email;
+  private String query;
+
+  @SpringBootConfiguration
+  @ImportAutoConfiguration({
+    DataSourceAutoConfiguration.class,
+    FlywayAutoConfiguration.class,
+    HibernateJpaAutoConfiguration.class,
+    JdbcTemplateAutoConfiguration.class,
+    TransactionAutoConfiguration.class
+  })
+  @EntityScan(basePackageClasses = TodoApplication.class)
+  @EnableJpaRepositories(basePackageClasses = TodoApplication.class)
+  @Import(DashboardService.class)
+  static class Persistence {
+
+    /**
+     * Drops what a trial that didn't end may have left in the schema before migrating it.
+     */
+    @Bean
+    FlywayMigrationStrategy cleanMigrateStrategy() {
+      return flyway -> {
+        flyway.clean();
+        flyway.migrate();
+      };
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(Persistence.class)
+      .web(WebApplicationType.NONE)
+      .profiles("dev")
+      .properties(
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.schema=" + SCHEMA,
+        "spring.flyway.schemas=" + SCHEMA,
+        "spring.flyway.clean-disabled=false")
+      .run();
+    dashboardService = context.getBean(DashboardService.class);
+
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    context.getBean(TransactionTemplate.class).executeWithoutResult(status -> generateTodos(jdbcTemplate));
+    // Like the long-lived tables of a database, rather than freshly filled ones, e.g. for the visibility checks of the index scans.
+    jdbcTemplate.execute("vacuum analyze person, todo, todo_collaboration, note");
+
+    email = "search-benchmark-" + ("heavy".equals(user) ? 1 : 2) + "@stratospheric.dev";
+    query = "common".equals(terms)
+      ? "meeting"
+      : jdbcTemplate.queryForObject("""
+        select substring(t.description from 'ref[0-9]+')
+        from todo t
+          join person owner on owner.id = t.owner_id
+        where owner.email = ?
+        order by t.id
+        limit 1
+        """, String.class, email);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.getBean(JdbcTemplate.class).execute("drop schema " + SCHEMA + " cascade");
+
+    context.close();
+  }
+
+  @Benchmark
+  public Slice<TodoDto> search(Results results) {
+    Slice<TodoDto> todos = dashboardService.searchOwnedAndSharedTodos(email, query, 0, PAGE_SIZE);
+    results.searches++;
+    results.todos += todos.getNumberOfElements();
+    return todos;
+  }
+
+  private static void generateTodos(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.update("""
+      insert into person (email, name)
+      select 'search-benchmark-' || i || '@stratospheric.dev', 'search-benchmark-' || i
+      from generate_series(1, %d) i
+      """.formatted(PERSONS));
+    jdbcTemplate.update("""
+      insert into todo (title, description, due_date, priority, status, owner_id)
+      select words[1 + i %% 20] || ' ' || words[1 + (i / 20) %% 20],
+        words[1 + (i / 400) %% 20] || ' ' || words[1 + (i / 7) %% 20] || ' ref' || i,
+        current_date + i %% 30, 2, 'OPEN', owner.id
+      from generate_series(1, %d) i
+        join person owner on owner.email = 'search-benchmark-' || case when i %% 10 = 0 then 1 else 2 + i %% %d end || '@stratospheric.dev',
+        (select array[%s] as words) vocabulary
+      """.formatted(TODOS, PERSONS - 1, WORDS));
+    jdbcTemplate.execute("analyze person, todo");
+    // The todos are numbered by the reference at the end of their description, their ids aren't consecutive (see V006__USE_POOLED_SEQUENCES.sql).
+    jdbcTemplate.update("""
+      insert into todo_collaboration (todo_id, collaborator_id)
+      select t.id, collaborator.id
+      from (
+        select t.id, t.owner_id, split_part(t.description, ' ref', 2)::int as i
+        from todo t
+          join person owner on owner.id = t.owner_id
+        where owner.email like 'search-benchmark-%%'
+      ) t
+        join person collaborator on collaborator.email = 'search-benchmark-' || (1 + t.i / 5 %% %d) || '@stratospheric.dev'
+      where t.i %% 5 = 0
+        and collaborator.id <> t.owner_id
+      """.formatted(PERSONS));
+    jdbcTemplate.update("""
+      insert into note (content, todo_id)
+      select 'Remember the receipts', t.id
+      from todo t
+        join person owner on owner.id = t.owner_id
+      where owner.email like 'search-benchmark-%'
+        and split_part(t.description, ' ref', 2)::int % 10 = 1
+      """);
+  }
+}
@@ -0,0 +1,172 @@
+package dev.stratospheric.todoapp.todo;
+
+import dev.stratospheric.todoapp.TodoApplication;
+import dev.stratospheric.todoapp.collaboration.TodoCollaborationRequest;
+import dev.stratospheric.todoapp.person.Person;
+import dev.stratospheric.todoapp.person.PersonRepository;
+import org.hibernate.BaseSessionEventListener;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Saves a todo with {@value #CHILDREN} notes, {@value #CHILDREN} reminders and {@value #CHILDREN} collaboration requests in one transaction. Besides the time per save, it reports the number of JDBC round trips (statements and batches executed, without the commit) and of saves over all measurement iterations, as the secondary results {@code save:roundTrips} and {@code save:saves}: their quotient is the number of round trips per save.<p/>
+ * Runs against the PostgreSQL database of the {@code dev} profile (start it with {@code docker-compose up postgres}), with only the persistence part of the application. The todos it creates are deleted afterwards.
+ */
+@State(Scope.Benchmark)
+public class TodoSaveBenchmark {
+
+  static final int CHILDREN = 5;
+
+  private static final LongAdder ROUND_TRIPS = new LongAdder();
+
+  private ConfigurableApplicationContext context;
+  private TodoRepository todoRepository;
+  private TransactionTemplate transactionTemplate;
+  private Person owner;
+  private List<Person> collaborators;
+
+  /**
+   * Counts the statements and batches Hibernate executes, registered with {@code hibernate.session.events.auto}.
+   */
+  public static class RoundTripCounter extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+      ROUND_TRIPS.increment();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+      ROUND_TRIPS.increment();
+    }
+  }
+
+  /**
+   * The round trips and saves of one iteration, which JMH adds up over the measurement iterations.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class RoundTrips {
+
+    public long roundTrips;
+    public long saves;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      roundTrips = 0;
+      saves = 0;
+    }
+  }
+
+  @SpringBootConfiguration
+  @ImportAutoConfiguration({
+    DataSourceAutoConfiguration.class,
+    FlywayAutoConfiguration.class,
+    HibernateJpaAutoConfiguration.class,
+    JdbcTemplateAutoConfiguration.class,
+    TransactionAutoConfiguration.class
+  })
+  @EntityScan(basePackageClasses = TodoApplication.class)
+  @EnableJpaRepositories(basePackageClasses = TodoApplication.class)
+  static class Persistence {
+  }
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(Persistence.class)
+      .web(WebApplicationType.NONE)
+      .profiles("dev")
+      .properties(
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session.events.auto=" + RoundTripCounter.class.getName())
+      .run();
+    todoRepository = context.getBean(TodoRepository.class);
+    transactionTemplate = context.getBean(TransactionTemplate.class);
+
+    PersonRepository personRepository = context.getBean(PersonRepository.class);
+    owner = personRepository.save(benchmarkPerson());
+    collaborators = personRepository.saveAll(List.of(benchmarkPerson(), benchmarkPerson(), benchmarkPerson(), benchmarkPerson(), benchmarkPerson()));
+  }
+
+  @TearDown
+  public void tearDown() {
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    String ownedTodos = "(select id from todo where owner_id = " + owner.getId() + ")";
+    jdbcTemplate.update("delete from note where todo_id in " + ownedTodos);
+    jdbcTemplate.update("delete from reminder where todo_id in " + ownedTodos);
+    jdbcTemplate.update("delete from todo_collaboration_request where todo_id in " + ownedTodos);
+    jdbcTemplate.update("delete from todo where owner_id = " + owner.getId());
+    jdbcTemplate.update("delete from person where name like 'benchmark-%'");
+
+    context.close();
+  }
+
+  @Benchmark
+  public Long save(RoundTrips roundTrips) {
+    long roundTripsBefore = ROUND_TRIPS.sum();
+    Long id = transactionTemplate.execute(status -> todoRepository.save(todo()).getId());
+    roundTrips.roundTrips += ROUND_TRIPS.sum() - roundTripsBefore;
+    roundTrips.saves++;
+    return id;
+  }
+
+  private Todo todo() {
+    Todo todo = new Todo();
+    todo.setTitle("Benchmark");
+    todo.setDescription("Saved by TodoSaveBenchmark");
+    todo.setDueDate(LocalDate.now().plusDays(7));
+    todo.setPriority(Priority.DEFAULT);
+    todo.setStatus(Status.OPEN);
+    todo.setOwner(owner);
+
+    for (int i = 0; i < CHILDREN; i++) {
+      Note note = new Note();
+      note.setContent("Note " + i);
+      todo.getNotes().add(note);
+
+      Reminder reminder = new Reminder();
+      reminder.setDueDate(LocalDate.now().plusDays(i));
+      todo.getReminders().add(reminder);
+
+      TodoCollaborationRequest collaborationRequest = new TodoCollaborationRequest();
+      collaborationRequest.setTodo(todo);
+      collaborationRequest.setCollaborator(collaborators.get(i));
+      collaborationRequest.setToken(UUID.randomUUID().toString());
+      todo.getCollaborationRequests().add(collaborationRequest);
+    }
+
+    return todo;
+  }
+
+  private static Person benchmarkPerson() {
+    String name = "benchmark-" + UUID.randomUUID();
+    Person person = new Person();
+    person.setName(name);
+    person.setEmail(name + "@stratospheric.dev");
+    return person;
+  }
+}
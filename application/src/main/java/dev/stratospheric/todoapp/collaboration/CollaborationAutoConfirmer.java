@@ -0,0 +1,153 @@
+package dev.stratospheric.todoapp.collaboration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * [N]:local]:share - Confirms collaboration requests on behalf of the collaborator after a delay.<p/>
+ * In the local configuration, collaboration requests are sent to fictitious users that will never click on the confirmation link. Instead of blocking the SQS listener thread until the confirmation is due, the confirmation is scheduled on a dedicated scheduler and the listener returns immediately.<p/>
+ * The confirmations still pending when the application stops are dropped rather than run against a closing context: their SQS messages have already been acknowledged, so they are lost, which is acceptable for the fictitious users of the local configuration.<p/>
+ * The amount of scheduled confirmations is exposed as the {@code stratospheric.collaboration.auto-confirmations.pending} gauge and the executed ones as the {@code stratospheric.collaboration.auto-confirmations} counter, tagged with {@code outcome} {@code fired} or {@code failed}.
+ */
+@Component
+public class CollaborationAutoConfirmer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CollaborationAutoConfirmer.class);
+
+  private final TodoCollaborationService todoCollaborationService;
+  private final Duration delay;
+  private final ScheduledThreadPoolExecutor scheduler;
+  private final Set<PendingConfirmation> pendingConfirmations = ConcurrentHashMap.newKeySet();
+  private final Counter firedConfirmations;
+  private final Counter failedConfirmations;
+
+  /**
+   * @param delay The time between the email being sent and the collaboration being confirmed ({@code custom.auto-confirm-delay}).
+   * @param poolSize The number of threads confirming collaborations ({@code custom.auto-confirm-pool-size}).
+   */
+  public CollaborationAutoConfirmer(
+    TodoCollaborationService todoCollaborationService,
+    MeterRegistry meterRegistry,
+    @Value("${custom.auto-confirm-delay:PT2.5S}") Duration delay,
+    @Value("${custom.auto-confirm-pool-size:2}") int poolSize) {
+    this.todoCollaborationService = todoCollaborationService;
+    this.delay = delay;
+    this.scheduler = new ScheduledThreadPoolExecutor(poolSize, new CustomizableThreadFactory("collaboration-auto-confirm-"));
+    this.scheduler.setRemoveOnCancelPolicy(true);
+    this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+    Gauge.builder("stratospheric.collaboration.auto-confirmations.pending", pendingConfirmations, Set::size)
+      .description("Number of collaboration requests waiting to be auto-confirmed")
+      .register(meterRegistry);
+    this.firedConfirmations = Counter.builder("stratospheric.collaboration.auto-confirmations")
+      .description("Number of auto-confirmed collaboration requests")
+      .tag("outcome", "fired")
+      .register(meterRegistry);
+    this.failedConfirmations = Counter.builder("stratospheric.collaboration.auto-confirmations")
+      .description("Number of auto-confirmed collaboration requests")
+      .tag("outcome", "failed")
+      .register(meterRegistry);
+  }
+
+  /**
+   * Schedules the confirmation of the collaboration request described by {@code payload} and returns immediately.
+   */
+  public void scheduleConfirmation(TodoCollaborationNotification payload) {
+    PendingConfirmation confirmation = new PendingConfirmation(payload);
+    // counted before scheduling, as the confirmation may run, and be subtracted, before schedule returns
+    pendingConfirmations.add(confirmation);
+    try {
+      scheduler.schedule(confirmation, delay.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      pendingConfirmations.remove(confirmation);
+      throw e;
+    }
+  }
+
+  private void confirm(TodoCollaborationNotification payload) {
+    try {
+      boolean confirmed = todoCollaborationService.confirmCollaboration(
+        payload.getCollaboratorEmail(),
+        payload.getTodoId(),
+        payload.getCollaboratorId(),
+        payload.getToken());
+
+      if (confirmed) {
+        LOG.info("Auto-confirmed collaboration request for todo: {}", payload.getTodoId());
+        firedConfirmations.increment();
+      } else {
+        LOG.warn("Collaboration request for todo {} could not be auto-confirmed", payload.getTodoId());
+        failedConfirmations.increment();
+      }
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to auto-confirm collaboration request for todo {}", payload.getTodoId(), e);
+      failedConfirmations.increment();
+    }
+  }
+
+  /**
+   * Lets the running confirmations complete and drops the delayed ones.
+   */
+  @PreDestroy
+  void shutdown() {
+    scheduler.shutdown();
+
+    int droppedConfirmations = 0;
+    for (PendingConfirmation confirmation : pendingConfirmations) {
+      if (confirmation.claim()) {
+        pendingConfirmations.remove(confirmation);
+        droppedConfirmations++;
+      }
+    }
+    if (droppedConfirmations > 0) {
+      LOG.warn("Dropped {} pending collaboration auto-confirmations on shutdown", droppedConfirmations);
+    }
+  }
+
+  /**
+   * A scheduled confirmation, which is either run or dropped on shutdown, whichever claims it first.
+   */
+  private final class PendingConfirmation implements Runnable {
+
+    private final TodoCollaborationNotification payload;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private PendingConfirmation(TodoCollaborationNotification payload) {
+      this.payload = payload;
+    }
+
+    @Override
+    public void run() {
+      if (claim()) {
+        try {
+          confirm(payload);
+        } finally {
+          pendingConfirmations.remove(this);
+        }
+      }
+    }
+
+    private boolean claim() {
+      return claimed.compareAndSet(false, true);
+    }
+  }
+
+  boolean awaitTermination(Duration timeout) throws InterruptedException {
+    return scheduler.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+}
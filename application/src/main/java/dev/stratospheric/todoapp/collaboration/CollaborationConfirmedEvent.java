@@ -0,0 +1,31 @@
+package dev.stratospheric.todoapp.collaboration;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * [N]:spring-evnt]:notification - A Spring {@code ApplicationEvent} published within the transaction confirming a collaboration, and turned into a notification to the owner of the todo once the transaction is committed (see {@link CollaborationConfirmedNotifier}).
+ */
+public class CollaborationConfirmedEvent extends ApplicationEvent {
+
+  private final String ownerEmail;
+  private final String message;
+
+  /**
+   * @param source the object on which the event initially occurred or with which the event is associated
+   * @param ownerEmail The email of the owner of the todo.
+   * @param message The notification shown to the owner.
+   */
+  public CollaborationConfirmedEvent(Object source, String ownerEmail, String message) {
+    super(source);
+    this.ownerEmail = ownerEmail;
+    this.message = message;
+  }
+
+  public String getOwnerEmail() {
+    return ownerEmail;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
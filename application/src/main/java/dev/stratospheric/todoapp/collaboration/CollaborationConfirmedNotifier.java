@@ -0,0 +1,26 @@
+package dev.stratospheric.todoapp.collaboration;
+
+import dev.stratospheric.todoapp.notification.NotificationPipeline;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * [N]:websocket]:user - Sends the message of each {@link CollaborationConfirmedEvent} to the sessions of the todo's owner, on the "/user{@value #DESTINATION}" destination they subscribed to (see {@code WebSocketConfig}).<p/>
+ * The message is only sent once the confirmation is committed, so that a rolled back confirmation never reaches the owner. The confirmations of several collaborators in a row reach the owner in a single frame (see {@link NotificationPipeline}).
+ */
+@Component
+public class CollaborationConfirmedNotifier {
+
+  static final String DESTINATION = "/queue/todoUpdates";
+
+  private final NotificationPipeline notificationPipeline;
+
+  public CollaborationConfirmedNotifier(NotificationPipeline notificationPipeline) {
+    this.notificationPipeline = notificationPipeline;
+  }
+
+  @TransactionalEventListener(CollaborationConfirmedEvent.class)
+  public void notifyOwner(CollaborationConfirmedEvent event) {
+    notificationPipeline.sendToUser(event.getOwnerEmail(), DESTINATION, event.getMessage());
+  }
+}
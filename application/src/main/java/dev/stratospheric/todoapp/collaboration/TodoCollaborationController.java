@@ -1,12 +1,14 @@
 package dev.stratospheric.todoapp.collaboration;
 
-import io.micrometer.core.annotation.Timed;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.Map;
+
 /**
  * [N]:share - Takes incoming collaboration requests and passes them to the {@link TodoCollaborationService} to start the sharing process.
  */
@@ -28,10 +30,6 @@ public class TodoCollaborationController {
    * @param redirectAttributes Provides a way to add flash attributes for posting web notifications.
    * @return
    */
-  @Timed(
-    value = "stratospheric.collaboration.sharing",
-    description = "Measure the time how long it takes to share a todo"
-  )
   @PostMapping("/{todoId}/collaborations/{collaboratorId}")
   public String shareTodoWithCollaborator(
     @PathVariable("todoId") Long todoId,
@@ -42,14 +40,28 @@ public class TodoCollaborationController {
     String collaboratorName = todoCollaborationService.shareWithCollaborator(user.getEmail(), todoId, collaboratorId);
 
     // [N]:share - Emits a notification via the message.html fragment
-    redirectAttributes.addFlashAttribute("message",
-      String.format("You successfully shared your todo with the user %s. " +
-        "Once the user accepts the invite, you'll see them as a collaborator on your todo.", collaboratorName));
+    redirectAttributes.addFlashAttribute("message", sharedMessage(collaboratorName));
     redirectAttributes.addFlashAttribute("messageType", "success");
 
     return "redirect:/dashboard";
   }
 
+  /**
+   * [N]:share]:notification - The variant of {@link #shareTodoWithCollaborator} requested by the collaborator picker of the dashboard with {@code Accept: application/json}: the dashboard isn't reloaded, the pending collaborations of the todo are updated in place by its {@code TodoChange}.
+   * @return The notification to show, as {@code message}.
+   */
+  @PostMapping(path = "/{todoId}/collaborations/{collaboratorId}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseBody
+  public Map<String, String> shareTodoWithCollaboratorInPlace(
+    @PathVariable("todoId") Long todoId,
+    @PathVariable("collaboratorId") Long collaboratorId,
+    @AuthenticationPrincipal OidcUser user
+  ) {
+    String collaboratorName = todoCollaborationService.shareWithCollaborator(user.getEmail(), todoId, collaboratorId);
+
+    return Map.of("message", sharedMessage(collaboratorName));
+  }
+
   /**
    * [N]:share - An endpoint of our Spring Boot backend enabling a prospect collaborator to confirm the collaboration. This endpoint requires authentication and hence the collaborator needs to be logged in.
    * @param todoId The todo to be shared.
@@ -78,4 +90,9 @@ public class TodoCollaborationController {
 
     return "redirect:/dashboard";
   }
+
+  private static String sharedMessage(String collaboratorName) {
+    return String.format("You successfully shared your todo with the user %s. " +
+      "Once the user accepts the invite, you'll see them as a collaborator on your todo.", collaboratorName);
+  }
 }
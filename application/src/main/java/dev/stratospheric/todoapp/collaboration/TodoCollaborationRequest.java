@@ -8,7 +8,8 @@ import jakarta.persistence.*;
 public class TodoCollaborationRequest {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_collaboration_request_id_seq")
+  @SequenceGenerator(name = "todo_collaboration_request_id_seq", sequenceName = "todo_collaboration_request_id_seq", allocationSize = 50)
   private Long id;
 
   private String token;
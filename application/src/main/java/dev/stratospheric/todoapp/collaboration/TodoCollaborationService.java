@@ -1,15 +1,23 @@
 package dev.stratospheric.todoapp.collaboration;
 
+import dev.stratospheric.todoapp.outbox.Outbox;
 import dev.stratospheric.todoapp.person.Person;
+import dev.stratospheric.todoapp.person.PersonCache;
 import dev.stratospheric.todoapp.person.PersonRepository;
+import dev.stratospheric.todoapp.person.PersonSummary;
 import dev.stratospheric.todoapp.todo.Todo;
+import dev.stratospheric.todoapp.todo.TodoAccess;
+import dev.stratospheric.todoapp.todo.TodoAccessCache;
+import dev.stratospheric.todoapp.todo.TodoChange;
+import dev.stratospheric.todoapp.todo.TodoChangeEvent;
+import dev.stratospheric.todoapp.todo.TodoMetrics;
+import dev.stratospheric.todoapp.todo.TodoMetrics.Operation;
 import dev.stratospheric.todoapp.todo.TodoRepository;
-import io.awspring.cloud.sqs.operations.SqsTemplate;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
@@ -24,12 +32,15 @@ public class TodoCollaborationService {
 
   private final TodoRepository todoRepository;
   private final PersonRepository personRepository;
+  private final PersonCache personCache;
   private final TodoCollaborationRequestRepository todoCollaborationRequestRepository;
+  private final TodoAccessCache todoAccessCache;
 
-  private final SqsTemplate sqsTemplate;
+  private final Outbox outbox;
   private final String todoSharingQueueName;
 
-  private final SimpMessagingTemplate simpMessagingTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TodoMetrics todoMetrics;
 
   private static final Logger LOG = LoggerFactory.getLogger(TodoCollaborationService.class.getName());
 
@@ -41,34 +52,46 @@ public class TodoCollaborationService {
    * @param todoSharingQueueName [N] {@code ${custom.sharing-queue}} is defined in {@code application.yml}
    * @param todoRepository
    * @param personRepository
+   * @param personCache Resolves the logged-in user confirming a collaboration without a database round trip.
    * @param todoCollaborationRequestRepository
-   * @param sqsTemplate
-   * @param simpMessagingTemplate [N] Spring object for sending messages to a user. This bean is made available in the application context via the dependency to <em>Spring Messaging</em>, which was loaded transitively by the {@code spring-boot-starter-websocket} and {@code spring-boot-starter-activemq} dependencies. 
+   * @param todoAccessCache Tells whether the collaborator already has access to the todo to share.
+   * @param outbox [N]:sqs - Stores the SQS notifications in the same transaction as the collaboration request.
+   * @param eventPublisher [N]:spring-evnt]:notification - Publishes the {@link TodoChangeEvent}s which update the dashboards in place, and the {@link CollaborationConfirmedEvent}s which notify the owners.
+   * @param todoMetrics Times the sharing and the confirmation of todos.
    */
   public TodoCollaborationService(
     @Value("${custom.sharing-queue}") String todoSharingQueueName,
     TodoRepository todoRepository,
     PersonRepository personRepository,
+    PersonCache personCache,
     TodoCollaborationRequestRepository todoCollaborationRequestRepository,
-    SqsTemplate sqsTemplate,
-    SimpMessagingTemplate simpMessagingTemplate) {
+    TodoAccessCache todoAccessCache,
+    Outbox outbox,
+    ApplicationEventPublisher eventPublisher,
+    TodoMetrics todoMetrics) {
     this.todoRepository = todoRepository;
     this.personRepository = personRepository;
+    this.personCache = personCache;
     this.todoCollaborationRequestRepository = todoCollaborationRequestRepository;
-    this.sqsTemplate = sqsTemplate;
+    this.todoAccessCache = todoAccessCache;
+    this.outbox = outbox;
     this.todoSharingQueueName = todoSharingQueueName;
-    this.simpMessagingTemplate = simpMessagingTemplate;
+    this.eventPublisher = eventPublisher;
+    this.todoMetrics = todoMetrics;
   }
 
   /**
-   * [N]:share - Shares a todo iff both the todo and the collaborator exist in the database AND if the {@code todoOwnerEmail} is the owner AND not such collaboration already exists in the database. 
+   * [N]:share - Shares a todo iff both the todo and the collaborator exist in the database AND if the {@code todoOwnerEmail} is the owner AND not such collaboration already exists in the database AND the collaborator doesn't collaborate on the todo yet (a person is a collaborator of a todo at most once, see {@code V005__ADD_HOT_QUERY_INDEXES.sql}). 
    * @param todoOwnerEmail The email of the todo's owner.
    * @param todoId The todo to be shared.
    * @param collaboratorId The collaborator with who we want to share.
    * @return The name of the collaborator.
    */
   public String shareWithCollaborator(String todoOwnerEmail, Long todoId, Long collaboratorId) {
+    return todoMetrics.record(Operation.SHARE, () -> share(todoOwnerEmail, todoId, collaboratorId));
+  }
 
+  private String share(String todoOwnerEmail, Long todoId, Long collaboratorId) {
     Todo todo = todoRepository
       .findByIdAndOwnerEmail(todoId, todoOwnerEmail)
       .orElseThrow(() -> new IllegalArgumentException(INVALID_TODO_ID + todoId));
@@ -77,6 +100,11 @@ public class TodoCollaborationService {
       .findById(collaboratorId)
       .orElseThrow(() -> new IllegalArgumentException(INVALID_PERSON_ID + collaboratorId));
 
+    if (todoAccessCache.getAccess(todoId, collaborator.getEmail()).includes(TodoAccess.COLLABORATOR)) {
+      LOG.info("Collaborator {} already has access to todo {}", collaboratorId, todoId);
+      return collaborator.getName();
+    }
+
     if (todoCollaborationRequestRepository.findByTodoAndCollaborator(todo, collaborator) != null) {
       LOG.info("Collaboration request for todo {} with collaborator {} already exists", todoId, collaboratorId);
       return collaborator.getName();
@@ -94,8 +122,11 @@ public class TodoCollaborationService {
 
     todoCollaborationRequestRepository.save(collaboration);
 
-    // [N]:share]:sqs - We use the SqsTemplate to send a message to a specified SQS queue. The send() method will serialize the Java object to a JSON string before sending it to SQS. New messages will now queue up inside our SQS queue for 14 days.
-    sqsTemplate.send(todoSharingQueueName, new TodoCollaborationNotification(collaboration));
+    // [N]:share]:sqs - The notification is written to the outbox within this transaction, and the OutboxRelay sends it to the SQS queue with the SqsTemplate once committed. New messages will then queue up inside our SQS queue for 14 days.
+    outbox.enqueue(todoSharingQueueName, new TodoCollaborationNotification(collaboration));
+
+    // [N]:notification - The dashboards show one more pending collaboration.
+    eventPublisher.publishEvent(new TodoChangeEvent(this, TodoChange.Type.UPDATED, todo, todoOwnerEmail));
 
     return collaborator.getName();
   }
@@ -114,8 +145,11 @@ public class TodoCollaborationService {
    * @return
    */
   public boolean confirmCollaboration(String authenticatedUserEmail, Long todoId, Long collaboratorId, String token) {
+    return todoMetrics.recordOutcome(Operation.CONFIRM, () -> confirm(authenticatedUserEmail, todoId, collaboratorId, token));
+  }
 
-    Person loggedInUser = personRepository
+  private boolean confirm(String authenticatedUserEmail, Long todoId, Long collaboratorId, String token) {
+    PersonSummary loggedInUser = personCache
       .findByEmail(authenticatedUserEmail)
       .orElseThrow(() -> new IllegalArgumentException(INVALID_PERSON_EMAIL + authenticatedUserEmail));
 
@@ -139,8 +173,9 @@ public class TodoCollaborationService {
       .findById(todoId)
       .orElseThrow(() -> new IllegalArgumentException(INVALID_TODO_ID + todoId));
 
-    todo.addCollaborator(loggedInUser);
+    todo.addCollaborator(personRepository.getReferenceById(loggedInUser.getId()));
 
+    todo.getCollaborationRequests().remove(collaborationRequest);
     todoCollaborationRequestRepository.delete(collaborationRequest);
 
     String name = collaborationRequest.getCollaborator().getName();
@@ -152,10 +187,13 @@ public class TodoCollaborationService {
       + ".";
     String ownerEmail = collaborationRequest.getTodo().getOwner().getEmail();
 
-    // [N]:websocket - A message is sent back to the todo's owner using {@code SimpMessagingTemplate}.
-    simpMessagingTemplate.convertAndSend("/topic/todoUpdates/" + ownerEmail, subject + " " + message);
+    // [N]:notification - The dashboards of the owner and the collaborators, the new one included, show the new collaborator in place, and the cached access decisions of the todo are evicted once committed (see TodoAccessCache).
+    eventPublisher.publishEvent(new TodoChangeEvent(this, TodoChange.Type.COLLABORATOR_ADDED, todo, ownerEmail));
+
+    // [N]:websocket]:user - A message is sent back to the sessions of the todo's owner once the confirmation is committed (see CollaborationConfirmedNotifier).
+    eventPublisher.publishEvent(new CollaborationConfirmedEvent(this, ownerEmail, subject + " " + message));
 
-    LOG.info("Successfully informed owner about accepted request.");
+    LOG.info("Informing owner about accepted request.");
 
     return true;
   }
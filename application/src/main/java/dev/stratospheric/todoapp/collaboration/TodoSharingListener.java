@@ -1,13 +1,21 @@
 package dev.stratospheric.todoapp.collaboration;
 
 import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.acknowledgement.BatchAcknowledgement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.MailSender;
 import org.springframework.mail.SimpleMailMessage;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * [N]:sqs]:share]:receiver - The actual listener of the SQS queue. 
  */
@@ -15,46 +23,80 @@ import org.springframework.stereotype.Component;
 public class TodoSharingListener {
 
   private final MailSender mailSender;
-  private final TodoCollaborationService todoCollaborationService;
+  private final CollaborationAutoConfirmer collaborationAutoConfirmer;
   private final boolean autoConfirmCollaborations;
   private final String confirmEmailFromAddress;
   private final String externalUrl;
+  private final Executor mailExecutor;
 
   private static final Logger LOG = LoggerFactory.getLogger(TodoSharingListener.class.getName());
 
   /**
    * 
    * @param mailSender [N]:ses - Injects the auto-configured {@code MailSender} into our {@code TodoSharingListener}.
-   * @param todoCollaborationService
+   * @param collaborationAutoConfirmer
    * @param autoConfirmCollaborations [N]:local]:share - To auto-confirm collaborations locally. {@code custom.auto-confirm-collaborations} is defined in {@code application.yml}.
    * @param confirmEmailFromAddress [N] The sender of the confirmation email.
    * @param externalUrl [N] The URL of the endpoint that a prospect collaborator will use to confirm a collaboration request.
+   * @param mailExecutor Sends the emails of a batch in parallel, see {@code SqsListenerConfig#todoSharingMailExecutor}.
    */
   public TodoSharingListener(
     MailSender mailSender,
-    TodoCollaborationService todoCollaborationService,
+    CollaborationAutoConfirmer collaborationAutoConfirmer,
     @Value("${custom.auto-confirm-collaborations}") boolean autoConfirmCollaborations,
     @Value("${custom.confirm-email-from-address}") String confirmEmailFromAddress,
-    @Value("${custom.external-url}") String externalUrl
+    @Value("${custom.external-url}") String externalUrl,
+    @Qualifier("todoSharingMailExecutor") Executor mailExecutor
   ) {
     this.mailSender = mailSender;
-    this.todoCollaborationService = todoCollaborationService;
+    this.collaborationAutoConfirmer = collaborationAutoConfirmer;
     this.autoConfirmCollaborations = autoConfirmCollaborations;
     this.confirmEmailFromAddress = confirmEmailFromAddress;
     this.externalUrl = externalUrl;
+    this.mailExecutor = mailExecutor;
   }
 
   /**
    * [N]:sqs]:listener - Listen the SQS queue for sharing messages.<p/>
    * Since it uses the {@code @SqsListener} annotation, the method acts as an SQS handler method. This annotation expects a list of logical or physical SQS queue names (only one in our case).<p/>
-   * Each message received from SQS needs to be acknowledged and deleting it does the job of notifying the queue that it has been delivered successfully. For annotation-driven SQS listeners, we can specify a deletion policy. For example:<p/> 
-   * <em>@SqsListener(value = "${custom.sharing-queue}", deletionPolicy = NEVER)</em><p/>
-   * In our case, we use {@code SqsMessageDeletionPolicy#NO_REDRIVE}, the default deletion policy as defined by Spring Cloud AWS.
-   * @param payload The {@code TodoCollaborationNotification}.  Spring Cloud AWS, and in this particular case its Spring Messaging integration, is responsible for extracting the message payload and resolving it using a {@code PayloadMethodArgumentResolver}. 
-   * @see <a href="https://docs.awspring.io/spring-cloud-aws/docs/current/apidocs/io/awspring/cloud/messaging/listener/SqsMessageDeletionPolicy.html#NO_REDRIVE">io.awspring.cloud.messaging.listener.SqsMessageDeletionPolicy#NO_REDRIVE</a>
+   * As the method accepts a {@code List}, Spring Cloud AWS invokes it with a whole batch of messages: each poll (SQS long polling, see {@code SqsListenerConfig}) returns up to {@code maxMessagesPerPoll} messages and up to {@code maxConcurrentMessages} messages are processed concurrently by the container.<p/>
+   * The emails of a batch are sent in parallel on the {@code todoSharingMailExecutor}. Each message received from SQS needs to be acknowledged and deleting it does the job of notifying the queue that it has been delivered successfully. The container factory uses {@code AcknowledgementMode#MANUAL}, so we acknowledge only the messages whose email has been sent. The others become visible again on the queue once their visibility timeout expires and are retried.
+   * @param messages The {@code TodoCollaborationNotification}s. Spring Cloud AWS, and in this particular case its Spring Messaging integration, is responsible for extracting the message payloads and resolving them using a {@code PayloadMethodArgumentResolver}.
+   * @param acknowledgement Acknowledges (i.e. deletes) the messages of the batch that have been processed.
    */
-  @SqsListener(value = "${custom.sharing-queue}")
-  public void listenToSharingMessages(TodoCollaborationNotification payload) throws InterruptedException {
+  @SqsListener(
+    value = "${custom.sharing-queue}",
+    factory = "manualAcknowledgementSqsListenerContainerFactory",
+    maxMessagesPerPoll = "${custom.sharing-listener.max-messages-per-poll:10}",
+    maxConcurrentMessages = "${custom.sharing-listener.max-concurrent-messages:50}")
+  public void listenToSharingMessages(
+    List<Message<TodoCollaborationNotification>> messages,
+    BatchAcknowledgement<TodoCollaborationNotification> acknowledgement) {
+    LOG.info("Incoming batch of {} todo sharing payloads", messages.size());
+
+    List<CompletableFuture<Message<TodoCollaborationNotification>>> pendingMessages = messages
+      .stream()
+      .map(message -> CompletableFuture
+        .runAsync(() -> processSharingMessage(message.getPayload()), mailExecutor)
+        .thenApply(processed -> message)
+        .exceptionally(exception -> {
+          LOG.warn("Failed to process todo sharing payload {}, it will be retried", message.getPayload(), exception);
+          return null;
+        }))
+      .toList();
+
+    List<Message<TodoCollaborationNotification>> processedMessages = pendingMessages
+      .stream()
+      .map(CompletableFuture::join)
+      .filter(Objects::nonNull)
+      .toList();
+
+    acknowledgement.acknowledge(processedMessages);
+
+    LOG.info("Acknowledged {} of {} todo sharing payloads", processedMessages.size(), messages.size());
+  }
+
+  private void processSharingMessage(TodoCollaborationNotification payload) {
     LOG.info("Incoming todo sharing payload: {}", payload);
 
     // [N]:ses - Creates the email message based on the incoming payload.
@@ -96,11 +138,9 @@ public class TodoSharingListener {
 
     LOG.info("Successfully informed collaborator about shared todo.");
 
-    // [N] In the local configuration, we auto-confirm collaborations.
+    // [N] In the local configuration, we auto-confirm collaborations. The confirmation is scheduled so that the listener thread isn't blocked until it is due.
     if (autoConfirmCollaborations) {
-      LOG.info("Auto-confirmed collaboration request for todo: {}", payload.getTodoId());
-      Thread.sleep(2_500);
-      todoCollaborationService.confirmCollaboration(payload.getCollaboratorEmail(), payload.getTodoId(), payload.getCollaboratorId(), payload.getToken());
+      collaborationAutoConfirmer.scheduleConfirmation(payload);
     }
   }
 }
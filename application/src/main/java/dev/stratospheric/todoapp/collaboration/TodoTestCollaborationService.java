@@ -1,21 +1,21 @@
 package dev.stratospheric.todoapp.collaboration;
 
+import dev.stratospheric.todoapp.notification.NotificationPipeline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
 @ConditionalOnProperty(prefix = "custom", name = "provide-test-todo-controller", havingValue = "true")
 public class TodoTestCollaborationService {
 
-  private final SimpMessagingTemplate simpMessagingTemplate;
+  private final NotificationPipeline notificationPipeline;
 
   private static final Logger LOG = LoggerFactory.getLogger(TodoTestCollaborationService.class.getName());
 
-  public TodoTestCollaborationService(SimpMessagingTemplate simpMessagingTemplate) {
-    this.simpMessagingTemplate = simpMessagingTemplate;
+  public TodoTestCollaborationService(NotificationPipeline notificationPipeline) {
+    this.notificationPipeline = notificationPipeline;
   }
 
   public String testConfirmCollaboration() {
@@ -25,9 +25,9 @@ public class TodoTestCollaborationService {
       + name
       + " has accepted your collaboration request for todo #1.";
 
-    simpMessagingTemplate.convertAndSend("/topic/todoUpdates", subject + " " + message);
+    notificationPipeline.send("/topic/todoUpdates", subject + " " + message);
 
-    LOG.info("Message sent to ActiveMQ broker: {} {}", subject, message);
+    LOG.info("Message queued for the ActiveMQ broker: {} {}", subject, message);
 
     return message;
   }
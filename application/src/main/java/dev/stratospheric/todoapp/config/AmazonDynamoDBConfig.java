@@ -1,11 +1,18 @@
 package dev.stratospheric.todoapp.config;
 
+import dev.stratospheric.todoapp.tracing.Breadcrumb;
+import io.awspring.cloud.dynamodb.DefaultDynamoDbTableSchemaResolver;
 import io.awspring.cloud.dynamodb.DynamoDbTableNameResolver;
+import io.awspring.cloud.dynamodb.DynamoDbTableSchemaResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 
 import java.util.Locale;
+import java.util.Optional;
 
 /**
  * [N]:nosql - A custom implementation of the {@link DynamoDbTableNameResolver} to deploy our application to multiple stages and access a unique table per stage.<p/>
@@ -27,5 +34,21 @@ public class AmazonDynamoDBConfig {
       }
     };
   }
-}
 
+  /**
+   * [N]:nosql]:web-trace - The breadcrumb table, for the operations the {@code DynamoDbTemplate} doesn't offer, such as batch writes and queries on a secondary index.<p/>
+   * The table name and schema are resolved the same way as for the {@code DynamoDbTemplate}, which falls back to the {@code DefaultDynamoDbTableSchemaResolver} as Spring Cloud AWS doesn't register a schema resolver bean.
+   */
+  @Bean
+  public DynamoDbTable<Breadcrumb> breadcrumbTable(
+    DynamoDbEnhancedClient dynamoDbEnhancedClient,
+    DynamoDbTableNameResolver dynamoDbTableNameResolver,
+    Optional<DynamoDbTableSchemaResolver> dynamoDbTableSchemaResolver) {
+    String tableName = dynamoDbTableNameResolver.resolve(Breadcrumb.class);
+    @SuppressWarnings("unchecked") // DynamoDbTableSchemaResolver#resolve returns a raw TableSchema
+    TableSchema<Breadcrumb> tableSchema = dynamoDbTableSchemaResolver
+      .orElseGet(DefaultDynamoDbTableSchemaResolver::new)
+      .resolve(Breadcrumb.class, tableName);
+    return dynamoDbEnhancedClient.table(tableName, tableSchema);
+  }
+}
@@ -1,11 +1,11 @@
 package dev.stratospheric.todoapp.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import dev.stratospheric.todoapp.tracing.TracingEvent;
 
@@ -18,17 +18,31 @@ import dev.stratospheric.todoapp.tracing.TracingEvent;
 public class AsyncConfig {
 
   /**
-   * Defines a primary {@code TaskExecutor} for processing async operations on a dedicated thread pool.<p/>
-   * The reason for the {@code @Primary} annotation is that we already have beans of type {@code TaskExecutor} in our {@code ApplicationContext} from Spring Cloud AWS messaging. Without marking one executor as {@code @Primary}, we wouldn’t be able to use the same executor deterministically
+   * Defines a primary {@code TaskExecutor} for processing async operations on a dedicated, bounded thread pool configured under {@code custom.executors.async} (see {@link BoundedExecutors}).<p/>
+   * The reason for the {@code @Primary} annotation is that we already have beans of type {@code TaskExecutor} in our {@code ApplicationContext} from Spring Cloud AWS messaging. Without marking one executor as {@code @Primary}, we wouldn’t be able to use the same executor deterministically<p/>
+   * With {@code custom.threads.virtual}, {@link VirtualThreadConfig#taskExecutor(BoundedExecutors)} replaces this pool.
    * @return
    */
   @Bean
   @Primary
-  public TaskExecutor taskExecutor() {
-    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-    executor.setMaxPoolSize(10);
-    executor.initialize();
+  @ConditionalOnProperty(prefix = "custom.threads", name = "virtual", havingValue = "false", matchIfMissing = true)
+  public TaskExecutor taskExecutor(BoundedExecutors boundedExecutors) {
+    return boundedExecutors.create("async");
+  }
 
-    return executor;
+  /**
+   * The bounded executor of the tracing workloads, configured under {@code custom.executors.tracing} (see {@link BoundedExecutors}): the flusher of the {@code BreadcrumbWriteBuffer}, which occupies one thread as long as the application runs, and the {@code BreadcrumbTimestampMigration}. It keeps its platform threads with {@code custom.threads.virtual}, as the flusher is a single long-running task.
+   */
+  @Bean
+  public TaskExecutor tracingExecutor(BoundedExecutors boundedExecutors) {
+    return boundedExecutors.create("tracing");
+  }
+
+  /**
+   * The bounded executor sending the WebSocket notifications, configured under {@code custom.executors.notifications} (see {@link BoundedExecutors}), so that a slow message broker doesn't hold up the requests triggering them. Its saturation policy must not drop tasks: each one sends a frame of todo changes, which the dashboards can't recover from losing. With {@code caller-runs}, a saturated executor has the {@code NotificationPipeline} flush in its own thread, and the notifications keep on coalescing meanwhile.
+   */
+  @Bean
+  public TaskExecutor notificationExecutor(BoundedExecutors boundedExecutors) {
+    return boundedExecutors.create("notifications");
   }
 }
@@ -0,0 +1,157 @@
+package dev.stratospheric.todoapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the named, bounded executors of the application, one per workload, and keeps track of them for the {@link ExecutorsEndpoint}.<p/>
+ * Each executor has a fixed number of threads, a bounded queue and a {@link SaturationPolicy}, all configured under {@code custom.executors.<name>}. Its pool and queue are published through Micrometer's {@code ExecutorServiceMetrics} ({@code executor.*} meters tagged with {@code name}), and the tasks hitting the saturation policy are counted as {@code stratospheric.executor.rejected}.<p/>
+ * With {@code custom.threads.virtual}, some workloads run on virtual threads instead (see {@link #createVirtual(String, int)}). Their executors are tracked as well, and publish the {@code executor.active}, {@code executor.queued}, {@code executor.completed} and {@code executor.pool.max} meters under the same names.
+ */
+@Component
+public class BoundedExecutors {
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  private final CustomConfigurationProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, MonitoredExecutor> executors = new ConcurrentSkipListMap<>();
+
+  public BoundedExecutors(CustomConfigurationProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Creates the executor {@code name}. It is shut down, after its queued tasks have completed, along with the application context.
+   */
+  public TaskExecutor create(String name) {
+    CustomConfigurationProperties.ExecutorPool pool = properties.getExecutorPool(name);
+    Counter rejectedTasks = Counter.builder("stratospheric.executor.rejected")
+      .description("Number of tasks handled by the saturation policy of the executor")
+      .tag("name", name)
+      .tag("policy", pool.getSaturationPolicy().name())
+      .register(meterRegistry);
+
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+      pool.getPoolSize(),
+      pool.getPoolSize(),
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(pool.getQueueCapacity()),
+      new CustomizableThreadFactory(name + "-"),
+      (task, threadPoolExecutor) -> {
+        rejectedTasks.increment();
+        pool.getSaturationPolicy().getRejectedExecutionHandler().rejectedExecution(task, threadPoolExecutor);
+      });
+
+    new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(meterRegistry);
+    executors.put(name, new BoundedExecutor(executor, pool, rejectedTasks));
+
+    return new ConcurrentTaskExecutor(executor);
+  }
+
+  /**
+   * Creates the executor {@code name}, starting a new virtual thread per task (see {@link VirtualThreads}). It has neither a pool nor a queue: beyond {@code concurrencyLimit}, the callers block until a task completes.
+   * @param concurrencyLimit The maximum number of tasks running at the same time, {@code -1} for no limit.
+   */
+  public TaskExecutor createVirtual(String name, int concurrencyLimit) {
+    VirtualExecutor executor = new VirtualExecutor(VirtualThreads.taskExecutor(name + "-", concurrencyLimit), new AtomicInteger(), new AtomicInteger(), new AtomicLong());
+
+    Gauge.builder("executor.active", executor.activeTasks(), AtomicInteger::get)
+      .description("The approximate number of threads that are actively executing tasks")
+      .baseUnit(BaseUnits.THREADS)
+      .tag("name", name)
+      .register(meterRegistry);
+    Gauge.builder("executor.queued", executor.waitingTasks(), AtomicInteger::get)
+      .description("The approximate number of tasks that are queued for execution")
+      .baseUnit(BaseUnits.TASKS)
+      .tag("name", name)
+      .register(meterRegistry);
+    FunctionCounter.builder("executor.completed", executor.completedTasks(), AtomicLong::get)
+      .description("The approximate total number of tasks that have completed execution")
+      .baseUnit(BaseUnits.TASKS)
+      .tag("name", name)
+      .register(meterRegistry);
+    Gauge.builder("executor.pool.max", executor, VirtualExecutor::concurrencyLimit)
+      .description("The maximum allowed number of threads in the pool")
+      .baseUnit(BaseUnits.THREADS)
+      .tag("name", name)
+      .register(meterRegistry);
+    executors.put(name, executor);
+
+    return executor::execute;
+  }
+
+  Map<String, MonitoredExecutor> getExecutors() {
+    return executors;
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    for (MonitoredExecutor executor : executors.values()) {
+      if (executor instanceof BoundedExecutor boundedExecutor) {
+        boundedExecutor.threadPoolExecutor().shutdown();
+      }
+    }
+    for (MonitoredExecutor executor : executors.values()) {
+      if (executor instanceof BoundedExecutor boundedExecutor) {
+        boundedExecutor.threadPoolExecutor().awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      }
+    }
+  }
+
+  sealed interface MonitoredExecutor permits BoundedExecutor, VirtualExecutor {
+  }
+
+  record BoundedExecutor(ThreadPoolExecutor threadPoolExecutor, CustomConfigurationProperties.ExecutorPool pool, Counter rejectedTasks) implements MonitoredExecutor {
+  }
+
+  /**
+   * @param waitingTasks The tasks submitted but not started yet, mostly those whose callers are blocked by the concurrency limit.
+   */
+  record VirtualExecutor(SimpleAsyncTaskExecutor executor, AtomicInteger waitingTasks, AtomicInteger activeTasks, AtomicLong completedTasks) implements MonitoredExecutor {
+
+    int concurrencyLimit() {
+      return executor.getConcurrencyLimit();
+    }
+
+    void execute(Runnable task) {
+      waitingTasks.incrementAndGet();
+      try {
+        executor.execute(() -> {
+          waitingTasks.decrementAndGet();
+          activeTasks.incrementAndGet();
+          try {
+            task.run();
+          } finally {
+            activeTasks.decrementAndGet();
+            completedTasks.incrementAndGet();
+          }
+        });
+      } catch (RuntimeException e) {
+        waitingTasks.decrementAndGet();
+        throw e;
+      }
+    }
+  }
+}
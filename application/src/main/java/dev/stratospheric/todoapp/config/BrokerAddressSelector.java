@@ -0,0 +1,176 @@
+package dev.stratospheric.todoapp.config;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import reactor.netty.ConnectionObserver;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * [N]:mq]:relay - Picks the message broker that each new connection of the STOMP relay goes to, among the hosts of the broker endpoint.<p/>
+ * The brokers are taken in turn from an atomic index, so that concurrent connection attempts never wait for each other. A broker the relay failed to connect to is skipped for a back-off period, which doubles with each consecutive failure from {@code initialBackOff} up to {@code maxBackOff} and is reset by the next successful connection. With an <em>Amazon MQ</em> active/standby pair, the connections thus go to the active broker, while the standby one, which doesn't accept connections, is only retried now and then. When all the brokers are backing off, the one whose back-off ends first is tried anyway.<p/>
+ * Per broker, tagged with {@code broker} ({@code host:port}), the {@code stratospheric.stomp.relay.connect} timer measures the TCP connect latency with its {@code outcome} ({@code success} or {@code failure}), the {@code stratospheric.stomp.relay.connections} gauge counts the open connections and the {@code stratospheric.stomp.relay.available} gauge is 0 while the broker is backing off.
+ */
+public class BrokerAddressSelector {
+
+  private static final int MAX_BACK_OFF_DOUBLINGS = 20;
+
+  private final List<Broker> brokers;
+  private final Map<SocketAddress, Broker> brokersByAddress;
+  private final AtomicInteger nextIndex = new AtomicInteger();
+  private final Clock clock;
+  private final long initialBackOffNanos;
+  private final long maxBackOffNanos;
+
+  /**
+   * @param addresses The brokers, as unresolved addresses so that their host names are resolved on each connection attempt.
+   * @param initialBackOff How long a broker is skipped after a first failed connection attempt.
+   * @param maxBackOff The longest a broker is skipped after consecutive failed connection attempts.
+   */
+  public BrokerAddressSelector(List<InetSocketAddress> addresses, Duration initialBackOff, Duration maxBackOff, MeterRegistry meterRegistry) {
+    if (addresses.isEmpty()) {
+      throw new IllegalArgumentException("At least one broker address is required");
+    }
+
+    this.clock = meterRegistry.config().clock();
+    this.initialBackOffNanos = initialBackOff.toNanos();
+    this.maxBackOffNanos = maxBackOff.toNanos();
+    this.brokers = addresses.stream()
+      .distinct()
+      .map(address -> new Broker(address, meterRegistry))
+      .toList();
+    this.brokersByAddress = brokers.stream()
+      .collect(Collectors.toUnmodifiableMap(broker -> broker.address, Function.identity()));
+  }
+
+  /**
+   * Returns the address of the broker to connect to, to be supplied to {@code TcpClient.remoteAddress()}.
+   */
+  public InetSocketAddress next() {
+    long now = clock.monotonicTime();
+    int start = Math.floorMod(nextIndex.getAndIncrement(), brokers.size());
+    Broker soonestAvailable = null;
+
+    for (int i = 0; i < brokers.size(); i++) {
+      Broker broker = brokers.get((start + i) % brokers.size());
+      if (broker.isAvailable(now)) {
+        return broker.address;
+      }
+      if (soonestAvailable == null || broker.retryAt - soonestAvailable.retryAt < 0) {
+        soonestAvailable = broker;
+      }
+    }
+
+    return soonestAvailable.address;
+  }
+
+  /**
+   * Observes the connection attempts to the brokers, to be registered with {@code TcpClient.doOnChannelInit()}.
+   */
+  public void onChannelInit(ConnectionObserver connectionObserver, Channel channel, SocketAddress remoteAddress) {
+    Broker broker = brokersByAddress.get(remoteAddress);
+    if (broker != null) {
+      channel.pipeline().addFirst(new ConnectListener(broker));
+    }
+  }
+
+  void connectSucceeded(SocketAddress address, long latencyNanos) {
+    Broker broker = brokersByAddress.get(address);
+    broker.consecutiveFailures.set(0);
+    broker.retryAt = clock.monotonicTime();
+    broker.successTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+  }
+
+  void connectFailed(SocketAddress address, long latencyNanos) {
+    Broker broker = brokersByAddress.get(address);
+    int failures = broker.consecutiveFailures.incrementAndGet();
+    long backOff = Math.min(maxBackOffNanos, initialBackOffNanos << Math.min(failures - 1, MAX_BACK_OFF_DOUBLINGS));
+    broker.retryAt = clock.monotonicTime() + backOff;
+    broker.failureTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+  }
+
+  int getOpenConnections(SocketAddress address) {
+    return brokersByAddress.get(address).openConnections.get();
+  }
+
+  private static Timer connectTimer(MeterRegistry meterRegistry, String name, String outcome) {
+    return Timer.builder("stratospheric.stomp.relay.connect")
+      .description("TCP connect latency of the STOMP relay to the broker")
+      .tag("broker", name)
+      .tag("outcome", outcome)
+      .register(meterRegistry);
+  }
+
+  private class Broker {
+
+    final InetSocketAddress address;
+    final AtomicInteger consecutiveFailures = new AtomicInteger();
+    final AtomicInteger openConnections = new AtomicInteger();
+    final Timer successTimer;
+    final Timer failureTimer;
+    volatile long retryAt;
+
+    Broker(InetSocketAddress address, MeterRegistry meterRegistry) {
+      this.address = address;
+      this.retryAt = clock.monotonicTime();
+
+      String name = address.getHostString() + ":" + address.getPort();
+      this.successTimer = connectTimer(meterRegistry, name, "success");
+      this.failureTimer = connectTimer(meterRegistry, name, "failure");
+      Gauge.builder("stratospheric.stomp.relay.connections", openConnections, AtomicInteger::get)
+        .description("Number of open connections of the STOMP relay to the broker")
+        .tag("broker", name)
+        .register(meterRegistry);
+      Gauge.builder("stratospheric.stomp.relay.available", this, broker -> broker.isAvailable(clock.monotonicTime()) ? 1 : 0)
+        .description("Whether the STOMP relay connects to the broker (1) or skips it while backing off (0)")
+        .tag("broker", name)
+        .register(meterRegistry);
+    }
+
+    boolean isAvailable(long now) {
+      return now - retryAt >= 0;
+    }
+  }
+
+  /**
+   * Reports the outcome of the connection attempt of its channel, and counts the connection as open until the channel is closed.
+   */
+  private class ConnectListener extends ChannelOutboundHandlerAdapter {
+
+    private final Broker broker;
+
+    ConnectListener(Broker broker) {
+      this.broker = broker;
+    }
+
+    @Override
+    public void connect(ChannelHandlerContext ctx, SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) throws Exception {
+      long start = clock.monotonicTime();
+      promise.addListener(future -> {
+        long latency = clock.monotonicTime() - start;
+        if (future.isSuccess()) {
+          connectSucceeded(broker.address, latency);
+          broker.openConnections.incrementAndGet();
+          ctx.channel().closeFuture().addListener(closed -> broker.openConnections.decrementAndGet());
+        } else {
+          connectFailed(broker.address, latency);
+        }
+      });
+      super.connect(ctx, remoteAddress, localAddress, promise);
+    }
+  }
+}
@@ -4,6 +4,8 @@ import jakarta.validation.constraints.NotEmpty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 @ConfigurationProperties(prefix = "custom")
@@ -33,6 +35,11 @@ class CustomConfigurationProperties {
 
   private boolean provideTestTodoController;
 
+  /**
+   * The configuration of the {@link BoundedExecutors}, by executor name ({@code custom.executors.<name>.*}).
+   */
+  private Map<String, ExecutorPool> executors = new HashMap<>();
+
   public Set<String> getInvitationCodes() {
     return invitationCodes;
   }
@@ -104,4 +111,49 @@ class CustomConfigurationProperties {
   public void setProvideTestTodoController(Boolean provideTestTodoController) {
     this.provideTestTodoController = provideTestTodoController;
   }
+
+  public Map<String, ExecutorPool> getExecutors() {
+    return executors;
+  }
+
+  public void setExecutors(Map<String, ExecutorPool> executors) {
+    this.executors = executors;
+  }
+
+  ExecutorPool getExecutorPool(String name) {
+    return executors.getOrDefault(name, new ExecutorPool());
+  }
+
+  static class ExecutorPool {
+
+    private int poolSize = 4;
+
+    private int queueCapacity = 100;
+
+    private SaturationPolicy saturationPolicy = SaturationPolicy.CALLER_RUNS;
+
+    public int getPoolSize() {
+      return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+      this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+      return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+      this.queueCapacity = queueCapacity;
+    }
+
+    public SaturationPolicy getSaturationPolicy() {
+      return saturationPolicy;
+    }
+
+    public void setSaturationPolicy(SaturationPolicy saturationPolicy) {
+      this.saturationPolicy = saturationPolicy;
+    }
+  }
 }
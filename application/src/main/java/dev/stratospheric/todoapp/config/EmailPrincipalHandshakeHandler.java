@@ -0,0 +1,35 @@
+package dev.stratospheric.todoapp.config;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * [N]:websocket]:user - Names the principal of the web socket sessions by the email of the OIDC user, which the messages to a user are addressed to (see {@link WebSocketConfig}).<p/>
+ * The principal of the HTTP requests keeps the name of the {@code user-name-attribute} of the OIDC provider, i.e. its {@code sub} claim, so that the emails stay out of the request logs and traces. The HTTP transports of SockJS, only used where web sockets aren't available, don't go through the handshake handler and keep that name.
+ */
+class EmailPrincipalHandshakeHandler extends DefaultHandshakeHandler {
+
+  @Override
+  protected Principal determineUser(@NonNull ServerHttpRequest request, @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+    Principal user = super.determineUser(request, wsHandler, attributes);
+    if (user instanceof Authentication authentication && authentication.getPrincipal() instanceof OidcUser oidcUser && oidcUser.getEmail() != null) {
+      return new EmailPrincipal(oidcUser.getEmail());
+    }
+    return user;
+  }
+
+  record EmailPrincipal(String email) implements Principal {
+
+    @Override
+    public String getName() {
+      return email;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package dev.stratospheric.todoapp.config;
+
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.store.kahadb.KahaDBPersistenceAdapter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * [N]:mq]:websocket - Starts an in-process ActiveMQ broker for {@link MessageBrokerMode#EMBEDDED}.<p/>
+ * The broker only accepts STOMP connections on the loopback interface, on {@code custom.web-socket-broker.embedded.port} (by default, any free port), and keeps its data in a KahaDB store under {@code custom.web-socket-broker.embedded.data-directory}. By default, each instance keeps it in its own temporary directory, deleted when the broker stops, since KahaDB locks its directory. The relay of {@link WebSocketConfig} connects to it once it has started.<p/>
+ * The broker needs ActiveMQ 6 (Jakarta Messaging), the version of the build for the client of every mode.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "custom.web-socket-broker", name = "mode", havingValue = "EMBEDDED")
+public class EmbeddedMessageBrokerConfig {
+
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  public BrokerService embeddedMessageBroker(
+    @Value("${custom.web-socket-broker.embedded.port:0}") int port,
+    @Value("${custom.web-socket-broker.embedded.data-directory:}") String dataDirectoryPath
+  ) throws Exception {
+    boolean temporary = dataDirectoryPath.isBlank();
+    File dataDirectory = temporary ? Files.createTempDirectory("stratospheric-activemq-").toFile() : new File(dataDirectoryPath);
+
+    KahaDBPersistenceAdapter kahaDB = new KahaDBPersistenceAdapter();
+    kahaDB.setDirectory(new File(dataDirectory, "kahadb"));
+
+    BrokerService broker = new BrokerService() {
+      @Override
+      public void stop() throws Exception {
+        try {
+          super.stop();
+        } finally {
+          if (temporary) {
+            FileSystemUtils.deleteRecursively(dataDirectory);
+          }
+        }
+      }
+    };
+    broker.setBrokerName("stratospheric-embedded");
+    broker.setDataDirectoryFile(dataDirectory);
+    broker.setPersistenceAdapter(kahaDB);
+    broker.setUseJmx(false);
+    broker.setUseShutdownHook(false);
+    broker.setAdvisorySupport(false);
+    broker.addConnector("stomp://127.0.0.1:" + port);
+    return broker;
+  }
+
+  /**
+   * @return The port on which the started broker accepts STOMP connections.
+   */
+  static int stompPort(BrokerService broker) throws Exception {
+    return broker.getTransportConnectors().get(0).getConnectUri().getPort();
+  }
+}
@@ -0,0 +1,21 @@
+package dev.stratospheric.todoapp.config;
+
+/**
+ * A buffer of items drained by a long-running task on one of the {@link BoundedExecutors}, e.g. a write-behind buffer. Unlike tasks, its items don't show in the queue of the executor, so the {@link ExecutorsEndpoint} shows the buffer along with it.
+ */
+public interface ExecutorBuffer {
+
+  /**
+   * @return The name of the executor draining the buffer.
+   */
+  String getExecutorName();
+
+  int getSize();
+
+  int getRemainingCapacity();
+
+  /**
+   * @return The number of items dropped instead of being processed, e.g. because the buffer was full.
+   */
+  long getDroppedItems();
+}
@@ -0,0 +1,153 @@
+package dev.stratospheric.todoapp.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Actuator endpoint ({@code /actuator/executors}) showing the live state of the {@link BoundedExecutors}, including their virtual executors and the {@link ExecutorBuffer}s they drain.
+ */
+@Component
+@Endpoint(id = "executors")
+public class ExecutorsEndpoint {
+
+  private final BoundedExecutors boundedExecutors;
+  private final ObjectProvider<ExecutorBuffer> executorBuffers;
+
+  public ExecutorsEndpoint(BoundedExecutors boundedExecutors, ObjectProvider<ExecutorBuffer> executorBuffers) {
+    this.boundedExecutors = boundedExecutors;
+    this.executorBuffers = executorBuffers;
+  }
+
+  @ReadOperation
+  public Map<String, ExecutorDescriptor> executors() {
+    Map<String, ExecutorDescriptor> descriptors = new LinkedHashMap<>();
+    boundedExecutors.getExecutors().forEach((name, executor) -> descriptors.put(name, executor instanceof BoundedExecutors.BoundedExecutor boundedExecutor
+      ? new ExecutorDescriptor(boundedExecutor)
+      : new ExecutorDescriptor((BoundedExecutors.VirtualExecutor) executor)));
+    executorBuffers.orderedStream().forEach(buffer -> {
+      ExecutorDescriptor descriptor = descriptors.get(buffer.getExecutorName());
+      if (descriptor != null) {
+        descriptor.buffers.add(new BufferDescriptor(buffer));
+      }
+    });
+    return descriptors;
+  }
+
+  /**
+   * For a virtual executor, there is no saturation policy nor queue capacity, the pool size is the number of running tasks and the queue holds the tasks waiting for the concurrency limit.
+   */
+  public static class ExecutorDescriptor {
+
+    private final SaturationPolicy saturationPolicy;
+    private final Integer concurrencyLimit;
+    private final int poolSize;
+    private final int activeThreads;
+    private final int queueSize;
+    private final Integer queueRemainingCapacity;
+    private final long completedTasks;
+    private final long rejectedTasks;
+    private final List<BufferDescriptor> buffers = new ArrayList<>();
+
+    ExecutorDescriptor(BoundedExecutors.BoundedExecutor executor) {
+      ThreadPoolExecutor threadPoolExecutor = executor.threadPoolExecutor();
+      this.saturationPolicy = executor.pool().getSaturationPolicy();
+      this.concurrencyLimit = null;
+      this.poolSize = threadPoolExecutor.getPoolSize();
+      this.activeThreads = threadPoolExecutor.getActiveCount();
+      this.queueSize = threadPoolExecutor.getQueue().size();
+      this.queueRemainingCapacity = threadPoolExecutor.getQueue().remainingCapacity();
+      this.completedTasks = threadPoolExecutor.getCompletedTaskCount();
+      this.rejectedTasks = (long) executor.rejectedTasks().count();
+    }
+
+    ExecutorDescriptor(BoundedExecutors.VirtualExecutor executor) {
+      this.saturationPolicy = null;
+      this.concurrencyLimit = executor.concurrencyLimit();
+      this.poolSize = executor.activeTasks().get();
+      this.activeThreads = poolSize;
+      this.queueSize = executor.waitingTasks().get();
+      this.queueRemainingCapacity = null;
+      this.completedTasks = executor.completedTasks().get();
+      this.rejectedTasks = 0;
+    }
+
+    public SaturationPolicy getSaturationPolicy() {
+      return saturationPolicy;
+    }
+
+    /**
+     * @return The concurrency limit of a virtual executor, {@code -1} for none.
+     */
+    public Integer getConcurrencyLimit() {
+      return concurrencyLimit;
+    }
+
+    public int getPoolSize() {
+      return poolSize;
+    }
+
+    public int getActiveThreads() {
+      return activeThreads;
+    }
+
+    public int getQueueSize() {
+      return queueSize;
+    }
+
+    public Integer getQueueRemainingCapacity() {
+      return queueRemainingCapacity;
+    }
+
+    public long getCompletedTasks() {
+      return completedTasks;
+    }
+
+    public long getRejectedTasks() {
+      return rejectedTasks;
+    }
+
+    public List<BufferDescriptor> getBuffers() {
+      return buffers;
+    }
+  }
+
+  public static class BufferDescriptor {
+
+    private final String type;
+    private final int size;
+    private final int remainingCapacity;
+    private final long droppedItems;
+
+    BufferDescriptor(ExecutorBuffer buffer) {
+      this.type = ClassUtils.getUserClass(buffer).getSimpleName();
+      this.size = buffer.getSize();
+      this.remainingCapacity = buffer.getRemainingCapacity();
+      this.droppedItems = buffer.getDroppedItems();
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public int getRemainingCapacity() {
+      return remainingCapacity;
+    }
+
+    public long getDroppedItems() {
+      return droppedItems;
+    }
+  }
+}
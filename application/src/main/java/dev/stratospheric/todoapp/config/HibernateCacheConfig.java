@@ -0,0 +1,50 @@
+package dev.stratospheric.todoapp.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+/**
+ * Enables the Hibernate second-level and query cache when {@code custom.hibernate-cache.enabled} is {@code true}:<ul>
+ *  <li>{@code Person} entities and {@code Todo#collaborators} collections are cached (see their {@code @Cache} annotation). Hibernate updates or invalidates their entries whenever it writes them, e.g. when a collaborator is added or a todo is deleted.</li>
+ *  <li>The results of the collaborator search are kept in the query cache until the {@code person} table changes.</li>
+ * </ul>
+ * The regions are in-process Caffeine caches, bounded in size and with a time-to-live (see {@code hibernate-cache.conf}). With several instances of the application, an instance sees the changes made by another one only once its entries have expired.<p/>
+ * The hit ratio of each region is published as the {@code hibernate.second.level.cache.requests} and {@code hibernate.cache.query.requests} metrics.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "custom.hibernate-cache", name = "enabled", havingValue = "true")
+public class HibernateCacheConfig {
+
+  static final URI CONFIGURATION = URI.create("classpath:hibernate-cache.conf");
+
+  /**
+   * Created here rather than by Hibernate, which can only load a configuration file from the file system, not from within the application's jar.
+   */
+  @Bean
+  public CacheManager hibernateCacheManager() {
+    return Caching
+      .getCachingProvider(CaffeineCachingProvider.class.getName())
+      .getCacheManager(CONFIGURATION, HibernateCacheConfig.class.getClassLoader());
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+    return properties -> {
+      properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+      properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+      properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    };
+  }
+}
@@ -0,0 +1,22 @@
+package dev.stratospheric.todoapp.config;
+
+/**
+ * [N]:mq]:websocket - Where the messages sent to the "/topic" destinations are brokered ({@code custom.web-socket-broker.mode}), see {@link WebSocketConfig}.
+ */
+public enum MessageBrokerMode {
+
+  /**
+   * Relays the STOMP frames to the external ActiveMQ broker of {@code spring.activemq.broker-url}, e.g. Amazon MQ. Required as soon as several instances of the application run.
+   */
+  RELAY,
+
+  /**
+   * Brokers the messages in memory with Spring's simple broker, without any TCP connection. Only the clients connected to the same instance receive a message.
+   */
+  SIMPLE,
+
+  /**
+   * Relays the STOMP frames to an ActiveMQ broker started within the application, which stores its data with KahaDB (see {@link EmbeddedMessageBrokerConfig}). For a single instance that wants ActiveMQ's semantics without running a broker.
+   */
+  EMBEDDED
+}
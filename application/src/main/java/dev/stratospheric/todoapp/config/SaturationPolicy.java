@@ -0,0 +1,35 @@
+package dev.stratospheric.todoapp.config;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * What a bounded executor does with a task when all its threads are busy and its queue is full.
+ */
+public enum SaturationPolicy {
+
+  /**
+   * Runs the task on the submitting thread, which slows the producer down to the pace of the executor.
+   */
+  CALLER_RUNS(new ThreadPoolExecutor.CallerRunsPolicy()),
+
+  /**
+   * Discards the oldest queued task to make room for the new one. For tasks whose value decreases with age and which can be lost, unlike the frames of the notifications.
+   */
+  DROP_OLDEST(new ThreadPoolExecutor.DiscardOldestPolicy()),
+
+  /**
+   * Throws a {@code RejectedExecutionException} to the submitting thread.
+   */
+  REJECT(new ThreadPoolExecutor.AbortPolicy());
+
+  private final RejectedExecutionHandler rejectedExecutionHandler;
+
+  SaturationPolicy(RejectedExecutionHandler rejectedExecutionHandler) {
+    this.rejectedExecutionHandler = rejectedExecutionHandler;
+  }
+
+  RejectedExecutionHandler getRejectedExecutionHandler() {
+    return rejectedExecutionHandler;
+  }
+}
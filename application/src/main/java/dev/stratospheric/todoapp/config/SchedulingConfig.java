@@ -0,0 +1,12 @@
+package dev.stratospheric.todoapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the processing of {@code @Scheduled} methods, such as the relay of the outbox to SQS (see {@link dev.stratospheric.todoapp.outbox.OutboxRelay}).
+ */
+@EnableScheduling
+@Configuration
+public class SchedulingConfig {
+}
@@ -0,0 +1,58 @@
+package dev.stratospheric.todoapp.config;
+
+import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
+import io.awspring.cloud.sqs.listener.acknowledgement.handler.AcknowledgementMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+import java.time.Duration;
+
+/**
+ * [N]:sqs]:listener - Configures the batch consumption of the todo sharing queue (see {@link dev.stratospheric.todoapp.collaboration.TodoSharingListener}).
+ */
+@Configuration
+public class SqsListenerConfig {
+
+  /**
+   * Container factory for listeners that acknowledge their messages themselves.<p/>
+   * With {@code AcknowledgementMode#MANUAL}, a batch listener can acknowledge only the messages it has processed successfully, the others become visible again on the queue once their visibility timeout expires and are retried.<p/>
+   * Acknowledgements are buffered and sent with {@code DeleteMessageBatch}, either every {@code custom.sharing-listener.acknowledgement-interval} or once {@code custom.sharing-listener.acknowledgement-threshold} messages have been acknowledged.
+   * @param pollTimeout How long a poll waits for messages to arrive (SQS long polling, at most 20 seconds).
+   */
+  @Bean
+  public SqsMessageListenerContainerFactory<Object> manualAcknowledgementSqsListenerContainerFactory(
+    SqsAsyncClient sqsAsyncClient,
+    @Value("${custom.sharing-listener.poll-timeout:PT20S}") Duration pollTimeout,
+    @Value("${custom.sharing-listener.acknowledgement-interval:PT1S}") Duration acknowledgementInterval,
+    @Value("${custom.sharing-listener.acknowledgement-threshold:10}") int acknowledgementThreshold) {
+    return SqsMessageListenerContainerFactory
+      .builder()
+      .sqsAsyncClient(sqsAsyncClient)
+      .configure(options -> options
+        .acknowledgementMode(AcknowledgementMode.MANUAL)
+        .pollTimeout(pollTimeout)
+        .acknowledgementInterval(acknowledgementInterval)
+        .acknowledgementThreshold(acknowledgementThreshold))
+      .build();
+  }
+
+  /**
+   * Sends the collaboration emails of a batch in parallel, on the bounded {@code mail} executor configured under {@code custom.executors.mail} (see {@link BoundedExecutors}).<p/>
+   * The listener waits for all the emails of a batch before acknowledging it, so there are never more pending sends than {@code custom.sharing-listener.max-concurrent-messages}. Should the queue fill up anyway, the {@code CALLER_RUNS} saturation policy lets the listener thread send the email itself.<p/>
+   * With {@code custom.threads.virtual}, each email is sent on a new virtual thread instead, still at most {@code custom.executors.mail.pool-size} at a time, and the {@code mail} executor of the {@link ExecutorsEndpoint} shows this concurrency limit and the sends waiting for it. The listener container itself keeps its platform threads, as Spring Cloud AWS 3.0 requires them to be {@code MessageExecutionThread}s.
+   */
+  @Bean
+  public TaskExecutor todoSharingMailExecutor(
+    BoundedExecutors boundedExecutors,
+    @Value("${custom.executors.mail.pool-size:20}") int mailConcurrency,
+    @Value("${custom.threads.virtual:false}") boolean virtualThreads) {
+    if (virtualThreads) {
+      return boundedExecutors.createVirtual("mail", mailConcurrency);
+    }
+
+    return boundedExecutors.create("mail");
+  }
+}
@@ -0,0 +1,73 @@
+package dev.stratospheric.todoapp.config;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+
+/**
+ * [N]:websocket]:user - Routes the messages the application sends to a user through a single broker topic, so that every instance of the application delivers them to the sessions of the user connected to it.<p/>
+ * On the broker channel, a message to "/user/{email}/..." is redirected to the {@code broadcastDestination}, with its original destination in a header. The system session of the relay is subscribed to that topic (see {@code setUserDestinationBroadcast()}) and hands each message back to the {@code UserDestinationMessageHandler}, which resolves the sessions of the user from the local {@code SimpUserRegistry}. The broker thus tracks one topic for all the users, whatever their number. Left alone, Spring only broadcasts the messages of users who have no session on the sending instance, which would miss the browser tabs of a user connected to another instance.<p/>
+ * On the client inbound channel, the clients are refused to subscribe or send to the {@code broadcastDestination}, which would let them read or forge the messages of any user, and to send to the user destinations of others.
+ * @see UserQueueBrokerMessageHandler
+ */
+public class UserDestinationBroadcastInterceptor implements ChannelInterceptor {
+
+  private final String userDestinationPrefix;
+  private final String broadcastDestination;
+
+  /**
+   * @param userDestinationPrefix The prefix of the user destinations, "/user/" by default.
+   * @param broadcastDestination The broker topic the messages to the users go through, or {@code null} if they are brokered in memory.
+   */
+  public UserDestinationBroadcastInterceptor(String userDestinationPrefix, String broadcastDestination) {
+    this.userDestinationPrefix = userDestinationPrefix;
+    this.broadcastDestination = broadcastDestination;
+  }
+
+  @Override
+  public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    if (destination == null) {
+      return message;
+    }
+
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+
+    if (sessionId == null) {
+      return isToUser(destination, messageType) && this.broadcastDestination != null ? broadcast(message, destination) : message;
+    }
+    if (StompBrokerRelayMessageHandler.SYSTEM_SESSION_ID.equals(sessionId)) {
+      return message;
+    }
+    if (destination.equals(this.broadcastDestination) || isToUser(destination, messageType)) {
+      throw new MessageDeliveryException(message, "Clients can't use the destination " + destination);
+    }
+    return message;
+  }
+
+  private boolean isToUser(String destination, SimpMessageType messageType) {
+    return SimpMessageType.MESSAGE.equals(messageType) && destination.startsWith(this.userDestinationPrefix);
+  }
+
+  /**
+   * Leaves a message already broadcast alone, the {@code UserDestinationMessageHandler} drops it if the user has no session here.
+   */
+  private Message<?> broadcast(Message<?> message, String destination) {
+    if (NativeMessageHeaderAccessor.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, message.getHeaders()) != null) {
+      return message;
+    }
+
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+    accessor.setDestination(this.broadcastDestination);
+    accessor.setNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, destination);
+    return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+  }
+}
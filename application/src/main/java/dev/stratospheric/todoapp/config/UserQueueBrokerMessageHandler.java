@@ -0,0 +1,31 @@
+package dev.stratospheric.todoapp.config;
+
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+
+import java.util.List;
+
+/**
+ * [N]:websocket]:user - Brokers the "/queue" destinations in memory, next to the STOMP relay which brokers the "/topic" ones.<p/>
+ * The {@code UserDestinationMessageHandler} turns a subscription to "/user/queue/todoUpdates" into a subscription to "/queue/todoUpdates-user{sessionId}", and a message to "/user/{email}/queue/todoUpdates" into a message to that destination for each session of the user in the {@code SimpUserRegistry}. These destinations only concern the sessions connected to this instance, so they are kept out of the broker, which would otherwise track one queue per web socket session.<p/>
+ * The connections of the sessions belong to the relay, which answers their CONNECT and DISCONNECT frames: the acknowledgements of this handler are dropped rather than sent to the clients a second time.
+ * @see UserDestinationBroadcastInterceptor
+ */
+public class UserQueueBrokerMessageHandler extends SimpleBrokerMessageHandler {
+
+  public UserQueueBrokerMessageHandler(SubscribableChannel clientInboundChannel, MessageChannel clientOutboundChannel, SubscribableChannel brokerChannel) {
+    super(clientInboundChannel, withoutAcknowledgements(clientOutboundChannel), brokerChannel, List.of("/queue"));
+  }
+
+  private static MessageChannel withoutAcknowledgements(MessageChannel clientOutboundChannel) {
+    return (message, timeout) -> {
+      SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+      return SimpMessageType.CONNECT_ACK.equals(messageType)
+        || SimpMessageType.DISCONNECT_ACK.equals(messageType)
+        || clientOutboundChannel.send(message, timeout);
+    };
+  }
+}
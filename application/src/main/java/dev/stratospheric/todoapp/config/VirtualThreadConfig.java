@@ -0,0 +1,72 @@
+package dev.stratospheric.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskExecutor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Runs blocking work on virtual threads instead of platform thread pools when {@code custom.threads.virtual} is {@code true} (requires a Java 21 runtime, see {@link VirtualThreads}):<ul>
+ *  <li>Tomcat handles each request on a new virtual thread.</li>
+ *  <li>{@code @Async} methods run on a new virtual thread (replacing the pool of {@link AsyncConfig}).</li>
+ *  <li>The collaboration emails of the SQS listener are sent on virtual threads (see {@link SqsListenerConfig}).</li>
+ * </ul>
+ * As nothing limits the number of virtual threads, the {@code DataSource} is wrapped in a {@link ConnectionLimitingDataSource} so that they queue for a connection instead of stampeding Postgres.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "custom.threads", name = "virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.taskExecutor("tomcat-handler-", -1));
+  }
+
+  /**
+   * Replaces {@link AsyncConfig#taskExecutor(BoundedExecutors)}, still as the {@code async} executor of the {@link ExecutorsEndpoint}.
+   */
+  @Bean
+  @Primary
+  public TaskExecutor taskExecutor(BoundedExecutors boundedExecutors) {
+    return boundedExecutors.createVirtual("async", -1);
+  }
+
+  @Bean
+  public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikariDataSource) {
+          return new ConnectionLimitingDataSource(
+            hikariDataSource,
+            hikariDataSource.getMaximumPoolSize(),
+            Duration.ofMillis(hikariDataSource.getConnectionTimeout()));
+        }
+        return bean;
+      }
+    };
+  }
+
+  /**
+   * Publishes the number of threads waiting for a connection as {@code stratospheric.jdbc.connections.waiting}.
+   */
+  @Bean
+  public MeterBinder connectionLimitingDataSourceMetrics(DataSource dataSource) {
+    return registry -> {
+      if (dataSource instanceof ConnectionLimitingDataSource connectionLimitingDataSource) {
+        Gauge.builder("stratospheric.jdbc.connections.waiting", connectionLimitingDataSource, ConnectionLimitingDataSource::getWaitingThreads)
+          .description("Number of threads waiting for a database connection")
+          .register(registry);
+      }
+    };
+  }
+}
@@ -0,0 +1,43 @@
+package dev.stratospheric.todoapp.config;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads (JEP 444).<p/>
+ * The application is compiled for Java 17, which doesn't have the virtual thread API, so it is looked up reflectively. Virtual threads require a Java 21 runtime: without it, enabling {@code custom.threads.virtual} fails the startup.
+ */
+final class VirtualThreads {
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * @param namePrefix The prefix of the thread names, followed by a counter.
+   * @return A {@code ThreadFactory} creating virtual threads.
+   */
+  static ThreadFactory threadFactory(String namePrefix) {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+      Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+      return (ThreadFactory) factory.invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Virtual threads require Java 21 or later, but the application runs on Java " + Runtime.version().feature(), e);
+    }
+  }
+
+  /**
+   * @param namePrefix The prefix of the thread names.
+   * @param concurrencyLimit The maximum number of tasks running at the same time, callers block beyond it. {@code -1} for no limit.
+   * @return A {@code TaskExecutor} starting a new virtual thread per task.
+   */
+  static SimpleAsyncTaskExecutor taskExecutor(String namePrefix, int concurrencyLimit) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadFactory(namePrefix));
+    executor.setConcurrencyLimit(concurrencyLimit);
+    return executor;
+  }
+}
@@ -1,14 +1,23 @@
 package dev.stratospheric.todoapp.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.springframework.security.config.Customizer.withDefaults;
 
 /**
@@ -17,6 +26,8 @@ import static org.springframework.security.config.Customizer.withDefaults;
 @Configuration
 public class WebSecurityConfig {
 
+  static final String ADMIN = "ADMIN";
+
   /**
    * [N]:logout - For enabling the OIDC standard of logging out the end user at the identity provider and from the web session.
    * @see LogoutSuccessHandlerConfig
@@ -43,6 +54,8 @@ public class WebSecurityConfig {
       // Permits any request to our static resources and public endpoints/views. 
       .authorizeHttpRequests(httpRequests -> httpRequests
         .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+        // The other actuator endpoints, e.g. /actuator/executors, are for the administrators only.
+        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(ADMIN)
         .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
         .requestMatchers("/", "/register").permitAll()
         .anyRequest().authenticated())
@@ -52,4 +65,25 @@ public class WebSecurityConfig {
 
     return httpSecurity.build();
   }
+
+  /**
+   * Grants {@code ROLE_ADMIN} to the users whose email, as verified by the identity provider, is listed in {@code custom.administrators}. Picked up by {@code oauth2Login}.
+   */
+  @Bean
+  public GrantedAuthoritiesMapper administratorAuthoritiesMapper(@Value("${custom.administrators:}") Set<String> administrators) {
+    return authorities -> {
+      Set<GrantedAuthority> mappedAuthorities = new HashSet<>(authorities);
+      if (isAdministrator(authorities, administrators)) {
+        mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_" + ADMIN));
+      }
+      return mappedAuthorities;
+    };
+  }
+
+  private static boolean isAdministrator(Collection<? extends GrantedAuthority> authorities, Set<String> administrators) {
+    return authorities.stream()
+      .filter(OidcUserAuthority.class::isInstance)
+      .map(authority -> ((OidcUserAuthority) authority).getIdToken())
+      .anyMatch(idToken -> Boolean.TRUE.equals(idToken.getEmailVerified()) && administrators.contains(idToken.getEmail()));
+  }
 }
@@ -1,20 +1,29 @@
 package dev.stratospheric.todoapp.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.netty.resolver.DefaultAddressResolverGroup;
+import org.apache.activemq.broker.BrokerService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
 import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import reactor.netty.tcp.TcpClient;
 
 import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -23,42 +32,90 @@ import java.util.regex.Pattern;
  * [N]:mq]:websocket]:relay - Spring configuration for the web socket<p/>
  * Upon startup, our Spring Boot application will now open up a connection to our <em>ActiveMQ</em> instance and act as a WebSocket relay under the path prefix "/topic".<p/>
  * The {@code @EnableWebSocketMessageBroker} annotation enables WebSocket communication.<p/> 
- * It implements the {@code WebSocketMessageBrokerConfigurer} interface, which provides us with the {@code configureMessageBroker()} and {@code registerStompEndpoints()} methods. These methods allow us to configure the connection to our <em>ActiveMQ</em> message broker.
+ * It implements the {@code WebSocketMessageBrokerConfigurer} interface, which provides us with the {@code configureMessageBroker()} and {@code registerStompEndpoints()} methods. These methods allow us to configure the connection to our <em>ActiveMQ</em> message broker.<p/>
+ * Instead of relaying to an external broker, the "/topic" destinations can also be brokered by Spring's in-memory simple broker or by an ActiveMQ broker embedded in the application, see {@link MessageBrokerMode}.<p/>
+ * [N]:websocket]:user - The messages to a single user are sent to "/user/{email}/queue/...", and the user subscribes to "/user/queue/..." (the name of the web socket principal being the email, see {@link EmailPrincipalHandshakeHandler}). Spring routes them to the sessions of the user from its {@code SimpUserRegistry}, through "/queue" destinations brokered in memory. With a relay, they go through the single {@value #USER_DESTINATION_BROADCAST} topic to reach all the instances, see {@link UserDestinationBroadcastInterceptor} and {@link UserQueueBrokerMessageHandler}.
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
-  private final Endpoint messageBrokerEndpoint;
+  static final String USER_DESTINATION_PREFIX = "/user/";
+  static final String USER_DESTINATION_BROADCAST = "/topic/user-destination-broadcast";
+
+  private final MessageBrokerMode messageBrokerMode;
+  private final String websocketRelayEndpoint;
   private final String messageBrokerUser;
   private final String messageBrokerPassword;
   private final boolean messageBrokerUseSsl;
+  private final Duration messageBrokerInitialBackOff;
+  private final Duration messageBrokerMaxBackOff;
+  private final MeterRegistry meterRegistry;
+  private final ObjectProvider<BrokerService> embeddedMessageBroker;
 
   /**
    * {@code websocketRelayEndpoint}, {@code websocketUsername}, and {@code websocketPassword} arguments are taken from the {@code ActiveMqStack}’s output parameters that we made available to the application via environment variables.
+   * @param messageBrokerMode Where the messages are brokered ({@code custom.web-socket-broker.mode}), the endpoint is only used by {@link MessageBrokerMode#RELAY}.
    * @param websocketRelayEndpoint
    * @param messageBrokerUser
    * @param messageBrokerPassword
    * @param messageBrokerUseSsl
+   * @param messageBrokerInitialBackOff How long a broker is skipped after a failed connection attempt, see {@link BrokerAddressSelector}.
+   * @param messageBrokerMaxBackOff The longest a broker is skipped after consecutive failed connection attempts.
+   * @param embeddedMessageBroker The broker of {@link MessageBrokerMode#EMBEDDED}, see {@link EmbeddedMessageBrokerConfig}.
    * @see application-aws.yml
    */
   public WebSocketConfig(
-    @Value("${spring.activemq.broker-url}") String websocketRelayEndpoint,
-    @Value("${spring.activemq.user}") String messageBrokerUser,
-    @Value("${spring.activemq.password}") String messageBrokerPassword,
-    @Value("${custom.web-socket-relay-use-ssl:#{false}}") boolean messageBrokerUseSsl
+    @Value("${custom.web-socket-broker.mode:RELAY}") MessageBrokerMode messageBrokerMode,
+    @Value("${spring.activemq.broker-url:}") String websocketRelayEndpoint,
+    @Value("${spring.activemq.user:guest}") String messageBrokerUser,
+    @Value("${spring.activemq.password:guest}") String messageBrokerPassword,
+    @Value("${custom.web-socket-relay-use-ssl:#{false}}") boolean messageBrokerUseSsl,
+    @Value("${custom.web-socket-relay-back-off.initial:PT1S}") Duration messageBrokerInitialBackOff,
+    @Value("${custom.web-socket-relay-back-off.max:PT30S}") Duration messageBrokerMaxBackOff,
+    MeterRegistry meterRegistry,
+    ObjectProvider<BrokerService> embeddedMessageBroker
   ) {
-    this.messageBrokerEndpoint = Endpoint.fromEndpointString(websocketRelayEndpoint);
+    this.messageBrokerMode = messageBrokerMode;
+    this.websocketRelayEndpoint = websocketRelayEndpoint;
     this.messageBrokerUser = messageBrokerUser;
     this.messageBrokerPassword = messageBrokerPassword;
     this.messageBrokerUseSsl = messageBrokerUseSsl;
+    this.messageBrokerInitialBackOff = messageBrokerInitialBackOff;
+    this.messageBrokerMaxBackOff = messageBrokerMaxBackOff;
+    this.meterRegistry = meterRegistry;
+    this.embeddedMessageBroker = embeddedMessageBroker;
   }
 
   @Override
   public void configureMessageBroker(@NonNull MessageBrokerRegistry registry) {
+    switch (this.messageBrokerMode) {
+      case RELAY -> enableStompBrokerRelay(registry,
+        Endpoint.fromEndpointString(this.websocketRelayEndpoint).toAddresses(), this.messageBrokerUseSsl);
+      case EMBEDDED -> enableStompBrokerRelay(registry,
+        List.of(InetSocketAddress.createUnresolved("127.0.0.1", embeddedMessageBrokerPort())), false);
+      case SIMPLE -> registry.enableSimpleBroker("/topic", "/queue");
+    }
+    registry.setUserDestinationPrefix(USER_DESTINATION_PREFIX);
+    if (this.messageBrokerMode != MessageBrokerMode.SIMPLE) {
+      registry.configureBrokerChannel().interceptors(userDestinationBroadcastInterceptor());
+    }
+  }
+
+  @Override
+  public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+    registration.interceptors(userDestinationBroadcastInterceptor());
+  }
+
+  private UserDestinationBroadcastInterceptor userDestinationBroadcastInterceptor() {
+    return new UserDestinationBroadcastInterceptor(USER_DESTINATION_PREFIX,
+      this.messageBrokerMode == MessageBrokerMode.SIMPLE ? null : USER_DESTINATION_BROADCAST);
+  }
+
+  private void enableStompBrokerRelay(MessageBrokerRegistry registry, List<InetSocketAddress> brokerAddresses, boolean useSsl) {
     // [N]:mq]:relay - The  custom TCP client then is used by calling setTcpClient(tcpClient) when we register our STOMP relay.
-    ReactorNettyTcpClient<byte[]> customTcpClient = this.messageBrokerUseSsl ?
-      getCustomTcpClientWithSSLSupport() : getCustomTcpClientWithoutSSLSupport();
+    ReactorNettyTcpClient<byte[]> customTcpClient = createTcpClient(new BrokerAddressSelector(
+      brokerAddresses, this.messageBrokerInitialBackOff, this.messageBrokerMaxBackOff, this.meterRegistry), useSsl);
 
     registry
       .enableStompBrokerRelay("/topic")
@@ -67,57 +124,44 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
       .setClientPasscode(this.messageBrokerPassword)
       .setSystemLogin(this.messageBrokerUser)
       .setSystemPasscode(this.messageBrokerPassword)
+      .setUserDestinationBroadcast(USER_DESTINATION_BROADCAST)
       .setTcpClient(customTcpClient);
   }
 
-  private ReactorNettyTcpClient<byte[]> getCustomTcpClientWithoutSSLSupport() {
-    return new ReactorNettyTcpClient<>(configurer -> configurer
-      .host(this.messageBrokerEndpoint.host)
-      .port(this.messageBrokerEndpoint.port), new StompReactorNettyCodec());
-  }
-
   /**
-   * Returns a TCP client for connecting to the <em>Amazon MQ</em> instance.<p/>
+   * [N]:mq]:relay - Returns the TCP client connecting the relay to the broker(s) of the endpoint, which the given {@code BrokerAddressSelector} picks for each connection.<p/>
+   * Although we’re only running a single ActiveMQ instance rather than an active/standby set of instances, the custom TCP client also supports multiple hosts, from a failover URI.<p/>
    * Since <em>Amazon MQ</em> instances are only - and rightfully so - available via connections encrypted through SSL as well as domain names rather than IP addresses (which also is pretty much a prerequisite for using SSL) we have to resort to creating our TCP client based on {@code Reactor}’s {@code ReactorNettyTcpClient}.
    * @see <a href="https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/messaging/tcp/reactor/ReactorNettyTcpClient.html">ReactorNettyTcpClient</a>
    */
-  private ReactorNettyTcpClient<byte[]> getCustomTcpClientWithSSLSupport() { 
+  private ReactorNettyTcpClient<byte[]> createTcpClient(BrokerAddressSelector brokerAddressSelector, boolean useSsl) {
     return new ReactorNettyTcpClient<>(
-      configurer 
-        -> configurer
-            .host(this.messageBrokerEndpoint.host)
-            .port(this.messageBrokerEndpoint.port)
+      configurer -> {
+        TcpClient tcpClient = configurer
+          .remoteAddress(brokerAddressSelector::next)
+          .doOnChannelInit(brokerAddressSelector::onChannelInit);
+
+        return useSsl
+          ? tcpClient
             // [N]:mq - "resolver(...)" provides us with the working DNS resolver that allows us to resolve domain names in our VPC.
             .resolver(DefaultAddressResolverGroup.INSTANCE)
             // [N]:mq - "secure()" enables SSL connectivity depending on the value of the member messageBrokerUseSsl, which is controlled by the web-socket-relay-use-ssl property in application.yml configuration file.
-            .secure(), 
+            .secure()
+          : tcpClient;
+      },
       new StompReactorNettyCodec()
     );
   }
 
   /**
-   * [N]:mq]:relay - Returns a round-robin TCP client.<p/>
-   * Although we’re only running a single ActiveMQ instance rather than an active/standby set of instances, the custom TCP client would also support multiple hosts in a round-robin fashion
-   * @param endpoint
+   * Starts the embedded broker, if not started yet, and returns its STOMP port.
    */
-  private ReactorNettyTcpClient<byte[]> createRoundRobinTcpClient(Endpoint endpoint) {
-    final List<InetSocketAddress> addressList = new ArrayList<>();
-
-    for (String hostURI : endpoint.activeStandbyHosts) {
-      String[] hostAndPort = hostURI.split(":");
-      addressList.add(new InetSocketAddress(hostAndPort[0], Integer.parseInt(hostAndPort[1])));
+  private int embeddedMessageBrokerPort() {
+    try {
+      return EmbeddedMessageBrokerConfig.stompPort(this.embeddedMessageBroker.getObject());
+    } catch (Exception e) {
+      throw new IllegalStateException("The embedded message broker couldn't be started", e);
     }
-
-    final RoundRobinList<InetSocketAddress> addresses = new RoundRobinList<>(addressList);
-
-    return new ReactorNettyTcpClient<>(
-      builder 
-        -> builder
-            .remoteAddress(addresses::get)
-            .secure()
-            .resolver(DefaultAddressResolverGroup.INSTANCE),
-      new StompReactorNettyCodec()
-    );
   }
 
   /**
@@ -129,16 +173,34 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
   public void registerStompEndpoints(StompEndpointRegistry registry) {
     registry
       .addEndpoint("/websocket")
+      .setHandshakeHandler(new EmailPrincipalHandshakeHandler())
       .withSockJS();
   }
 
+  /**
+   * [N]:websocket]:user - Brokers the "/queue" destinations of the users in memory when "/topic" is relayed.
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnExpression("!'SIMPLE'.equalsIgnoreCase('${custom.web-socket-broker.mode:RELAY}')")
+  static class UserQueueBrokerConfig {
+
+    @Bean
+    UserQueueBrokerMessageHandler userQueueBrokerMessageHandler(
+      @Qualifier("clientInboundChannel") SubscribableChannel clientInboundChannel,
+      @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+      @Qualifier("brokerChannel") SubscribableChannel brokerChannel
+    ) {
+      return new UserQueueBrokerMessageHandler(clientInboundChannel, clientOutboundChannel, brokerChannel);
+    }
+  }
+
   /**
    * An endpoint defined via either:<ul>
    *  <li>a combination of {@code host} and {@code port} (from "stomp+ssl://{host}:{port}") or </li>
    *  <li>the {@code activeStandbyHost} list (from "failover:(//{host}[,{host},...]")</li>
    * </ul>
    */
-  private static class Endpoint {
+  static class Endpoint {
     final String host;
     final Integer port;
     final List<String> activeStandbyHosts;
@@ -199,29 +261,21 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
       return null;
     }
-  }
-
-  private static class RoundRobinList<T> {
-
-    private Iterator<T> iterator;
-    private final Collection<T> elements;
-
-    public RoundRobinList(Collection<T> elements) {
-      this.elements = elements;
-      iterator = this.elements.iterator();
-    }
 
-    public synchronized T get() {
-      if (iterator.hasNext()) {
-        return iterator.next();
-      } else {
-        iterator = elements.iterator();
-        return iterator.next();
+    /**
+     * @return The unresolved address of each broker of the endpoint, so that their host names are resolved on each connection.
+     */
+    List<InetSocketAddress> toAddresses() {
+      if (activeStandbyHosts == null) {
+        return List.of(InetSocketAddress.createUnresolved(host, port));
       }
-    }
 
-    public int size() {
-      return elements.size();
+      List<InetSocketAddress> addresses = new ArrayList<>();
+      for (String hostURI : activeStandbyHosts) {
+        String[] hostAndPort = hostURI.split(":");
+        addresses.add(InetSocketAddress.createUnresolved(hostAndPort[0], Integer.parseInt(hostAndPort[1])));
+      }
+      return addresses;
     }
   }
 }
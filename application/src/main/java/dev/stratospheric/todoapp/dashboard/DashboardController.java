@@ -1,21 +1,27 @@
 package dev.stratospheric.todoapp.dashboard;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.util.List;
 
 /**
- *  [N]:share - Sets the content of the ${collaborators} attribute.
+ *  [N]:share - Renders the dashboard and serves the collaborator suggestions of its share picker.
  */
 @Controller
 @RequestMapping("/dashboard")
 public class DashboardController {
 
+  private static final int DEFAULT_PAGE_SIZE = 25;
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final DashboardService dashboardService;
 
   public DashboardController(DashboardService dashboardService) {
@@ -25,14 +31,111 @@ public class DashboardController {
 
   @GetMapping
   public String getDashboard(Model model, @AuthenticationPrincipal OidcUser user) {
-    model.addAttribute("collaborators", List.of());
-
     if (user != null) {
-      // [N]:share - Sets the content of the ${collaborators} attribute.
-      model.addAttribute("collaborators", dashboardService.getAvailableCollaborators(user.getEmail()));
-      model.addAttribute("todos", dashboardService.getAllOwnedAndSharedTodos(user.getEmail()));
+      addTodoPage(model, dashboardService.getOwnedAndSharedTodos(user.getEmail(), false, 0, DEFAULT_PAGE_SIZE));
     }
 
     return "dashboard";
   }
+
+  /**
+   * Renders the rows of the page following the given position, used by the "load more" button of the dashboard.
+   * @param afterShared Whether the last row already displayed is a shared todo
+   * @param afterId The id of the last row already displayed
+   */
+  @GetMapping("/todos/rows")
+  public String getTodoRows(
+    @RequestParam(name = "afterShared", defaultValue = "false") boolean afterShared,
+    @RequestParam(name = "afterId", defaultValue = "0") long afterId,
+    @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+    @AuthenticationPrincipal OidcUser user,
+    Model model
+  ) {
+    addTodoPage(model, dashboardService.getOwnedAndSharedTodos(user.getEmail(), afterShared, afterId, boundedPageSize(size)));
+
+    return "dashboard :: todoRows";
+  }
+
+  /**
+   * Renders the dashboard with the first page of the todos matching the search terms, best matches first.
+   * @param query The search terms
+   */
+  @GetMapping("/search")
+  public String search(
+    @RequestParam(name = "query", defaultValue = "") String query,
+    @AuthenticationPrincipal OidcUser user,
+    Model model
+  ) {
+    addSearchPage(model, query, dashboardService.searchOwnedAndSharedTodos(user.getEmail(), query, 0, DEFAULT_PAGE_SIZE));
+
+    return "dashboard";
+  }
+
+  /**
+   * Renders the rows of the given page of search results, used by the "load more" button of the dashboard.
+   * @param query The search terms
+   * @param page The number of the page, starting at {@code 0}
+   */
+  @GetMapping("/search/rows")
+  public String getSearchRows(
+    @RequestParam(name = "query", defaultValue = "") String query,
+    @RequestParam(name = "page", defaultValue = "0") int page,
+    @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+    @AuthenticationPrincipal OidcUser user,
+    Model model
+  ) {
+    addSearchPage(model, query, dashboardService.searchOwnedAndSharedTodos(user.getEmail(), query, Math.max(0, page), boundedPageSize(size)));
+
+    return "dashboard :: todoRows";
+  }
+
+  /**
+   * JSON variant of the dashboard: returns the page of todos following the given position as a {@link Slice}.
+   * @param afterShared Whether the last todo of the previous page is a shared todo
+   * @param afterId The id of the last todo of the previous page
+   */
+  @GetMapping("/todos")
+  @ResponseBody
+  public Slice<TodoDto> getTodos(
+    @RequestParam(name = "afterShared", defaultValue = "false") boolean afterShared,
+    @RequestParam(name = "afterId", defaultValue = "0") long afterId,
+    @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+    @AuthenticationPrincipal OidcUser user
+  ) {
+    return dashboardService.getOwnedAndSharedTodos(user.getEmail(), afterShared, afterId, boundedPageSize(size));
+  }
+
+  /**
+   * [N]:share - Typeahead endpoint of the collaborator picker of the dashboard.
+   * @param query The beginning of the collaborator's name
+   */
+  @GetMapping("/collaborators")
+  @ResponseBody
+  public List<CollaboratorDto> getCollaborators(
+    @RequestParam(name = "query", defaultValue = "") String query,
+    @AuthenticationPrincipal OidcUser user
+  ) {
+    return dashboardService.searchCollaborators(user.getEmail(), query);
+  }
+
+  private void addTodoPage(Model model, Slice<TodoDto> todos) {
+    model.addAttribute("todos", todos.getContent());
+    model.addAttribute("hasMoreTodos", todos.hasNext());
+
+    if (todos.hasContent()) {
+      TodoDto lastTodo = todos.getContent().get(todos.getNumberOfElements() - 1);
+      model.addAttribute("lastTodoId", lastTodo.getId());
+      model.addAttribute("lastTodoIsShared", lastTodo.isCollaboration());
+    }
+  }
+
+  private void addSearchPage(Model model, String query, Slice<TodoDto> todos) {
+    addTodoPage(model, todos);
+    model.addAttribute("query", query);
+    model.addAttribute("nextSearchPage", todos.getNumber() + 1);
+  }
+
+  private int boundedPageSize(int size) {
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
 }
@@ -4,6 +4,10 @@ import dev.stratospheric.todoapp.person.Person;
 import dev.stratospheric.todoapp.person.PersonRepository;
 import dev.stratospheric.todoapp.todo.TodoRepository;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +18,9 @@ import java.util.stream.Collectors;
 @Transactional
 public class DashboardService {
 
+  static final int MAX_COLLABORATOR_SUGGESTIONS = 10;
+  static final int MIN_COLLABORATOR_PREFIX_LENGTH = 2;
+
   private final PersonRepository personRepository;
   private final TodoRepository todoRepository;
 
@@ -22,29 +29,82 @@ public class DashboardService {
     this.todoRepository = todoRepository;
   }
 
-  public List<CollaboratorDto> getAvailableCollaborators(String email) {
-   List<Person> collaborators = personRepository.findByEmailNot(email);
+  /**
+   * [N]:share - Suggests the collaborators whose name starts with the given prefix, excluding the logged-in user.<p/>
+   * A prefix shorter than {@value #MIN_COLLABORATOR_PREFIX_LENGTH} characters matches most of the persons, which would have to be scanned and sorted by name for the first page, so it isn't looked up.
+   * @param email The email of the logged-in user
+   * @param namePrefix What the user has typed so far in the collaborator picker
+   * @return At most {@value #MAX_COLLABORATOR_SUGGESTIONS} collaborators, ordered by name, none for a too short prefix
+   */
+  public List<CollaboratorDto> searchCollaborators(String email, String namePrefix) {
+    String prefix = namePrefix.strip();
+    if (prefix.length() < MIN_COLLABORATOR_PREFIX_LENGTH) {
+      return List.of();
+    }
+
+    List<Person> collaborators = personRepository.findByNameStartingWithIgnoreCaseAndEmailNot(
+      prefix,
+      email,
+      PageRequest.of(0, MAX_COLLABORATOR_SUGGESTIONS, Sort.by("name")));
 
-   return collaborators
-     .stream()
-     .map(person -> new CollaboratorDto(person.getId(), person.getName()))
-     .collect(Collectors.toList());
+    return collaborators
+      .stream()
+      .map(person -> new CollaboratorDto(person.getId(), person.getName()))
+      .collect(Collectors.toList());
   }
 
+  /**
+   * Lists the todos owned by and shared with the given user, owned ones first.<p/>
+   * The rows are read as {@link dev.stratospheric.todoapp.todo.TodoSummary} projections so that rendering the dashboard costs a single query, whatever the number of todos.
+   */
   public List<TodoDto> getAllOwnedAndSharedTodos(String email) {
+    return todoRepository.findAllOwnedAndSharedSummaries(email)
+      .stream()
+      .map(TodoDto::new)
+      .collect(Collectors.toList());
+  }
 
-    List<TodoDto> ownedTodos = todoRepository.findAllByOwnerEmailOrderByIdAsc(email)
+  /**
+   * Returns one page of the todos owned by and shared with the given user, using keyset pagination.<p/>
+   * One extra row is fetched to find out whether a next page exists, so no count query is needed.
+   * @param email The email of the logged-in user
+   * @param afterCollaboration Whether the last todo of the previous page was a shared one ({@code false} for the first page)
+   * @param afterId The id of the last todo of the previous page ({@code 0} for the first page)
+   * @param pageSize The maximum number of todos of the page
+   */
+  public Slice<TodoDto> getOwnedAndSharedTodos(String email, boolean afterCollaboration, long afterId, int pageSize) {
+    List<TodoDto> todos = todoRepository.findOwnedAndSharedSummariesAfter(email, afterCollaboration, afterId, pageSize + 1)
       .stream()
-      .map(todo -> new TodoDto(todo, false))
+      .map(TodoDto::new)
       .collect(Collectors.toList());
 
-    List<TodoDto> collaborativeTodos = todoRepository.findAllByCollaboratorsEmailOrderByIdAsc(email)
+    boolean hasNext = todos.size() > pageSize;
+
+    return new SliceImpl<>(hasNext ? todos.subList(0, pageSize) : todos, PageRequest.ofSize(pageSize), hasNext);
+  }
+
+  /**
+   * Returns one page of the todos owned by and shared with the given user that match the search terms, best matches first.<p/>
+   * Unlike the dashboard, the pages are addressed by number, as the ranking doesn't provide a stable position to seek from.
+   * @param email The email of the logged-in user
+   * @param query The search terms, see {@link TodoRepository#searchOwnedAndSharedSummaries(String, String, int, long)}
+   * @param page The number of the page, starting at {@code 0}
+   * @param pageSize The maximum number of todos of the page
+   */
+  public Slice<TodoDto> searchOwnedAndSharedTodos(String email, String query, int page, int pageSize) {
+    PageRequest pageRequest = PageRequest.of(page, pageSize);
+
+    if (query.isBlank()) {
+      return new SliceImpl<>(List.of(), pageRequest, false);
+    }
+
+    List<TodoDto> todos = todoRepository.searchOwnedAndSharedSummaries(email, query.strip(), pageSize + 1, pageRequest.getOffset())
       .stream()
-      .map(todo -> new TodoDto(todo, true))
+      .map(TodoDto::new)
       .collect(Collectors.toList());
 
-    ownedTodos.addAll(collaborativeTodos);
+    boolean hasNext = todos.size() > pageSize;
 
-    return ownedTodos;
+    return new SliceImpl<>(hasNext ? todos.subList(0, pageSize) : todos, pageRequest, hasNext);
   }
 }
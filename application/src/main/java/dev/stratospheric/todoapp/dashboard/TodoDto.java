@@ -1,6 +1,7 @@
 package dev.stratospheric.todoapp.dashboard;
 
 import dev.stratospheric.todoapp.todo.Todo;
+import dev.stratospheric.todoapp.todo.TodoSummary;
 
 import java.time.LocalDate;
 
@@ -22,6 +23,15 @@ public class TodoDto {
     this.isCollaboration = isCollaboration;
   }
 
+  public TodoDto(TodoSummary todoSummary) {
+    this.id = todoSummary.getId();
+    this.title = todoSummary.getTitle();
+    this.amountOfCollaborationRequests = todoSummary.getAmountOfCollaborationRequests();
+    this.amountOfCollaborators = todoSummary.getAmountOfCollaborators();
+    this.dueDate = todoSummary.getDueDate();
+    this.isCollaboration = todoSummary.isCollaboration();
+  }
+
   public Long getId() {
     return id;
   }
@@ -0,0 +1,283 @@
+package dev.stratospheric.todoapp.notification;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [N]:websocket]:notification - Sends the WebSocket notifications with the {@code SimpMessagingTemplate}, coalescing the bursts into fewer STOMP frames.<p/>
+ * The notifications are buffered per recipient, i.e. per user and destination, or per destination for the notifications to all users. The first notification of a recipient waits {@code custom.notifications.coalesce-window} for others, then they are all sent in a single frame whose payload is the list of the notifications, in their order of arrival. A notification equal to one already waiting is only sent once, at the position of its latest submission: in a burst A, B, A, e.g. a todo changed and changed back, B is sent before A, so that the recipient ends up with A. Beyond {@code custom.notifications.max-batch-size} waiting notifications, the oldest is dropped. Notifications that can't be lost, e.g. the changes of the todos, are submitted with an overflow notification instead, which replaces all the notifications of the recipient once they are too many, and the ones submitted after it, so that the recipient reloads its state.<p/>
+ * Each recipient gets at most {@code custom.notifications.rate-limit.frames} frames per {@code custom.notifications.rate-limit.period}: the frames may come in a burst, then one per period / frames. The notifications of a recipient over its limit keep on coalescing until its next frame is allowed.<p/>
+ * The due frames are looked for every {@code custom.notifications.flush-interval} and sent on the {@code notificationExecutor}, so that a slow message broker doesn't hold up the others. Its saturation policy must not drop frames, or the changes they carry would be lost. The notifications still waiting when the application stops are sent right away, before the message broker stops. Bursts only cost a frame per recipient and window, but a single notification is delayed by the coalesce window plus up to a flush interval.<p/>
+ * The pipeline publishes the {@code stratospheric.notifications.pending} gauge (recipients with waiting notifications), the {@code stratospheric.notifications.frames} and {@code stratospheric.notifications.frames.saved} counters (notifications which didn't need a frame of their own, tagged with the {@code reason}: {@code coalesced}, {@code duplicate} or {@code dropped}) and the {@code stratospheric.notifications.latency} timer, from the submission of each notification to the sending of its frame.
+ */
+@Component
+public class NotificationPipeline implements SmartLifecycle {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NotificationPipeline.class);
+
+  private final SimpMessagingTemplate simpMessagingTemplate;
+  private final Executor notificationExecutor;
+  private final Clock clock;
+  private final long coalesceWindowNanos;
+  private final int maxBatchSize;
+  private final long frameIntervalNanos;
+  private final long burstToleranceNanos;
+
+  private final Map<Recipient, Batch> pending = new ConcurrentHashMap<>();
+  /**
+   * Per recipient which got frames lately, the theoretical arrival time of its next frame (generic cell rate algorithm): a frame is allowed as long as it is at most the burst tolerance ahead. Only accessed by {@link #flushDue()}.
+   */
+  private final Map<Recipient, Long> rateLimits = new HashMap<>();
+
+  private final Counter frames;
+  private final Counter coalesced;
+  private final Counter duplicates;
+  private final Counter dropped;
+  private final Timer latency;
+
+  private volatile boolean running;
+
+  /**
+   * Who a frame is sent to.
+   * @param user The name of the user, i.e. the email, or {@code null} to send to all the subscribers of the destination.
+   */
+  record Recipient(String user, String destination) {
+  }
+
+  /**
+   * The notifications waiting for a recipient, with the time each one was submitted at.
+   */
+  private static final class Batch {
+
+    private final long firstSubmittedNanos;
+    private final Map<Object, Long> notifications = new LinkedHashMap<>();
+    private int duplicates;
+    private int dropped;
+    private boolean overflowed;
+
+    private Batch(long firstSubmittedNanos) {
+      this.firstSubmittedNanos = firstSubmittedNanos;
+    }
+  }
+
+  /**
+   * @param brokerMessageHandlers The message brokers, which Spring thus only stops once the pipeline has stopped (see {@link #stop()}).
+   * @param notificationExecutor Sends the frames in the background (see {@code AsyncConfig#notificationExecutor}).
+   * @param coalesceWindow How long the first notification of a recipient waits for others ({@code custom.notifications.coalesce-window}).
+   * @param maxBatchSize The maximum number of distinct notifications waiting for a recipient ({@code custom.notifications.max-batch-size}).
+   * @param rateLimitFrames The maximum number of frames sent to a recipient per {@code rateLimitPeriod} ({@code custom.notifications.rate-limit.frames}).
+   * @param rateLimitPeriod {@code custom.notifications.rate-limit.period}.
+   */
+  public NotificationPipeline(
+    SimpMessagingTemplate simpMessagingTemplate,
+    List<AbstractBrokerMessageHandler> brokerMessageHandlers,
+    @Qualifier("notificationExecutor") Executor notificationExecutor,
+    MeterRegistry meterRegistry,
+    @Value("${custom.notifications.coalesce-window:PT0.5S}") Duration coalesceWindow,
+    @Value("${custom.notifications.max-batch-size:20}") int maxBatchSize,
+    @Value("${custom.notifications.rate-limit.frames:5}") int rateLimitFrames,
+    @Value("${custom.notifications.rate-limit.period:PT10S}") Duration rateLimitPeriod) {
+    if (maxBatchSize < 1 || rateLimitFrames < 1) {
+      throw new IllegalArgumentException("The batches and the rate limit must allow at least one notification");
+    }
+
+    this.simpMessagingTemplate = simpMessagingTemplate;
+    this.notificationExecutor = notificationExecutor;
+    this.clock = meterRegistry.config().clock();
+    this.coalesceWindowNanos = coalesceWindow.toNanos();
+    this.maxBatchSize = maxBatchSize;
+    this.frameIntervalNanos = rateLimitPeriod.toNanos() / rateLimitFrames;
+    this.burstToleranceNanos = rateLimitPeriod.toNanos() - frameIntervalNanos;
+
+    Gauge.builder("stratospheric.notifications.pending", pending, Map::size)
+      .description("Number of recipients with notifications waiting to be sent")
+      .register(meterRegistry);
+    this.frames = Counter.builder("stratospheric.notifications.frames")
+      .description("Number of STOMP frames sent with notifications")
+      .register(meterRegistry);
+    this.coalesced = savedFramesCounter(meterRegistry, "coalesced");
+    this.duplicates = savedFramesCounter(meterRegistry, "duplicate");
+    this.dropped = savedFramesCounter(meterRegistry, "dropped");
+    this.latency = Timer.builder("stratospheric.notifications.latency")
+      .description("Time from the submission of a notification to the sending of its frame")
+      .register(meterRegistry);
+  }
+
+  /**
+   * Sends a notification to the sessions of a user, on the "/user/queue/..." destination they subscribed to (see {@code WebSocketConfig}).
+   * @param userEmail The name of the user.
+   * @param destination The destination, e.g. "/queue/todoUpdates".
+   * @param notification The notification, serialized to JSON with the others of its frame.
+   */
+  public void sendToUser(String userEmail, String destination, Object notification) {
+    submit(new Recipient(userEmail, destination), notification, null);
+  }
+
+  /**
+   * Sends a notification to the sessions of a user, which isn't dropped beyond the max batch size.
+   * @param overflowNotification Sent instead of all the waiting notifications of the user and destination once they are too many, e.g. to have the user reload its state.
+   */
+  public void sendToUser(String userEmail, String destination, Object notification, Object overflowNotification) {
+    submit(new Recipient(userEmail, destination), notification, overflowNotification);
+  }
+
+  /**
+   * Sends a notification to all the subscribers of a destination, e.g. "/topic/todoUpdates".
+   */
+  public void send(String destination, Object notification) {
+    submit(new Recipient(null, destination), notification, null);
+  }
+
+  private void submit(Recipient recipient, Object notification, Object overflowNotification) {
+    long now = clock.monotonicTime();
+    pending.compute(recipient, (key, batch) -> {
+      Batch current = batch != null ? batch : new Batch(now);
+      if (current.overflowed) {
+        current.dropped++;
+        return current;
+      }
+      Long firstSubmitted = current.notifications.remove(notification);
+      if (firstSubmitted != null) {
+        // moved to the tail, so that the latest state wins over those submitted in between
+        current.notifications.put(notification, firstSubmitted);
+        current.duplicates++;
+        return current;
+      }
+      if (current.notifications.size() == maxBatchSize && overflowNotification != null) {
+        current.dropped += current.notifications.size() + 1;
+        current.notifications.clear();
+        current.notifications.put(overflowNotification, now);
+        current.overflowed = true;
+        return current;
+      }
+      if (current.notifications.size() == maxBatchSize) {
+        Iterator<Object> oldest = current.notifications.keySet().iterator();
+        oldest.next();
+        oldest.remove();
+        current.dropped++;
+      }
+      current.notifications.put(notification, now);
+      return current;
+    });
+  }
+
+  /**
+   * Sends the frames of the recipients whose coalesce window is over and who are within their rate limit.
+   */
+  @Scheduled(fixedDelayString = "${custom.notifications.flush-interval:PT0.1S}")
+  public synchronized void flushDue() {
+    long now = clock.monotonicTime();
+    // a recipient allowed its next frame before now has its full burst again
+    rateLimits.values().removeIf(allowedAt -> allowedAt - now <= 0);
+
+    for (Recipient recipient : List.copyOf(pending.keySet())) {
+      Batch[] due = new Batch[1];
+      pending.computeIfPresent(recipient, (key, batch) -> {
+        if (now - batch.firstSubmittedNanos < coalesceWindowNanos || !acquireFrame(recipient, now)) {
+          return batch;
+        }
+        due[0] = batch;
+        return null;
+      });
+
+      if (due[0] != null) {
+        sendFrame(recipient, due[0], notificationExecutor);
+      }
+    }
+  }
+
+  /**
+   * Sends all the waiting notifications, whatever their coalesce window and rate limit, in the calling thread.
+   */
+  public synchronized void flushAll() {
+    for (Recipient recipient : List.copyOf(pending.keySet())) {
+      Batch batch = pending.remove(recipient);
+      if (batch != null) {
+        sendFrame(recipient, batch, Runnable::run);
+      }
+    }
+  }
+
+  @Override
+  public void start() {
+    running = true;
+  }
+
+  /**
+   * Sends the waiting notifications when the application stops. The broker message handlers share the default phase of the pipeline, but since it depends on them, Spring stops it first, while they still accept messages.
+   */
+  @Override
+  public void stop() {
+    running = false;
+    flushAll();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private boolean acquireFrame(Recipient recipient, long now) {
+    long allowedAt = rateLimits.getOrDefault(recipient, now);
+    if (allowedAt - now > burstToleranceNanos) {
+      return false;
+    }
+    rateLimits.put(recipient, Math.max(allowedAt, now) + frameIntervalNanos);
+    return true;
+  }
+
+  private void sendFrame(Recipient recipient, Batch batch, Executor executor) {
+    coalesced.increment(batch.notifications.size() - 1);
+    duplicates.increment(batch.duplicates);
+    dropped.increment(batch.dropped);
+
+    List<Object> notifications = new ArrayList<>(batch.notifications.keySet());
+    List<Long> submittedNanos = new ArrayList<>(batch.notifications.values());
+    executor.execute(() -> {
+      try {
+        if (recipient.user() != null) {
+          simpMessagingTemplate.convertAndSendToUser(recipient.user(), recipient.destination(), notifications);
+        } else {
+          simpMessagingTemplate.convertAndSend(recipient.destination(), notifications);
+        }
+        frames.increment();
+
+        long sentNanos = clock.monotonicTime();
+        submittedNanos.forEach(submitted -> latency.record(sentNanos - submitted, TimeUnit.NANOSECONDS));
+      } catch (MessagingException e) {
+        LOG.warn("Failed to send {} notifications to {}", notifications.size(), recipient.destination(), e);
+      }
+    });
+  }
+
+  private static Counter savedFramesCounter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("stratospheric.notifications.frames.saved")
+      .description("Number of notifications which were not sent in a frame of their own")
+      .tag("reason", reason)
+      .register(meterRegistry);
+  }
+}
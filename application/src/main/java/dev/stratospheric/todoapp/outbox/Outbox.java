@@ -0,0 +1,49 @@
+package dev.stratospheric.todoapp.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * [N]:sqs - Entry point of the transactional outbox.<p/>
+ * Instead of sending a message to SQS while the database transaction is open, the message is stored in the {@code OUTBOX_MESSAGE} table as part of the caller's transaction. It is therefore only sent if the transaction commits, and the request does not wait for SQS. The {@link OutboxRelay} sends it shortly afterwards.
+ */
+@Component
+public class Outbox {
+
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final ObjectMapper objectMapper;
+
+  public Outbox(OutboxMessageRepository outboxMessageRepository, ObjectMapper objectMapper) {
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Stores the given payload to be sent to the given queue once the current transaction commits.
+   * @param queueName The name of the SQS queue
+   * @param payload The payload, serialized to JSON
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueue(String queueName, Object payload) {
+    OutboxMessage message = new OutboxMessage();
+    message.setQueueName(queueName);
+    message.setPayloadType(payload.getClass().getName());
+    message.setPayload(toJson(payload));
+    message.setCreatedAt(Instant.now());
+
+    outboxMessageRepository.save(message);
+  }
+
+  private String toJson(Object payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Unable to serialize outbox payload of type " + payload.getClass().getName(), e);
+    }
+  }
+}
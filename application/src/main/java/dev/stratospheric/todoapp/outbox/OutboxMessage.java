@@ -0,0 +1,98 @@
+package dev.stratospheric.todoapp.outbox;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+import java.time.Instant;
+
+/**
+ * [N]:sqs - A message waiting in the outbox to be relayed to an SQS queue.<p/>
+ * The payload is kept as the JSON representation of an object of type {@code payloadType}. A message is claimed by the {@link OutboxRelay} sending it until {@code claimedUntil}, and is set aside with its {@code failedAt} and {@code failure} if it can't be sent at all.
+ */
+@Entity
+public class OutboxMessage {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  private String queueName;
+
+  private String payloadType;
+
+  private String payload;
+
+  private Instant createdAt;
+
+  private Instant claimedUntil;
+
+  private Instant failedAt;
+
+  private String failure;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getQueueName() {
+    return queueName;
+  }
+
+  public void setQueueName(String queueName) {
+    this.queueName = queueName;
+  }
+
+  public String getPayloadType() {
+    return payloadType;
+  }
+
+  public void setPayloadType(String payloadType) {
+    this.payloadType = payloadType;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public void setPayload(String payload) {
+    this.payload = payload;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getClaimedUntil() {
+    return claimedUntil;
+  }
+
+  public void setClaimedUntil(Instant claimedUntil) {
+    this.claimedUntil = claimedUntil;
+  }
+
+  public Instant getFailedAt() {
+    return failedAt;
+  }
+
+  public void setFailedAt(Instant failedAt) {
+    this.failedAt = failedAt;
+  }
+
+  public String getFailure() {
+    return failure;
+  }
+
+  public void setFailure(String failure) {
+    this.failure = failure;
+  }
+}
@@ -0,0 +1,39 @@
+package dev.stratospheric.todoapp.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+  /**
+   * Locks the oldest pending messages, i.e. those neither failed nor claimed by a relay. Messages already locked by another instance of the relay are skipped, so that several application instances can drain the outbox concurrently without sending a message twice.
+   */
+  @Query(nativeQuery = true, value = """
+    select *
+    from outbox_message
+    where failed_at is null
+      and (claimed_until is null or claimed_until < :now)
+    order by id
+    limit :limit
+    for update skip locked
+    """)
+  List<OutboxMessage> lockNextMessages(@Param("now") Instant now, @Param("limit") int limit);
+
+  @Modifying
+  @Query("update OutboxMessage message set message.claimedUntil = :claimedUntil where message.id in :ids")
+  void claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") Instant claimedUntil);
+
+  @Modifying
+  @Query("update OutboxMessage message set message.claimedUntil = null where message.id in :ids")
+  void release(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Query("update OutboxMessage message set message.failedAt = :failedAt, message.failure = :failure, message.claimedUntil = null where message.id = :id")
+  void markFailed(@Param("id") Long id, @Param("failure") String failure, @Param("failedAt") Instant failedAt);
+}
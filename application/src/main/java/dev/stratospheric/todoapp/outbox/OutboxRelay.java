@@ -0,0 +1,164 @@
+package dev.stratospheric.todoapp.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.awspring.cloud.sqs.operations.SendBatchOperationFailedException;
+import io.awspring.cloud.sqs.operations.SendResult;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [N]:sqs - Drains the {@link Outbox} to SQS in the background.<p/>
+ * Pending messages are claimed in batches for {@code custom.outbox.claim-timeout} by a short transaction, sent with {@code SendMessageBatch} (up to {@value #SQS_MAX_BATCH_SIZE} messages per call) outside of any transaction, then deleted from the outbox by a second short transaction once SQS has accepted them. No row lock or database connection is held while waiting for SQS.<p/>
+ * Messages that could not be sent are released and retried on the next run, and the claim of a relay which stopped during the sends expires after the claim timeout. A message whose payload can't be read is never sent: it is marked as failed with the reason, and stays in the outbox, out of the way of the others, to be looked into. A message may be sent twice if the application stops between the send and the deletion, or if the sends take longer than the claim timeout, so consumers must tolerate duplicates.
+ */
+@Component
+public class OutboxRelay {
+
+  static final int SQS_MAX_BATCH_SIZE = 10;
+  static final String OUTBOX_MESSAGE_ID_HEADER = "outbox-message-id";
+
+  private static final Logger LOG = LoggerFactory.getLogger(OutboxRelay.class);
+
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final SqsTemplate sqsTemplate;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final Duration claimTimeout;
+
+  /**
+   * @param batchSize The maximum number of messages claimed and relayed at once ({@code custom.outbox.batch-size})
+   * @param claimTimeout How long claimed messages are left alone by the other relays ({@code custom.outbox.claim-timeout})
+   */
+  public OutboxRelay(
+    OutboxMessageRepository outboxMessageRepository,
+    SqsTemplate sqsTemplate,
+    ObjectMapper objectMapper,
+    TransactionTemplate transactionTemplate,
+    @Value("${custom.outbox.batch-size:100}") int batchSize,
+    @Value("${custom.outbox.claim-timeout:PT1M}") Duration claimTimeout) {
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.sqsTemplate = sqsTemplate;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = batchSize;
+    this.claimTimeout = claimTimeout;
+  }
+
+  /**
+   * Relays batches of pending messages until the outbox is drained or a message could not be sent.
+   */
+  @Scheduled(fixedDelayString = "${custom.outbox.relay-interval:PT1S}")
+  public void relayPendingMessages() {
+    int relayedMessages;
+
+    do {
+      relayedMessages = relayNextMessages();
+    } while (relayedMessages == batchSize);
+  }
+
+  /**
+   * @return The number of messages sent to SQS and removed from the outbox.
+   */
+  int relayNextMessages() {
+    List<OutboxMessage> messages = transactionTemplate.execute(status -> claimNextMessages());
+    if (messages == null || messages.isEmpty()) {
+      return 0;
+    }
+
+    Map<String, List<Message<Object>>> messagesByQueue = new LinkedHashMap<>();
+    Map<Long, String> failures = new LinkedHashMap<>();
+    for (OutboxMessage message : messages) {
+      try {
+        Message<Object> sqsMessage = toSqsMessage(message);
+        messagesByQueue
+          .computeIfAbsent(message.getQueueName(), queueName -> new ArrayList<>())
+          .add(sqsMessage);
+      } catch (IOException | ClassNotFoundException e) {
+        LOG.error("Unable to read payload of outbox message {}, marking it as failed", message.getId(), e);
+        failures.put(message.getId(), e.toString());
+      }
+    }
+
+    List<Long> sentMessageIds = new ArrayList<>();
+    messagesByQueue.forEach((queueName, queueMessages) -> {
+      for (int i = 0; i < queueMessages.size(); i += SQS_MAX_BATCH_SIZE) {
+        List<Message<Object>> batch = queueMessages.subList(i, Math.min(i + SQS_MAX_BATCH_SIZE, queueMessages.size()));
+        sentMessageIds.addAll(send(queueName, batch));
+      }
+    });
+
+    List<Long> unsentMessageIds = messages
+      .stream()
+      .map(OutboxMessage::getId)
+      .filter(id -> !sentMessageIds.contains(id) && !failures.containsKey(id))
+      .toList();
+
+    transactionTemplate.executeWithoutResult(status -> {
+      outboxMessageRepository.deleteAllByIdInBatch(sentMessageIds);
+      if (!unsentMessageIds.isEmpty()) {
+        outboxMessageRepository.release(unsentMessageIds);
+      }
+      Instant failedAt = Instant.now();
+      failures.forEach((id, failure) -> outboxMessageRepository.markFailed(id, failure, failedAt));
+    });
+
+    LOG.info("Relayed {} of {} outbox messages", sentMessageIds.size(), messages.size());
+
+    return sentMessageIds.size();
+  }
+
+  private List<OutboxMessage> claimNextMessages() {
+    Instant now = Instant.now();
+    List<OutboxMessage> messages = outboxMessageRepository.lockNextMessages(now, batchSize);
+
+    if (!messages.isEmpty()) {
+      outboxMessageRepository.claim(messages.stream().map(OutboxMessage::getId).toList(), now.plus(claimTimeout));
+    }
+    return messages;
+  }
+
+  private List<Long> send(String queueName, List<Message<Object>> batch) {
+    try {
+      return outboxMessageIds(sqsTemplate.sendMany(queueName, batch).successful());
+    } catch (SendBatchOperationFailedException exception) {
+      LOG.warn("Some outbox messages could not be sent to queue {}: {}", queueName, exception.getSendBatchResult().failed());
+      return outboxMessageIds(exception.getSendBatchResult(Object.class).successful());
+    } catch (RuntimeException exception) {
+      LOG.warn("Outbox messages could not be sent to queue {}", queueName, exception);
+      return List.of();
+    }
+  }
+
+  private List<Long> outboxMessageIds(Collection<SendResult<Object>> sendResults) {
+    return sendResults
+      .stream()
+      .map(sendResult -> sendResult.message().getHeaders().get(OUTBOX_MESSAGE_ID_HEADER, Long.class))
+      .toList();
+  }
+
+  private Message<Object> toSqsMessage(OutboxMessage message) throws IOException, ClassNotFoundException {
+    Object payload = objectMapper.readValue(message.getPayload(), Class.forName(message.getPayloadType()));
+
+    return MessageBuilder
+      .withPayload(payload)
+      .setHeader(OUTBOX_MESSAGE_ID_HEADER, message.getId())
+      .build();
+  }
+}
@@ -4,11 +4,18 @@ import dev.stratospheric.todoapp.collaboration.TodoCollaborationRequest;
 import dev.stratospheric.todoapp.todo.Todo;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A user of the application. Persons are kept in the second-level cache when {@code custom.hibernate-cache.enabled}, as they are read by most requests and hardly ever change.
+ */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "person")
 public class Person {
 
   @Id
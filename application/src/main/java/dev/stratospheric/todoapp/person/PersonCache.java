@@ -0,0 +1,54 @@
+package dev.stratospheric.todoapp.person;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A read-through, in-process cache of the {@link PersonSummary} of each user, keyed by email.<p/>
+ * Resolving the logged-in user is on the hot path of most requests, while a person's identity almost never changes. The cache is bounded in size and entries expire after a configurable time-to-live. Unknown emails are not cached, so a person created afterwards is found on the next lookup. Hits, misses and evictions are published through Micrometer as {@code cache.*} meters tagged with {@code cache=person-by-email}.
+ */
+@Component
+public class PersonCache {
+
+  static final String CACHE_NAME = "person-by-email";
+
+  private final PersonRepository personRepository;
+  private final Cache<String, PersonSummary> cache;
+
+  /**
+   * @param maximumSize The maximum number of cached persons ({@code custom.person-cache.maximum-size})
+   * @param timeToLive How long a person stays cached after it was loaded ({@code custom.person-cache.time-to-live})
+   */
+  public PersonCache(
+    PersonRepository personRepository,
+    MeterRegistry meterRegistry,
+    @Value("${custom.person-cache.maximum-size:10000}") long maximumSize,
+    @Value("${custom.person-cache.time-to-live:PT10M}") Duration timeToLive) {
+    this.personRepository = personRepository;
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(timeToLive)
+      .recordStats()
+      .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  public Optional<PersonSummary> findByEmail(String email) {
+    return Optional.ofNullable(cache.get(email, key -> personRepository.findSummaryByEmail(key).orElse(null)));
+  }
+
+  /**
+   * Invalidation hook to call whenever the person with the given email is created, changed or deleted.
+   */
+  public void evict(String email) {
+    cache.invalidate(email);
+  }
+}
@@ -1,6 +1,13 @@
 package dev.stratospheric.todoapp.person;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,5 +17,29 @@ public interface PersonRepository extends JpaRepository<Person, Long> {
 
   Optional<Person> findByEmail(String email);
 
-  List<Person> findByEmailNot(String email);
+  /**
+   * Inserts the person unless one with the same email exists, e.g. inserted concurrently by another request of the same user signing in for the first time. That request's transaction is awaited instead of failing on the unique constraint.
+   * The {@code person} query space limits the invalidation of the second-level cache to the persons, instead of all the regions as for any native statement.
+   * @return 1 if the person was inserted, 0 if it already existed
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "person"))
+  @Query(value = "insert into person (email, name) values (:email, :name) on conflict (email) do nothing", nativeQuery = true)
+  int insertIfAbsent(@Param("email") String email, @Param("name") String name);
+
+  /**
+   * Loads only the identity columns of a person, see {@link PersonCache}.
+   */
+  @Query("select new dev.stratospheric.todoapp.person.PersonSummary(p.id, p.name, p.email) from Person p where p.email = :email")
+  Optional<PersonSummary> findSummaryByEmail(@Param("email") String email);
+
+  /**
+   * [N]:share - Prefix search on the name of the persons other than the given user, backed by the {@code IDX_PERSON_UPPER_NAME} index (see {@code V003__ADD_PERSON_NAME_PREFIX_INDEX.sql}).<p/>
+   * The results are kept in the query cache when {@code custom.hibernate-cache.enabled}, until a person is added or changed.
+   * @param namePrefix The beginning of the name, case-insensitive
+   * @param email The email of the user to exclude from the results
+   * @param pageable Bounds the number of results
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<Person> findByNameStartingWithIgnoreCaseAndEmailNot(String namePrefix, String email, Pageable pageable);
 }
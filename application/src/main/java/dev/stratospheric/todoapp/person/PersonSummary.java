@@ -0,0 +1,30 @@
+package dev.stratospheric.todoapp.person;
+
+/**
+ * The identity of a {@link Person} (id, name and email) as kept by the {@link PersonCache}.<p/>
+ * Unlike the {@link Person} entity, it is immutable and not attached to any persistence context, so it can be safely shared between requests.
+ */
+public final class PersonSummary {
+
+  private final Long id;
+  private final String name;
+  private final String email;
+
+  public PersonSummary(Long id, String name, String email) {
+    this.id = id;
+    this.name = name;
+    this.email = email;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+}
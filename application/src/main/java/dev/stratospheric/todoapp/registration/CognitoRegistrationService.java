@@ -18,7 +18,7 @@ import software.amazon.awssdk.services.cognitoidentityprovider.model.DeliveryMed
 public class CognitoRegistrationService implements RegistrationService {
 
   private final CognitoIdentityProviderClient cognitoIdentityProviderClient;
-  private final MeterRegistry meterRegistry;
+  private final Counter successCounter;
   private final String userPooldId;
 
   public CognitoRegistrationService(
@@ -26,7 +26,10 @@ public class CognitoRegistrationService implements RegistrationService {
     CognitoIdentityProviderClient cognitoIdentityProviderClient,
     MeterRegistry meterRegistry) {
     this.cognitoIdentityProviderClient = cognitoIdentityProviderClient;
-    this.meterRegistry = meterRegistry;
+    this.successCounter = Counter.builder("stratospheric.registration.signups")
+      .description("Number of user registrations")
+      .tag("outcome", "success")
+      .register(meterRegistry);
     this.userPooldId = userPoolId;
   }
 
@@ -49,11 +52,6 @@ public class CognitoRegistrationService implements RegistrationService {
 
     cognitoIdentityProviderClient.adminCreateUser(registrationRequest);
 
-    Counter successCounter = Counter.builder("stratospheric.registration.signups")
-      .description("Number of user registrations")
-      .tag("outcome", "success")
-      .register(meterRegistry);
-
     successCounter.increment();
   }
 }
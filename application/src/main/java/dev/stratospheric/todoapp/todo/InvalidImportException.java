@@ -0,0 +1,22 @@
+package dev.stratospheric.todoapp.todo;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a record of a todo import can't be read or isn't a valid todo. None of the todos of the import are saved.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidImportException extends RuntimeException {
+
+  private final long recordNumber;
+
+  public InvalidImportException(long recordNumber, String reason, Throwable cause) {
+    super("Record %d is invalid (%s), no todo has been imported".formatted(recordNumber, reason), cause);
+    this.recordNumber = recordNumber;
+  }
+
+  public long getRecordNumber() {
+    return recordNumber;
+  }
+}
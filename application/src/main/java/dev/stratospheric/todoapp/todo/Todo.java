@@ -7,6 +7,9 @@ import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
@@ -14,13 +17,23 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * [N]:jpa
+ * [N]:jpa<p/>
+ * The todos and their notes, reminders and collaboration requests take their ids from sequences in blocks of 50 (pooled optimizer), so that Hibernate can batch their inserts (see {@code V006__USE_POOLED_SEQUENCES.sql}). The children are inserted with their {@code todo_id}, without a subsequent update. The collections are loaded for up to {@value #BATCH_SIZE} todos at once.
  */
 @Entity
 public class Todo {
 
+  static final int BATCH_SIZE = 25;
+
+  /**
+   * The validation group of the constraints only checked on the todos entered through the form, e.g. a due date in the future. They aren't checked on the todos imported (see {@link TodoTransferService}) or persisted, which may be overdue.
+   */
+  public interface Entered {
+  }
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_id_seq")
+  @SequenceGenerator(name = "todo_id_seq", sequenceName = "todo_id_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank
@@ -33,7 +46,7 @@ public class Todo {
   private Priority priority;
 
   @NotNull
-  @Future
+  @Future(groups = Entered.class)
   @DateTimeFormat(pattern = "yyyy-MM-dd")
   private LocalDate dueDate;
 
@@ -45,22 +58,27 @@ public class Todo {
   private Person owner;
 
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-  @JoinColumn(name = "todo_id")
+  @JoinColumn(name = "todo_id", nullable = false, updatable = false)
+  @BatchSize(size = BATCH_SIZE)
   private List<Reminder> reminders = new ArrayList<>();
 
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-  @JoinColumn(name = "todo_id")
+  @JoinColumn(name = "todo_id", nullable = false, updatable = false)
+  @BatchSize(size = BATCH_SIZE)
   private List<Note> notes = new ArrayList<>();
 
-  @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-  @JoinColumn(name = "todo_id")
+  @OneToMany(mappedBy = "todo", cascade = CascadeType.ALL, orphanRemoval = true)
+  @BatchSize(size = BATCH_SIZE)
   private List<TodoCollaborationRequest> collaborationRequests = new ArrayList<>();
 
   /**
    * [N]:share - A many-to-many relationship as a todo can have multiple collaborators, and one person can
-collaborate on numerous todos.
+collaborate on numerous todos.<p/>
+   * The ids of the collaborators are kept in the second-level cache when {@code custom.hibernate-cache.enabled}, and invalidated whenever the collection changes (see {@link #addCollaborator(Person)}) or the todo is deleted.
    */
   @ManyToMany
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todo-collaborators")
+  @BatchSize(size = BATCH_SIZE)
   @JoinTable(name = "todo_collaboration",
     joinColumns = @JoinColumn(name = "todo_id"),
     inverseJoinColumns = @JoinColumn(name = "collaborator_id")
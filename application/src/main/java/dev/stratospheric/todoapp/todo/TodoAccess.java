@@ -0,0 +1,14 @@
+package dev.stratospheric.todoapp.todo;
+
+/**
+ * The access a user has on a todo, from the weakest to the strongest.
+ */
+public enum TodoAccess {
+  NONE,
+  COLLABORATOR,
+  OWNER;
+
+  public boolean includes(TodoAccess requiredAccess) {
+    return this.compareTo(requiredAccess) >= 0;
+  }
+}
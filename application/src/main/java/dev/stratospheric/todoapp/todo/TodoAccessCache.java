@@ -0,0 +1,76 @@
+package dev.stratospheric.todoapp.todo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A short-lived cache of the {@link TodoAccess} of a user on a todo.<p/>
+ * The show, edit, update and delete flows of a todo check the access of the same user on the same todo several times within a few seconds. The access is resolved by a single indexed query (see {@link TodoRepository#findAccess(long, String)}) and then kept for a short time-to-live, so that these checks don't hit the database again.<p/>
+ * The decisions are cached per todo, so that those of a todo are evicted at once when a collaborator is added to it or when it is deleted. The eviction follows the {@link TodoChangeEvent} of the change once its transaction is committed: evicting before, a concurrent check could cache the decision of the uncommitted state again for the whole time-to-live.
+ */
+@Component
+public class TodoAccessCache {
+
+  static final String CACHE_NAME = "todo-access";
+
+  private final TodoRepository todoRepository;
+  private final Cache<Long, Map<String, TodoAccess>> cache;
+
+  /**
+   * @param maximumSize The maximum number of todos whose access decisions are cached ({@code custom.todo-access-cache.maximum-size})
+   * @param timeToLive How long the access decisions of a todo stay cached ({@code custom.todo-access-cache.time-to-live})
+   */
+  public TodoAccessCache(
+    TodoRepository todoRepository,
+    MeterRegistry meterRegistry,
+    @Value("${custom.todo-access-cache.maximum-size:10000}") long maximumSize,
+    @Value("${custom.todo-access-cache.time-to-live:PT30S}") Duration timeToLive) {
+    this.todoRepository = todoRepository;
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(timeToLive)
+      .recordStats()
+      .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  /**
+   * @return The access of the user with the given email on the given todo.
+   * @throws NotFoundException if the todo does not exist.
+   */
+  public TodoAccess getAccess(long todoId, String email) {
+    TodoAccess access = cache.get(todoId, id -> new ConcurrentHashMap<>())
+      .computeIfAbsent(email, key -> todoRepository.findAccess(todoId, email).map(TodoAccess::valueOf).orElse(null));
+
+    if (access == null) {
+      throw new NotFoundException();
+    }
+
+    return access;
+  }
+
+  /**
+   * Evicts the access decisions of a todo whose collaborators changed or which was deleted, once the change is committed.
+   */
+  @TransactionalEventListener(TodoChangeEvent.class)
+  public void evictChanged(TodoChangeEvent event) {
+    TodoChange.Type type = event.getChange().type();
+    if (type == TodoChange.Type.COLLABORATOR_ADDED || type == TodoChange.Type.DELETED) {
+      evict(event.getChange().id());
+    }
+  }
+
+  void evict(long todoId) {
+    cache.invalidate(todoId);
+  }
+}
@@ -0,0 +1,40 @@
+package dev.stratospheric.todoapp.todo;
+
+/**
+ * [N]:websocket]:notification - A change of a todo, as sent in JSON to the dashboards of its owner and collaborators, where {@code todo-updates.js} patches the row of the todo in place instead of reloading the page (see {@link TodoChangeNotifier}).<p/>
+ * It carries the columns of the row, as the {@code TodoDto} of the dashboard does, as of the commit of the change.
+ * @param dueDate The due date in ISO format, as rendered on the dashboard.
+ * @param collaboration Whether the todo is shared with the recipient of the change rather than owned by them.
+ */
+public record TodoChange(
+  Type type,
+  long id,
+  String title,
+  String dueDate,
+  int amountOfCollaborators,
+  int amountOfCollaborationRequests,
+  boolean collaboration) {
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED,
+    COLLABORATOR_ADDED,
+    /**
+     * Replaces the changes of a burst too large to be sent, the dashboard reloads its rows instead.
+     */
+    RESYNC
+  }
+
+  /**
+   * Sent instead of the changes of a burst beyond {@code custom.notifications.max-batch-size}, so that none of them is lost.
+   */
+  static final TodoChange RESYNC = new TodoChange(Type.RESYNC, 0, null, null, 0, 0, false);
+
+  /**
+   * @return The same change, as seen by a collaborator of the todo.
+   */
+  TodoChange asCollaboration() {
+    return new TodoChange(type, id, title, dueDate, amountOfCollaborators, amountOfCollaborationRequests, true);
+  }
+}
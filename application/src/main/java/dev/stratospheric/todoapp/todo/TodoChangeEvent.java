@@ -0,0 +1,54 @@
+package dev.stratospheric.todoapp.todo;
+
+import dev.stratospheric.todoapp.person.Person;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * [N]:spring-evnt]:notification - A Spring {@code ApplicationEvent} published within the transaction changing a todo, and turned into {@link TodoChange}s for the dashboards of its owner and collaborators once the transaction is committed (see {@link TodoChangeNotifier}).<p/>
+ * The todo is read when the event is created, while its lazy collections can still be loaded.
+ */
+public class TodoChangeEvent extends ApplicationEvent {
+
+  private final TodoChange change;
+  private final String ownerEmail;
+  private final List<String> collaboratorEmails;
+
+  /**
+   * @param source the object on which the event initially occurred or with which the event is associated
+   * @param type How the todo changed.
+   * @param todo The todo after the change, or before its deletion.
+   * @param ownerEmail The email of the owner of the todo, which the caller usually knows without loading the owner.
+   */
+  public TodoChangeEvent(Object source, TodoChange.Type type, Todo todo, String ownerEmail) {
+    super(source);
+
+    this.change = new TodoChange(
+      type,
+      todo.getId(),
+      todo.getTitle(),
+      Objects.toString(todo.getDueDate(), null),
+      todo.getCollaborators().size(),
+      todo.getCollaborationRequests().size(),
+      false);
+    this.ownerEmail = ownerEmail;
+    this.collaboratorEmails = todo.getCollaborators().stream().map(Person::getEmail).toList();
+  }
+
+  /**
+   * @return The change, as seen by the owner of the todo.
+   */
+  public TodoChange getChange() {
+    return change;
+  }
+
+  public String getOwnerEmail() {
+    return ownerEmail;
+  }
+
+  public List<String> getCollaboratorEmails() {
+    return collaboratorEmails;
+  }
+}
@@ -0,0 +1,29 @@
+package dev.stratospheric.todoapp.todo;
+
+import dev.stratospheric.todoapp.notification.NotificationPipeline;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * [N]:websocket]:notification - Sends the {@link TodoChange} of each {@link TodoChangeEvent} to the owner and the collaborators of the todo, on the "/user{@value #DESTINATION}" destination subscribed to by {@code todo-updates.js}.<p/>
+ * The changes are only sent once the transaction is committed, so that a rolled back change never reaches the dashboards. They go through the {@link NotificationPipeline}, which sends the changes of a burst, e.g. the confirmations of several collaborators, in a single frame per user. A change is never dropped: beyond the max batch size of the pipeline, the changes of a user are replaced by a {@link TodoChange#RESYNC}, upon which the dashboard reloads its rows.
+ */
+@Component
+public class TodoChangeNotifier {
+
+  static final String DESTINATION = "/queue/todoChanges";
+
+  private final NotificationPipeline notificationPipeline;
+
+  public TodoChangeNotifier(NotificationPipeline notificationPipeline) {
+    this.notificationPipeline = notificationPipeline;
+  }
+
+  @TransactionalEventListener(TodoChangeEvent.class)
+  public void notifyChange(TodoChangeEvent event) {
+    notificationPipeline.sendToUser(event.getOwnerEmail(), DESTINATION, event.getChange(), TodoChange.RESYNC);
+
+    TodoChange collaboratorChange = event.getChange().asCollaboration();
+    event.getCollaboratorEmails().forEach(collaboratorEmail -> notificationPipeline.sendToUser(collaboratorEmail, DESTINATION, collaboratorChange, TodoChange.RESYNC));
+  }
+}
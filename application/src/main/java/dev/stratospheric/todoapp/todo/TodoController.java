@@ -1,14 +1,17 @@
 package dev.stratospheric.todoapp.todo;
 
-import jakarta.validation.Valid;
+import jakarta.validation.groups.Default;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -69,7 +72,7 @@ public class TodoController {
 
   @PostMapping
   public String add(
-    @Valid Todo toBeCreatedTodo,
+    @Validated({Default.class, Todo.Entered.class}) Todo toBeCreatedTodo,
     BindingResult bindingResult,
     @AuthenticationPrincipal OidcUser user,
     Model model,
@@ -111,7 +114,7 @@ public class TodoController {
   public String update(
     @AuthenticationPrincipal OidcUser user,
     @PathVariable("id") long id,
-    @Valid Todo updatedTodo,
+    @Validated({Default.class, Todo.Entered.class}) Todo updatedTodo,
     BindingResult result,
     Model model,
     RedirectAttributes redirectAttributes
@@ -149,4 +152,19 @@ public class TodoController {
 
     return "redirect:/dashboard";
   }
+
+  /**
+   * [N]:notification - Deletes a todo from the dashboard without reloading it: the row of the todo is removed in place, on this and the other dashboards, by its {@link TodoChange}.
+   */
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> deleteInPlace(
+    @AuthenticationPrincipal OidcUser user,
+    @PathVariable("id") long id
+  ) {
+    todoService.delete(id, user.getEmail());
+
+    logger.info("successfully deleted todo");
+
+    return ResponseEntity.noContent().build();
+  }
 }
@@ -0,0 +1,47 @@
+package dev.stratospheric.todoapp.todo;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The file formats of the todo import and export, see {@link TodoTransferService}.
+ */
+public enum TodoFormat {
+  /**
+   * Comma-separated values with a header line naming the columns.
+   */
+  CSV(new MediaType("text", "csv")),
+  /**
+   * Newline-delimited JSON, one todo object per line.
+   */
+  NDJSON(new MediaType("application", "x-ndjson"));
+
+  private final MediaType mediaType;
+
+  TodoFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public MediaType getMediaType() {
+    return mediaType;
+  }
+
+  public String getExtension() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  public static Optional<TodoFormat> forExtension(String extension) {
+    return Arrays.stream(values())
+      .filter(format -> format.getExtension().equalsIgnoreCase(extension))
+      .findFirst();
+  }
+
+  public static Optional<TodoFormat> forMediaType(MediaType mediaType) {
+    return Arrays.stream(values())
+      .filter(format -> format.getMediaType().isCompatibleWith(mediaType))
+      .findFirst();
+  }
+}
@@ -0,0 +1,119 @@
+package dev.stratospheric.todoapp.todo;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Domain metrics of the todos and their collaborations.<p/>
+ * Each {@link Operation} is measured by the {@code stratospheric.todo.operations} timer, tagged with the {@code operation} and its {@code outcome} ({@code success} or {@code failure}). The timers publish the SLO buckets of {@code custom.metrics.todo-operations.slos} (as {@code stratospheric.todo.operations.histogram}) and the client-side 50th, 95th and 99th percentiles (as {@code stratospheric.todo.operations.percentile}). They don't publish a percentile histogram: the step registry of CloudWatch would export each of its buckets as a custom metric. The time is measured within the service transaction and doesn't include its commit.<p/>
+ * The number of created todos is additionally counted by the {@code stratospheric.todo.created} counter.<p/>
+ * All the meters are registered up front, so that recording an operation doesn't look anything up in the {@code MeterRegistry}.
+ */
+@Component
+public class TodoMetrics {
+
+  public enum Operation {
+    CREATE, UPDATE, DELETE, SHARE, CONFIRM, IMPORT;
+
+    String getTagValue() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private final Clock clock;
+  private final Map<Operation, Timer> successTimers = new EnumMap<>(Operation.class);
+  private final Map<Operation, Timer> failureTimers = new EnumMap<>(Operation.class);
+  private final Counter createdTodos;
+
+  /**
+   * @param slos The service level objectives, published as histogram buckets ({@code custom.metrics.todo-operations.slos}).
+   */
+  public TodoMetrics(
+    MeterRegistry meterRegistry,
+    @Value("${custom.metrics.todo-operations.slos:PT0.05S,PT0.1S,PT0.25S,PT0.5S,PT1S}") List<Duration> slos) {
+    this.clock = meterRegistry.config().clock();
+
+    for (Operation operation : Operation.values()) {
+      successTimers.put(operation, operationTimer(meterRegistry, operation, "success", slos));
+      failureTimers.put(operation, operationTimer(meterRegistry, operation, "failure", slos));
+    }
+
+    this.createdTodos = Counter.builder("stratospheric.todo.created")
+      .description("Number of created todos")
+      .register(meterRegistry);
+  }
+
+  /**
+   * Runs and times an operation, which fails if it throws an exception.
+   */
+  public <T> T record(Operation operation, Supplier<T> action) {
+    long start = clock.monotonicTime();
+    boolean success = false;
+    try {
+      T result = action.get();
+      success = true;
+      return result;
+    } finally {
+      stop(operation, start, success);
+    }
+  }
+
+  /**
+   * Runs and times an operation, which fails if it throws an exception.
+   */
+  public void record(Operation operation, Runnable action) {
+    record(operation, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  /**
+   * Runs and times an operation, which fails if it returns {@code false} or throws an exception.
+   */
+  public boolean recordOutcome(Operation operation, BooleanSupplier action) {
+    long start = clock.monotonicTime();
+    boolean success = false;
+    try {
+      success = action.getAsBoolean();
+      return success;
+    } finally {
+      stop(operation, start, success);
+    }
+  }
+
+  public void todoCreated() {
+    createdTodos.increment();
+  }
+
+  public void todosCreated(int count) {
+    createdTodos.increment(count);
+  }
+
+  private void stop(Operation operation, long start, boolean success) {
+    Timer timer = success ? successTimers.get(operation) : failureTimers.get(operation);
+    timer.record(Duration.ofNanos(clock.monotonicTime() - start));
+  }
+
+  private static Timer operationTimer(MeterRegistry meterRegistry, Operation operation, String outcome, List<Duration> slos) {
+    return Timer.builder("stratospheric.todo.operations")
+      .description("Time to perform an operation on a todo")
+      .tag("operation", operation.getTagValue())
+      .tag("outcome", outcome)
+      .serviceLevelObjectives(slos.toArray(Duration[]::new))
+      .publishPercentiles(0.5, 0.95, 0.99)
+      .register(meterRegistry);
+  }
+}
@@ -0,0 +1,34 @@
+package dev.stratospheric.todoapp.todo;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDate;
+
+/**
+ * A todo as it is exported and imported, see {@link TodoTransferService}. Ids, owners and collaborations aren't transferred.
+ */
+@JsonPropertyOrder({"title", "description", "priority", "status", "dueDate"})
+public record TodoRecord(
+  String title,
+  String description,
+  Priority priority,
+  Status status,
+  LocalDate dueDate) {
+
+  static TodoRecord of(Todo todo) {
+    return new TodoRecord(todo.getTitle(), todo.getDescription(), todo.getPriority(), todo.getStatus(), todo.getDueDate());
+  }
+
+  /**
+   * @return A new todo, {@link Status#OPEN} unless the record tells otherwise.
+   */
+  Todo toTodo() {
+    Todo todo = new Todo();
+    todo.setTitle(title);
+    todo.setDescription(description);
+    todo.setPriority(priority);
+    todo.setStatus(status == null ? Status.OPEN : status);
+    todo.setDueDate(dueDate);
+    return todo;
+  }
+}
@@ -1,17 +1,168 @@
 package dev.stratospheric.todoapp.todo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * [N]:jpa - Provides CRUD capabilities by extending the {@link org.springframework.data.jpa.JpaRepository} interface.
  */
 public interface TodoRepository extends JpaRepository<Todo, Long> {
+
+  /**
+   * The number of rows the JDBC driver fetches per round trip when streaming todos.
+   */
+  int STREAM_FETCH_SIZE = 500;
+
   List<Todo> findAllByOwnerEmailOrderByIdAsc(String email);
 
+  /**
+   * [N]:jpa - Streams the todos owned by the given user, ordered by id, for the export (see {@link TodoTransferService}).<p/>
+   * The stream must be consumed and closed within a transaction: PostgreSQL then reads the rows through a server-side cursor, {@value #STREAM_FETCH_SIZE} at a time, instead of loading the whole result. The todos are read-only and stay in the persistence context until they are detached.
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<Todo> streamAllByOwnerEmailOrderByIdAsc(String email);
+
   List<Todo> findAllByCollaboratorsEmailOrderByIdAsc(String email);
 
   Optional<Todo> findByIdAndOwnerEmail(Long todoId, String todoOwnerEmail);
+
+  /**
+   * [N]:jpa - Lists the todos owned by and shared with the given user in a single round trip.<p/>
+   * Owned todos come first, followed by the shared ones, each ordered by id. The counts are computed by correlated sub-queries instead of loading the {@code collaborators} and {@code collaborationRequests} collections of every todo.
+   * @param email The email of the logged-in user
+   */
+  @Query(nativeQuery = true, value = """
+    select t.id as "id", t.title as "title", t.due_date as "dueDate",
+      (select count(*) from todo_collaboration tc where tc.todo_id = t.id) as "amountOfCollaborators",
+      (select count(*) from todo_collaboration_request tcr where tcr.todo_id = t.id) as "amountOfCollaborationRequests",
+      false as "collaboration"
+    from todo t
+      join person owner on owner.id = t.owner_id
+    where owner.email = :email
+    union all
+    select t.id, t.title, t.due_date,
+      (select count(*) from todo_collaboration tc where tc.todo_id = t.id),
+      (select count(*) from todo_collaboration_request tcr where tcr.todo_id = t.id),
+      true
+    from todo t
+      join todo_collaboration c on c.todo_id = t.id
+      join person collaborator on collaborator.id = c.collaborator_id
+    where collaborator.email = :email
+    order by "collaboration", "id"
+    """)
+  List<TodoSummary> findAllOwnedAndSharedSummaries(@Param("email") String email);
+
+  /**
+   * [N]:jpa - Keyset (seek) variant of {@link #findAllOwnedAndSharedSummaries(String)} that returns at most {@code limit} rows following the given position.<p/>
+   * The position is the last row of the previous page: owned todos are seeked by id first, then shared todos, which keeps every page as cheap as the first one.
+   * @param email The email of the logged-in user
+   * @param afterCollaboration Whether the last row of the previous page was a shared todo ({@code false} for the first page)
+   * @param afterId The id of the last row of the previous page ({@code 0} for the first page)
+   * @param limit The maximum number of rows to return
+   */
+  @Query(nativeQuery = true, value = """
+    (select t.id as "id", t.title as "title", t.due_date as "dueDate",
+      (select count(*) from todo_collaboration tc where tc.todo_id = t.id) as "amountOfCollaborators",
+      (select count(*) from todo_collaboration_request tcr where tcr.todo_id = t.id) as "amountOfCollaborationRequests",
+      false as "collaboration"
+    from todo t
+      join person owner on owner.id = t.owner_id
+    where owner.email = :email
+      and :afterCollaboration = false
+      and t.id > :afterId
+    order by t.id
+    limit :limit)
+    union all
+    (select t.id, t.title, t.due_date,
+      (select count(*) from todo_collaboration tc where tc.todo_id = t.id),
+      (select count(*) from todo_collaboration_request tcr where tcr.todo_id = t.id),
+      true
+    from todo t
+      join todo_collaboration c on c.todo_id = t.id
+      join person collaborator on collaborator.id = c.collaborator_id
+    where collaborator.email = :email
+      and (:afterCollaboration = false or t.id > :afterId)
+    order by t.id
+    limit :limit)
+    order by "collaboration", "id"
+    limit :limit
+    """)
+  List<TodoSummary> findOwnedAndSharedSummariesAfter(
+    @Param("email") String email,
+    @Param("afterCollaboration") boolean afterCollaboration,
+    @Param("afterId") long afterId,
+    @Param("limit") int limit);
+
+  /**
+   * [N]:jpa - Full-text search over the title, description and notes of the todos owned by and shared with the given user (see {@code V007__ADD_TODO_SEARCH_VECTOR.sql}).<p/>
+   * The visibility is enforced by the same query: each branch of the union matches the todos owned by, respectively shared with, the user, so that PostgreSQL can either filter the todos of the user or combine their index with the GIN index of {@code search_vector}, whichever is cheaper. The matches are ranked by {@code ts_rank}, then by id, and the collaborators are only counted for the rows of the requested page.
+   * @param email The email of the logged-in user
+   * @param query The search terms, in the syntax of web search engines (quoted phrases, {@code or}, {@code -} to exclude a word)
+   * @param limit The maximum number of rows to return
+   * @param offset The number of best-ranked rows to skip
+   */
+  @Query(nativeQuery = true, value = """
+    select page.id as "id", page.title as "title", page.due_date as "dueDate",
+      (select count(*) from todo_collaboration tc where tc.todo_id = page.id) as "amountOfCollaborators",
+      (select count(*) from todo_collaboration_request tcr where tcr.todo_id = page.id) as "amountOfCollaborationRequests",
+      page.collaboration as "collaboration"
+    from (
+      select t.id, t.title, t.due_date, false as collaboration,
+        ts_rank(t.search_vector, websearch_to_tsquery('english', :query)) as rank
+      from todo t
+        join person owner on owner.id = t.owner_id
+      where owner.email = :email
+        and t.search_vector @@ websearch_to_tsquery('english', :query)
+      union all
+      select t.id, t.title, t.due_date, true,
+        ts_rank(t.search_vector, websearch_to_tsquery('english', :query))
+      from todo t
+        join todo_collaboration c on c.todo_id = t.id
+        join person collaborator on collaborator.id = c.collaborator_id
+      where collaborator.email = :email
+        and t.search_vector @@ websearch_to_tsquery('english', :query)
+      order by rank desc, id
+      limit :limit
+      offset :offset
+    ) page
+    order by page.rank desc, page.id
+    """)
+  List<TodoSummary> searchOwnedAndSharedSummaries(
+    @Param("email") String email,
+    @Param("query") String query,
+    @Param("limit") int limit,
+    @Param("offset") long offset);
+
+  /**
+   * [N]:jpa - Resolves the access of a user on a todo with a single indexed lookup, without loading the todo, its owner or its collaborators.
+   * @return The name of the {@link TodoAccess} of the user, or nothing if the todo does not exist.
+   */
+  @Query(nativeQuery = true, value = """
+    select case
+      when owner.email = :email then 'OWNER'
+      when exists (
+        select 1
+        from todo_collaboration tc
+          join person collaborator on collaborator.id = tc.collaborator_id
+        where tc.todo_id = t.id
+          and collaborator.email = :email
+      ) then 'COLLABORATOR'
+      else 'NONE'
+    end
+    from todo t
+      left join person owner on owner.id = t.owner_id
+    where t.id = :todoId
+    """)
+  Optional<String> findAccess(@Param("todoId") long todoId, @Param("email") String email);
 }
@@ -1,97 +1,133 @@
 package dev.stratospheric.todoapp.todo;
 
 import dev.stratospheric.todoapp.person.Person;
+import dev.stratospheric.todoapp.person.PersonCache;
 import dev.stratospheric.todoapp.person.PersonRepository;
-import io.micrometer.core.instrument.MeterRegistry;
+import dev.stratospheric.todoapp.todo.TodoMetrics.Operation;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @Transactional
 public class TodoService {
 
   private final TodoRepository todoRepository;
   private final PersonRepository personRepository;
-  private final MeterRegistry meterRegistry;
+  private final PersonCache personCache;
+  private final TodoAccessCache todoAccessCache;
+  private final TodoMetrics todoMetrics;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * 
    * @param todoRepository [N]:spring]:jpa - Automatically injected by Spring into this constructor.
    * @param personRepository
-   * @param meterRegistry
+   * @param personCache Resolves the owner of new todos without a database round trip.
+   * @param todoAccessCache Authorizes the access to existing todos without loading them.
+   * @param todoMetrics Times the operations on todos.
+   * @param eventPublisher [N]:spring-evnt]:notification - Publishes the {@link TodoChangeEvent}s which update the dashboards in place.
    */
   public TodoService(
     TodoRepository todoRepository,
     PersonRepository personRepository,
-    MeterRegistry meterRegistry) {
+    PersonCache personCache,
+    TodoAccessCache todoAccessCache,
+    TodoMetrics todoMetrics,
+    ApplicationEventPublisher eventPublisher) {
     this.todoRepository = todoRepository;
     this.personRepository = personRepository;
-    this.meterRegistry = meterRegistry;
+    this.personCache = personCache;
+    this.todoAccessCache = todoAccessCache;
+    this.todoMetrics = todoMetrics;
+    this.eventPublisher = eventPublisher;
   }
 
   public Todo saveNewTodo(Todo todo, String ownerEmail, String ownerName) {
+    return todoMetrics.record(Operation.CREATE, () -> {
+      Todo savedTodo = createTodo(todo, ownerEmail, ownerName);
+      todoMetrics.todoCreated();
+      eventPublisher.publishEvent(new TodoChangeEvent(this, TodoChange.Type.CREATED, savedTodo, ownerEmail));
+      return savedTodo;
+    });
+  }
 
-    Person person = personRepository.findByEmail(ownerEmail).orElse(null);
-
-    if (person == null) {
-      Person newUser = new Person();
-      newUser.setName(ownerName);
-      newUser.setEmail(ownerEmail);
-
-      person = personRepository.save(newUser);
-    }
-    todo.setOwner(person);
-    todo.setStatus(Status.OPEN);
-
-    meterRegistry.gauge("stratospheric.todo.created", 1);
-
-    return todoRepository.save(todo);
+  /**
+   * Saves the todos of one chunk of an import, within the transaction of the chunk, see {@link TodoTransferService}. The inserts are batched like those of a single todo.<p/>
+   * No {@link TodoChangeEvent} is published for the imported todos, which may be thousands: the dashboards show them when they are next loaded.
+   * @param todos New todos, which keep their status
+   */
+  public void saveNewTodos(List<Todo> todos, String ownerEmail, String ownerName) {
+    todoMetrics.record(Operation.IMPORT, () -> {
+      Person owner = getOrCreateOwner(ownerEmail, ownerName);
+      todos.forEach(todo -> todo.setOwner(owner));
+
+      todoRepository.saveAll(todos);
+      todoMetrics.todosCreated(todos.size());
+    });
   }
 
   public void updateTodo(Todo updatedTodo, long id, String email) {
-    Todo existingTodo = getOwnedOrSharedTodo(id, email);
+    todoMetrics.record(Operation.UPDATE, () -> {
+      Todo existingTodo = getOwnedOrSharedTodo(id, email);
 
-    existingTodo.setTitle(updatedTodo.getTitle());
-    existingTodo.setDescription(updatedTodo.getDescription());
-    existingTodo.setPriority(updatedTodo.getPriority());
-    existingTodo.setDueDate(updatedTodo.getDueDate());
+      existingTodo.setTitle(updatedTodo.getTitle());
+      existingTodo.setDescription(updatedTodo.getDescription());
+      existingTodo.setPriority(updatedTodo.getPriority());
+      existingTodo.setDueDate(updatedTodo.getDueDate());
 
-    this.todoRepository.save(existingTodo);
+      this.todoRepository.save(existingTodo);
+      eventPublisher.publishEvent(new TodoChangeEvent(this, TodoChange.Type.UPDATED, existingTodo, existingTodo.getOwner().getEmail()));
+    });
   }
 
   public void delete(long id, String ownerEmail) {
-    this.todoRepository.delete(getOwnedTodo(id, ownerEmail));
+    todoMetrics.record(Operation.DELETE, () -> {
+      requireAccess(id, ownerEmail, TodoAccess.OWNER);
+
+      Todo todo = this.todoRepository
+        .findById(id)
+        .orElseThrow(NotFoundException::new);
+      // the collaborators to notify are read before they are removed with the todo, whose cached access decisions are evicted once committed
+      eventPublisher.publishEvent(new TodoChangeEvent(this, TodoChange.Type.DELETED, todo, ownerEmail));
+
+      this.todoRepository.delete(todo);
+    });
   }
 
   public Todo getOwnedOrSharedTodo(long id, String email) {
-    Todo todo = this.todoRepository
+    requireAccess(id, email, TodoAccess.COLLABORATOR);
+
+    return this.todoRepository
       .findById(id)
       .orElseThrow(NotFoundException::new);
+  }
 
-    if (userIsNotOwner(email, todo) && userIsNotCollaborator(email, todo)) {
-      throw new ForbiddenException();
-    }
+  private Todo createTodo(Todo todo, String ownerEmail, String ownerName) {
+    todo.setOwner(getOrCreateOwner(ownerEmail, ownerName));
+    todo.setStatus(Status.OPEN);
 
-    return todo;
+    return todoRepository.save(todo);
   }
 
-  private boolean userIsNotCollaborator(String email, Todo todo) {
-    return todo.getCollaborators().stream().noneMatch(collaborator -> collaborator.getEmail().equals(email));
-  }
+  private Person getOrCreateOwner(String ownerEmail, String ownerName) {
+    Person person = personCache.findByEmail(ownerEmail)
+      .map(owner -> personRepository.getReferenceById(owner.getId()))
+      .orElse(null);
 
-  private boolean userIsNotOwner(String email, Todo todo) {
-    return !todo.getOwner().getEmail().equals(email);
+    if (person == null) {
+      personRepository.insertIfAbsent(ownerEmail, ownerName);
+      person = personRepository.findByEmail(ownerEmail).orElseThrow();
+      personCache.evict(ownerEmail);
+    }
+    return person;
   }
 
-  private Todo getOwnedTodo(long id, String ownerEmail) {
-    Todo todo = this.todoRepository
-      .findById(id)
-      .orElseThrow(NotFoundException::new);
-
-    if (userIsNotOwner(ownerEmail, todo)) {
+  private void requireAccess(long id, String email, TodoAccess requiredAccess) {
+    if (!todoAccessCache.getAccess(id, email).includes(requiredAccess)) {
       throw new ForbiddenException();
     }
-
-    return todo;
   }
 }
@@ -0,0 +1,22 @@
+package dev.stratospheric.todoapp.todo;
+
+import java.time.LocalDate;
+
+/**
+ * [N]:jpa - A read-only projection of a {@link Todo} row as listed on the dashboard.<p/>
+ * The collaborator and pending collaboration request counts are aggregated by the database, so none of the lazy collections of the {@link Todo} entity have to be initialized.
+ */
+public interface TodoSummary {
+
+  Long getId();
+
+  String getTitle();
+
+  LocalDate getDueDate();
+
+  int getAmountOfCollaborators();
+
+  int getAmountOfCollaborationRequests();
+
+  boolean isCollaboration();
+}
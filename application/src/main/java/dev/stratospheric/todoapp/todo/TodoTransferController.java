@@ -0,0 +1,78 @@
+package dev.stratospheric.todoapp.todo;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Imports and exports the todos of the logged-in user in bulk, see {@link TodoTransferService}.<p/>
+ * Both endpoints stream their body: {@code GET /todo/export?format=csv|ndjson} downloads the owned todos, {@code POST /todo/import} reads a {@code text/csv} or {@code application/x-ndjson} body and returns the number of imported todos.
+ */
+@Controller
+@RequestMapping("/todo")
+public class TodoTransferController {
+
+  private static final Logger logger = LoggerFactory.getLogger(TodoTransferController.class);
+
+  private final TodoTransferService todoTransferService;
+
+  public TodoTransferController(TodoTransferService todoTransferService) {
+    this.todoTransferService = todoTransferService;
+  }
+
+  public record ImportResult(int importedTodos) {
+  }
+
+  @GetMapping("/export")
+  public void exportTodos(
+    @RequestParam(name = "format", defaultValue = "csv") String extension,
+    @AuthenticationPrincipal OidcUser user,
+    HttpServletResponse response
+  ) throws IOException {
+    TodoFormat format = TodoFormat.forExtension(extension)
+      .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format " + extension));
+
+    response.setContentType(format.getMediaType().toString());
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+      .filename("todos." + format.getExtension())
+      .build()
+      .toString());
+
+    int exportedTodos = todoTransferService.exportTodos(user.getEmail(), format, response.getOutputStream());
+
+    logger.info("Successfully exported {} todos", exportedTodos);
+  }
+
+  @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+  @ResponseBody
+  public ImportResult importTodos(
+    @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+    @AuthenticationPrincipal OidcUser user,
+    InputStream body
+  ) throws IOException {
+    TodoFormat format = TodoFormat.forMediaType(contentType).orElseThrow();
+
+    int importedTodos = todoTransferService.importTodos(body, format, user.getEmail(), user.getAttribute("name"));
+
+    logger.info("Successfully imported {} todos", importedTodos);
+
+    return new ImportResult(importedTodos);
+  }
+}
@@ -0,0 +1,176 @@
+package dev.stratospheric.todoapp.todo;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports and exports the todos of a user as {@link TodoRecord}s, in any {@link TodoFormat}, while keeping the memory used constant whatever the number of todos.<p/>
+ * The import runs in two passes, so that reading the request body doesn't hold a transaction or a connection. The first pass reads the records one by one, validates them and spools them to a temporary NDJSON file: a record that can't be read or isn't a valid todo ends the import before anything is saved, so that a corrected file can be imported again without duplicates. The second pass reads the spooled records back and saves them in chunks of {@value #IMPORT_CHUNK_SIZE} todos (see {@link TodoService#saveNewTodos(List, String, String)}), each in its own transaction, so that neither a transaction nor the persistence context grows with the file. A database failure in the second pass leaves the chunks saved before committed. The todos are validated without the constraints of the {@link Todo.Entered} group, so that overdue todos can be imported again once exported.<p/>
+ * The export streams the owned todos from a server-side cursor (see {@link TodoRepository#streamAllByOwnerEmailOrderByIdAsc(String)}) and writes each one as soon as it is read, then detaches it.
+ */
+@Service
+public class TodoTransferService {
+
+  static final int IMPORT_CHUNK_SIZE = 500;
+
+  private final TodoService todoService;
+  private final TodoRepository todoRepository;
+  private final EntityManager entityManager;
+  private final Validator validator;
+  private final TransactionTemplate transactionTemplate;
+  private final Map<TodoFormat, ObjectReader> readers = new EnumMap<>(TodoFormat.class);
+  private final Map<TodoFormat, ObjectWriter> writers = new EnumMap<>(TodoFormat.class);
+
+  /**
+   * @param objectMapper Reads and writes NDJSON, with the same date format and leniency as the CSV mapper.
+   */
+  public TodoTransferService(
+    TodoService todoService,
+    TodoRepository todoRepository,
+    EntityManager entityManager,
+    Validator validator,
+    TransactionTemplate transactionTemplate,
+    ObjectMapper objectMapper) {
+    this.todoService = todoService;
+    this.todoRepository = todoRepository;
+    this.entityManager = entityManager;
+    this.validator = validator;
+    this.transactionTemplate = transactionTemplate;
+
+    CsvMapper csvMapper = CsvMapper.builder()
+      .addModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+      .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL, CsvParser.Feature.SKIP_EMPTY_LINES, CsvParser.Feature.TRIM_SPACES)
+      .build();
+    readers.put(TodoFormat.CSV, csvMapper.readerFor(TodoRecord.class).with(CsvSchema.emptySchema().withHeader()));
+    writers.put(TodoFormat.CSV, csvMapper.writer(csvMapper.schemaFor(TodoRecord.class).withHeader()));
+
+    readers.put(TodoFormat.NDJSON, objectMapper.readerFor(TodoRecord.class)
+      .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+    writers.put(TodoFormat.NDJSON, objectMapper.writerFor(TodoRecord.class)
+      .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .withRootValueSeparator("\n"));
+  }
+
+  /**
+   * No transaction is open while the input is read.
+   * @return The number of imported todos.
+   * @throws InvalidImportException If a record can't be read or isn't a valid todo. No todo has been imported then.
+   */
+  public int importTodos(InputStream input, TodoFormat format, String ownerEmail, String ownerName) throws IOException {
+    Path spool = Files.createTempFile("todo-import", ".ndjson");
+    try {
+      spoolValidRecords(input, format, spool);
+      return saveSpooledRecords(spool, ownerEmail, ownerName);
+    } finally {
+      Files.deleteIfExists(spool);
+    }
+  }
+
+  /**
+   * Writes the todos owned by the given user, ordered by id. The output isn't closed.<p/>
+   * The read-only transaction, and its connection, are held until the last todo has been written.
+   * @return The number of exported todos.
+   */
+  @Transactional(readOnly = true)
+  public int exportTodos(String ownerEmail, TodoFormat format, OutputStream output) throws IOException {
+    int exportedTodos = 0;
+
+    try (Stream<Todo> todos = todoRepository.streamAllByOwnerEmailOrderByIdAsc(ownerEmail);
+         SequenceWriter records = writers.get(format).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(output)) {
+      for (Iterator<Todo> iterator = todos.iterator(); iterator.hasNext(); exportedTodos++) {
+        Todo todo = iterator.next();
+        records.write(TodoRecord.of(todo));
+        entityManager.detach(todo);
+      }
+    }
+
+    return exportedTodos;
+  }
+
+  private void spoolValidRecords(InputStream input, TodoFormat format, Path spool) throws IOException {
+    long recordNumber = 0;
+
+    try (MappingIterator<TodoRecord> records = readers.get(format).readValues(input);
+         SequenceWriter spooledRecords = writers.get(TodoFormat.NDJSON).writeValues(Files.newOutputStream(spool))) {
+      while (records.hasNextValue()) {
+        TodoRecord record = records.nextValue();
+        recordNumber++;
+        validate(record.toTodo(), recordNumber);
+        spooledRecords.write(record);
+      }
+    } catch (JsonProcessingException e) {
+      throw new InvalidImportException(recordNumber + 1, e.getOriginalMessage(), e);
+    }
+  }
+
+  private int saveSpooledRecords(Path spool, String ownerEmail, String ownerName) throws IOException {
+    int importedTodos = 0;
+    List<Todo> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+
+    try (MappingIterator<TodoRecord> records = readers.get(TodoFormat.NDJSON).readValues(Files.newInputStream(spool))) {
+      while (records.hasNextValue()) {
+        chunk.add(records.nextValue().toTodo());
+
+        if (chunk.size() == IMPORT_CHUNK_SIZE) {
+          importedTodos += saveChunk(chunk, ownerEmail, ownerName);
+          chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        }
+      }
+    }
+
+    return importedTodos + saveChunk(chunk, ownerEmail, ownerName);
+  }
+
+  private void validate(Todo todo, long recordNumber) {
+    Set<ConstraintViolation<Todo>> violations = validator.validate(todo);
+    if (!violations.isEmpty()) {
+      String reason = violations.stream()
+        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.joining(", "));
+      throw new InvalidImportException(recordNumber, reason, null);
+    }
+  }
+
+  private int saveChunk(List<Todo> chunk, String ownerEmail, String ownerName) {
+    if (chunk.isEmpty()) {
+      return 0;
+    }
+
+    transactionTemplate.executeWithoutResult(status -> todoService.saveNewTodos(chunk, ownerEmail, ownerName));
+    return chunk.size();
+  }
+}
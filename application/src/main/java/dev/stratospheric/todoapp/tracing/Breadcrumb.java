@@ -3,6 +3,8 @@ package dev.stratospheric.todoapp.tracing;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 
 /** 
  * [N]:nsql]:web-trace - Model class used to store data from our Java application into our DynamoDB table.<p/>
@@ -11,6 +13,11 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbParti
 @DynamoDbBean
 public class Breadcrumb {
 
+  /**
+   * [N]:nosql - The global secondary index used to query the breadcrumbs of a user within a time range (see {@code BreadcrumbsDynamoDbTable} in the cdk module).
+   */
+  public static final String USERNAME_TIMESTAMP_INDEX = "username-timestamp-index";
+
   private String id;
   private String uri;
   private String username;
@@ -40,9 +47,10 @@ public class Breadcrumb {
   }
 
   /**
-   * The {@code username} partition key allows us to query for a list of all {@code Breadcrumb} items for a specific user as well as a list of events for a user within a specific time frame.
+   * The {@code username} partition key of the {@value #USERNAME_TIMESTAMP_INDEX} allows us to query for a list of all {@code Breadcrumb} items for a specific user as well as a list of events for a user within a specific time frame.
    * @return
    */
+  @DynamoDbSecondaryPartitionKey(indexNames = USERNAME_TIMESTAMP_INDEX)
   @DynamoDbAttribute(value = "username")
   public String getUsername() {
     return username;
@@ -53,9 +61,11 @@ public class Breadcrumb {
   }
 
   /**
-   * The {@code timestamp} is a sort key which allows to aggregate data by a partition key
+   * The {@code timestamp} is the sort key of the {@value #USERNAME_TIMESTAMP_INDEX} which allows to aggregate data by a partition key.<p/>
+   * It is stored as an ISO-8601 UTC timestamp of fixed length (see {@code TraceDao#TIMESTAMP_FORMAT}) so that the lexicographic order DynamoDB applies to strings is the chronological order.
    * @return
    */
+  @DynamoDbSecondarySortKey(indexNames = USERNAME_TIMESTAMP_INDEX)
   @DynamoDbAttribute(value = "timestamp")
   public String getTimestamp() {
     return timestamp;
@@ -0,0 +1,63 @@
+package dev.stratospheric.todoapp.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * [N]:nosql]:web-trace - Rewrites the timestamps of the breadcrumbs stored before {@code TraceDao#TIMESTAMP_FORMAT}, i.e. with {@code ZonedDateTime#toString()} in the time zone of the application, so that the {@value Breadcrumb#USERNAME_TIMESTAMP_INDEX} finds them within their time range.<p/>
+ * As it scans the whole table, it only runs when {@code custom.tracing.migrate-timestamps} is set, in the background on the {@code tracing} executor once the application is ready. It can be interrupted and run again, or by several instances at once: the breadcrumbs already in the new format are left as they are.
+ */
+@Component
+@ConditionalOnProperty(prefix = "custom.tracing", name = "migrate-timestamps", havingValue = "true")
+public class BreadcrumbTimestampMigration {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BreadcrumbTimestampMigration.class);
+
+  private final DynamoDbTable<Breadcrumb> breadcrumbTable;
+
+  public BreadcrumbTimestampMigration(DynamoDbTable<Breadcrumb> breadcrumbTable) {
+    this.breadcrumbTable = breadcrumbTable;
+  }
+
+  @Async("tracingExecutor")
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrateOnStartup() {
+    LOG.info("Migrated the timestamps of {} breadcrumbs", migrate());
+  }
+
+  /**
+   * @return The number of breadcrumbs whose timestamp was rewritten.
+   */
+  int migrate() {
+    // [N]:nosql - Only the breadcrumbs whose timestamp doesn't have the fixed length of the new format are returned, although the scan reads them all.
+    Expression notInTimestampFormat = Expression.builder()
+      .expression("size(#timestamp) <> :length")
+      .expressionNames(Map.of("#timestamp", "timestamp"))
+      .expressionValues(Map.of(":length", AttributeValue.builder().n(String.valueOf(TraceDao.TIMESTAMP_LENGTH)).build()))
+      .build();
+
+    int migrated = 0;
+    for (Breadcrumb breadcrumb : breadcrumbTable.scan(ScanEnhancedRequest.builder().filterExpression(notInTimestampFormat).build()).items()) {
+      try {
+        breadcrumb.setTimestamp(TraceDao.TIMESTAMP_FORMAT.format(TraceDao.parseTimestamp(breadcrumb.getTimestamp())));
+        breadcrumbTable.putItem(breadcrumb);
+        migrated++;
+      } catch (DateTimeParseException e) {
+        LOG.warn("Unable to migrate the timestamp of breadcrumb {}: {}", breadcrumb.getId(), e.getMessage());
+      }
+    }
+    return migrated;
+  }
+}
@@ -0,0 +1,293 @@
+package dev.stratospheric.todoapp.tracing;
+
+import dev.stratospheric.todoapp.config.ExecutorBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [N]:nosql]:web-trace - A bounded write-behind buffer for {@code Breadcrumb}s.<p/>
+ * Instead of one {@code PutItem} per page hit, breadcrumbs are queued in memory and written by a single task of the {@code tracing} executor with {@code BatchWriteItem}, as soon as {@value #MAX_BATCH_SIZE} breadcrumbs (the DynamoDB limit for a batch) are waiting or {@code custom.tracing.buffer.max-delay} after the first breadcrumb of a batch arrived. Items DynamoDB reports as unprocessed are retried with an exponential backoff, up to {@code custom.tracing.buffer.max-retries} times.<p/>
+ * Breadcrumbs are best-effort: those still in the buffer when the application is killed are lost. What happens when the buffer is full is defined by the {@link OverflowPolicy}.<p/>
+ * The buffer publishes the {@code stratospheric.tracing.buffer.size} gauge, the {@code stratospheric.tracing.buffer.flush} timer and the {@code stratospheric.tracing.breadcrumbs.dropped} counter (tagged with the {@code reason}). As an {@link ExecutorBuffer}, its size and drops also show along with the {@code tracing} executor on {@code /actuator/executors}.
+ */
+@Component
+public class BreadcrumbWriteBuffer implements ExecutorBuffer {
+
+  static final int MAX_BATCH_SIZE = 25;
+
+  private static final Logger LOG = LoggerFactory.getLogger(BreadcrumbWriteBuffer.class);
+
+  /**
+   * What to do with a breadcrumb when the buffer is full.
+   */
+  public enum OverflowPolicy {
+    /**
+     * Discard the breadcrumb.
+     */
+    DROP,
+    /**
+     * Wait up to {@code custom.tracing.buffer.block-timeout} for space in the buffer, then discard the breadcrumb.
+     */
+    BLOCK,
+    /**
+     * Bypass the buffer and write the breadcrumb right away with a {@code PutItem} on the calling thread.
+     */
+    SPILL
+  }
+
+  private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+  private final DynamoDbTable<Breadcrumb> table;
+  private final Executor flushExecutor;
+  private final BlockingQueue<Breadcrumb> buffer;
+  private final OverflowPolicy overflowPolicy;
+  private final Duration blockTimeout;
+  private final Duration maxDelay;
+  private final int maxRetries;
+  private final Duration retryBackoff;
+  private final Timer flushTimer;
+  private final Counter overflowDrops;
+  private final Counter unprocessedDrops;
+
+  private CountDownLatch flusherStopped;
+  private volatile boolean running;
+
+  /**
+   * @param flushExecutor Runs the task writing the buffered breadcrumbs, see {@code AsyncConfig#tracingExecutor}.
+   * @param capacity The maximum number of breadcrumbs waiting to be written ({@code custom.tracing.buffer.capacity}).
+   * @param overflowPolicy What to do when the buffer is full ({@code custom.tracing.buffer.overflow-policy}).
+   * @param blockTimeout How long to wait for space in the buffer with {@code OverflowPolicy#BLOCK} ({@code custom.tracing.buffer.block-timeout}).
+   * @param maxDelay How long a breadcrumb waits for its batch to fill up ({@code custom.tracing.buffer.max-delay}).
+   * @param maxRetries How often unprocessed items are retried before they are dropped ({@code custom.tracing.buffer.max-retries}).
+   * @param retryBackoff The delay before the first retry, doubled for each following one ({@code custom.tracing.buffer.retry-backoff}).
+   */
+  public BreadcrumbWriteBuffer(
+    DynamoDbEnhancedClient dynamoDbEnhancedClient,
+    DynamoDbTable<Breadcrumb> breadcrumbTable,
+    MeterRegistry meterRegistry,
+    @Qualifier("tracingExecutor") Executor flushExecutor,
+    @Value("${custom.tracing.buffer.capacity:10000}") int capacity,
+    @Value("${custom.tracing.buffer.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+    @Value("${custom.tracing.buffer.block-timeout:PT0.1S}") Duration blockTimeout,
+    @Value("${custom.tracing.buffer.max-delay:PT1S}") Duration maxDelay,
+    @Value("${custom.tracing.buffer.max-retries:3}") int maxRetries,
+    @Value("${custom.tracing.buffer.retry-backoff:PT0.1S}") Duration retryBackoff) {
+    this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
+    this.table = breadcrumbTable;
+    this.flushExecutor = flushExecutor;
+    this.buffer = new ArrayBlockingQueue<>(capacity);
+    this.overflowPolicy = overflowPolicy;
+    this.blockTimeout = blockTimeout;
+    this.maxDelay = maxDelay;
+    this.maxRetries = maxRetries;
+    this.retryBackoff = retryBackoff;
+
+    Gauge.builder("stratospheric.tracing.buffer.size", buffer, BlockingQueue::size)
+      .description("Number of breadcrumbs waiting to be written to DynamoDB")
+      .register(meterRegistry);
+    this.flushTimer = Timer.builder("stratospheric.tracing.buffer.flush")
+      .description("Time to write a batch of breadcrumbs to DynamoDB, including retries")
+      .register(meterRegistry);
+    this.overflowDrops = droppedCounter(meterRegistry, "overflow");
+    this.unprocessedDrops = droppedCounter(meterRegistry, "unprocessed");
+  }
+
+  @PostConstruct
+  void start() {
+    running = true;
+    flusherStopped = new CountDownLatch(1);
+    flushExecutor.execute(() -> {
+      try {
+        flushContinuously();
+      } finally {
+        flusherStopped.countDown();
+      }
+    });
+  }
+
+  /**
+   * Stops accepting breadcrumbs and writes those still in the buffer.
+   */
+  @PreDestroy
+  void stop() throws InterruptedException {
+    // [N] The flusher isn't interrupted, as the AWS SDK aborts requests made from an interrupted thread. It notices within maxDelay that it has to drain the buffer.
+    running = false;
+    flusherStopped.await(maxDelay.multipliedBy(2).plusSeconds(10).toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queues a breadcrumb to be written to DynamoDB, applying the {@link OverflowPolicy} if the buffer is full.
+   */
+  public void add(Breadcrumb breadcrumb) {
+    if (running && buffer.offer(breadcrumb)) {
+      return;
+    }
+
+    switch (overflowPolicy) {
+      case DROP -> drop(breadcrumb);
+      case BLOCK -> {
+        try {
+          if (!running || !buffer.offer(breadcrumb, blockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            drop(breadcrumb);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          drop(breadcrumb);
+        }
+      }
+      case SPILL -> table.putItem(breadcrumb);
+    }
+  }
+
+  @Override
+  public String getExecutorName() {
+    return "tracing";
+  }
+
+  @Override
+  public int getSize() {
+    return buffer.size();
+  }
+
+  @Override
+  public int getRemainingCapacity() {
+    return buffer.remainingCapacity();
+  }
+
+  @Override
+  public long getDroppedItems() {
+    return (long) (overflowDrops.count() + unprocessedDrops.count());
+  }
+
+  private void flushContinuously() {
+    while (running || !buffer.isEmpty()) {
+      try {
+        List<Breadcrumb> batch = nextBatch();
+        if (!batch.isEmpty()) {
+          flushTimer.record(() -> write(batch));
+        }
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to write breadcrumbs", e);
+      }
+    }
+  }
+
+  /**
+   * Waits for the first breadcrumb, then for the batch to fill up until {@code maxDelay} has elapsed. Once stopped, drains the buffer without waiting.
+   */
+  private List<Breadcrumb> nextBatch() {
+    List<Breadcrumb> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+    try {
+      Breadcrumb first = running ? buffer.poll(maxDelay.toMillis(), TimeUnit.MILLISECONDS) : buffer.poll();
+      if (first == null) {
+        return batch;
+      }
+      batch.add(first);
+
+      long deadline = System.nanoTime() + maxDelay.toNanos();
+      while (batch.size() < MAX_BATCH_SIZE && running) {
+        Breadcrumb next = buffer.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (next == null) {
+          break;
+        }
+        batch.add(next);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+
+    buffer.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+    return batch;
+  }
+
+  /**
+   * Writes a batch with {@code BatchWriteItem} and retries the items DynamoDB didn't process, e.g. because of throttling.
+   */
+  void write(List<Breadcrumb> batch) {
+    List<Breadcrumb> pending = batch;
+
+    for (int attempt = 0; !pending.isEmpty() && attempt <= maxRetries; attempt++) {
+      if (attempt > 0 && !backOff(attempt)) {
+        break;
+      }
+
+      pending = writeOnce(pending);
+    }
+
+    if (!pending.isEmpty()) {
+      LOG.warn("Dropped {} breadcrumbs that DynamoDB didn't process after {} retries", pending.size(), maxRetries);
+      unprocessedDrops.increment(pending.size());
+    } else {
+      LOG.debug("Successfully stored {} breadcrumb traces", batch.size());
+    }
+  }
+
+  private List<Breadcrumb> writeOnce(List<Breadcrumb> breadcrumbs) {
+    WriteBatch.Builder<Breadcrumb> writeBatch = WriteBatch
+      .builder(Breadcrumb.class)
+      .mappedTableResource(table);
+    breadcrumbs.forEach(writeBatch::addPutItem);
+
+    try {
+      BatchWriteResult result = dynamoDbEnhancedClient.batchWriteItem(
+        BatchWriteItemEnhancedRequest
+          .builder()
+          .writeBatches(writeBatch.build())
+          .build()
+      );
+      return result.unprocessedPutItemsForTable(table);
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to write a batch of {} breadcrumbs", breadcrumbs.size(), e);
+      return breadcrumbs;
+    }
+  }
+
+  /**
+   * @return {@code false} if interrupted, in which case the pending items are not retried.
+   */
+  private boolean backOff(int attempt) {
+    try {
+      Thread.sleep(retryBackoff.multipliedBy(1L << Math.min(attempt - 1, 10)).toMillis());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void drop(Breadcrumb breadcrumb) {
+    LOG.debug("Breadcrumb buffer is full, dropping breadcrumb for {}", breadcrumb.getUri());
+    overflowDrops.increment();
+  }
+
+  private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("stratospheric.tracing.breadcrumbs.dropped")
+      .description("Number of breadcrumbs that were not written to DynamoDB")
+      .tag("reason", reason)
+      .register(meterRegistry);
+  }
+}
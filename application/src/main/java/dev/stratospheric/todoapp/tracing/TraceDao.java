@@ -1,122 +1,152 @@
 package dev.stratospheric.todoapp.tracing;
 
-import io.awspring.cloud.dynamodb.DynamoDbTemplate;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Component;
-import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
- * [N]:nosql]:spring-evnt - A DAO which depends on the {@link DynamoDbTemplate} bean to create a new {@code Breadcrumb} item whenever a {@code TracingEvent} is emitted. 
+ * [N]:nosql]:spring-evnt - A DAO which creates a new {@code Breadcrumb} item whenever a {@code TracingEvent} is emitted and queries the journey of a user through the {@value Breadcrumb#USERNAME_TIMESTAMP_INDEX}.<p/>
+ * All the queries are key-condition queries on the index: DynamoDB only reads (and bills) the breadcrumbs of the given user within the given time range. The breadcrumbs stored with the former timestamp format are only found within their time range once migrated by the {@link BreadcrumbTimestampMigration}.
  */
 @Component
 public class TraceDao {
 
-  private static final Logger LOG = LoggerFactory.getLogger(TraceDao.class);
+  /**
+   * [N]:nosql - The format of {@code Breadcrumb#timestamp}: UTC with a fixed number of fraction digits, so that the string order is the chronological order.
+   */
+  static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter
+    .ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSSSSX")
+    .withZone(ZoneOffset.UTC);
+  static final int TIMESTAMP_LENGTH = "2023-08-01T10:00:00.000000Z".length();
 
-  private final DynamoDbTemplate dynamoDbTemplate;
+  private final DynamoDbTable<Breadcrumb> breadcrumbTable;
+  private final BreadcrumbWriteBuffer breadcrumbWriteBuffer;
 
-  public TraceDao(DynamoDbTemplate dynamoDbTemplate) {
-    this.dynamoDbTemplate = dynamoDbTemplate;
+  public TraceDao(DynamoDbTable<Breadcrumb> breadcrumbTable, BreadcrumbWriteBuffer breadcrumbWriteBuffer) {
+    this.breadcrumbTable = breadcrumbTable;
+    this.breadcrumbWriteBuffer = breadcrumbWriteBuffer;
   }
 
   /**
    * [N]:spring-evnt - Stores a {@code TracingEvent}.<p/>
    * It uses the {@code @EventListener} Spring annotation to listen to a {@code TracingEvent}, which is a specific type of {@link ApplicationEvent}.<p/>
-   * We use the {@code @Async} annotation to consume the {@code TracingEvent} asynchronously without blocking the thread and potentially delaying the incoming request.
+   * The {@code Breadcrumb} is handed to the {@link BreadcrumbWriteBuffer}, which writes it to DynamoDB in the background along with other breadcrumbs, so the incoming request isn't delayed and no task is submitted per event.
    * @param tracingEvent
    */
-  @Async
   @EventListener(TracingEvent.class)
   public void storeTracingEvent(TracingEvent tracingEvent) {
     Breadcrumb breadcrumb = new Breadcrumb();
     breadcrumb.setId(UUID.randomUUID().toString());
     breadcrumb.setUri(tracingEvent.getUri());
     breadcrumb.setUsername(tracingEvent.getUsername());
-    breadcrumb.setTimestamp(ZonedDateTime.now().toString());
+    breadcrumb.setTimestamp(TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(tracingEvent.getTimestamp())));
 
-    dynamoDbTemplate.save(breadcrumb);
-
-    LOG.info("Successfully stored breadcrumb trace");
+    breadcrumbWriteBuffer.add(breadcrumb);
   }
 
   /**
-   * [N]:spring-evnt - Find all events for a given {@code username}.<p/>
+   * [N]:spring-evnt - Find all events for a given {@code username}, oldest first.<p/>
    * @param username
    * @return
    */
   public List<Breadcrumb> findAllEventsForUser(String username) {
-    Breadcrumb breadcrumb = new Breadcrumb();
-    breadcrumb.setUsername(username);
-
-    return dynamoDbTemplate.query(
-        QueryEnhancedRequest
-          .builder()
-          .queryConditional(
-            QueryConditional.keyEqualTo(
-              Key
-                .builder()
-                .partitionValue(breadcrumb.getId())
-                .build()
-            )
-          )
-          .build(),
-        Breadcrumb.class
-      ).items()
-      .stream()
+    return query(QueryConditional.keyEqualTo(userKey(username)), null, null)
       .toList();
   }
 
   /**
-   * [N]:spring-evnt - Find all events for a given {@code username} for the last two weeks.<p/>
+   * [N]:spring-evnt - Find all events for a given {@code username} for the last two weeks, oldest first.<p/>
    * @param username
    * @return
    */
   public List<Breadcrumb> findUserTraceForLastTwoWeeks(String username) {
-    ZonedDateTime twoWeeksAgo = ZonedDateTime.now().minusWeeks(2);
+    Instant now = Instant.now();
 
-    Breadcrumb breadcrumb = new Breadcrumb();
-    breadcrumb.setUsername(username);
-
-    return dynamoDbTemplate.query(
-        QueryEnhancedRequest
-          .builder()
-          .queryConditional(
-            QueryConditional.keyEqualTo(
-              Key
-                .builder()
-                .partitionValue(breadcrumb.getId())
-                .build()
-            )
-          )
-          .filterExpression(
-            Expression
-              .builder()
-              .expression("timestamp > :twoWeeksAgo")
-              .putExpressionValue(":twoWeeksAgo",
-                AttributeValue
-                  .builder()
-                  .s(twoWeeksAgo.toString())
-                  .build()
-              )
-              .build()
-          )
-          .build(),
-        Breadcrumb.class
-      )
-      .items()
-      .stream()
+    return query(between(username, now.minus(Duration.ofDays(14)), now), null, null)
+      .toList();
+  }
+
+  /**
+   * [N]:spring-evnt - Find a page of events for a given {@code username} within a time range, oldest first.
+   * @param from The start of the time range, inclusive.
+   * @param to The end of the time range, inclusive.
+   * @param after The last breadcrumb of the previous page, or {@code null} for the first page.
+   * @param pageSize The maximum number of breadcrumbs to return.
+   * @return
+   */
+  public Slice<Breadcrumb> findUserTrace(String username, Instant from, Instant to, Breadcrumb after, int pageSize) {
+    List<Breadcrumb> breadcrumbs = query(between(username, from, to), after, pageSize + 1)
+      .limit(pageSize + 1L)
       .toList();
+
+    boolean hasNext = breadcrumbs.size() > pageSize;
+    return new SliceImpl<>(hasNext ? breadcrumbs.subList(0, pageSize) : breadcrumbs, PageRequest.ofSize(pageSize), hasNext);
+  }
+
+  /**
+   * Queries the {@value Breadcrumb#USERNAME_TIMESTAMP_INDEX}, lazily fetching the following pages while the stream is consumed.
+   * @param after The breadcrumb to resume the query after ({@code ExclusiveStartKey}), if any.
+   * @param limit The maximum number of items per request, if any.
+   */
+  private Stream<Breadcrumb> query(QueryConditional queryConditional, Breadcrumb after, Integer limit) {
+    QueryEnhancedRequest.Builder request = QueryEnhancedRequest
+      .builder()
+      .queryConditional(queryConditional)
+      .limit(limit);
+
+    if (after != null) {
+      // [N]:nosql - The exclusive start key of an index query consists of the index key and the table key.
+      request.exclusiveStartKey(Map.of(
+        "id", AttributeValue.builder().s(after.getId()).build(),
+        "username", AttributeValue.builder().s(after.getUsername()).build(),
+        "timestamp", AttributeValue.builder().s(after.getTimestamp()).build()
+      ));
+    }
+
+    return breadcrumbTable
+      .index(Breadcrumb.USERNAME_TIMESTAMP_INDEX)
+      .query(request.build())
+      .stream()
+      .flatMap(page -> page.items().stream());
+  }
+
+  /**
+   * Parses a {@code Breadcrumb#timestamp} in the {@link #TIMESTAMP_FORMAT} or in the former format, the {@code ZonedDateTime#toString()} in the time zone of the application, e.g. "2023-08-01T12:00:00.123+02:00[Europe/Berlin]".
+   */
+  static Instant parseTimestamp(String timestamp) {
+    return ZonedDateTime.parse(timestamp).toInstant();
+  }
+
+  private static QueryConditional between(String username, Instant from, Instant to) {
+    return QueryConditional.sortBetween(
+      userKey(username, TIMESTAMP_FORMAT.format(from)),
+      userKey(username, TIMESTAMP_FORMAT.format(to))
+    );
+  }
+
+  private static Key userKey(String username) {
+    return Key.builder().partitionValue(username).build();
+  }
+
+  private static Key userKey(String username, String timestamp) {
+    return Key.builder().partitionValue(username).sortValue(timestamp).build();
   }
 }
@@ -0,0 +1,3 @@
+-- [N]:flyway - Supports the case-insensitive prefix search of collaborators (upper(NAME) like 'PREFIX%')
+
+create index IDX_PERSON_UPPER_NAME on PERSON (upper(NAME) text_pattern_ops);
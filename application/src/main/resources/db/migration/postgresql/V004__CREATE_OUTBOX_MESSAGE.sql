@@ -0,0 +1,10 @@
+-- [N]:flyway]:sqs - Transactional outbox: messages are written in the same transaction as the business data and relayed to SQS afterwards (see OutboxRelay)
+
+create table OUTBOX_MESSAGE
+(
+	ID BIGSERIAL not null primary key,
+	QUEUE_NAME VARCHAR(255) not null,
+	PAYLOAD_TYPE VARCHAR(255) not null,
+	PAYLOAD TEXT not null,
+	CREATED_AT TIMESTAMP WITH TIME ZONE not null
+);
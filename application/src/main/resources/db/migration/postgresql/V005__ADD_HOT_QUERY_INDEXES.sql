@@ -0,0 +1,33 @@
+-- [N]:flyway - Indexes and constraints backing the dashboard, sharing and access queries, which otherwise scan the whole tables (see HotQueryIndexesTest)
+
+-- Todos of an owner, ordered by id (dashboard, findAllByOwnerEmailOrderByIdAsc, findByIdAndOwnerEmail)
+create index IDX_TODO_OWNER_ID on TODO (OWNER_ID, ID);
+
+-- A person collaborates at most once on a todo. The primary key serves the lookups by todo (collaborator counts, access checks), the index those by collaborator (shared todos of the dashboard)
+delete from TODO_COLLABORATION duplicate
+	using TODO_COLLABORATION original
+	where duplicate.TODO_ID = original.TODO_ID
+		and duplicate.COLLABORATOR_ID = original.COLLABORATOR_ID
+		and duplicate.ctid > original.ctid;
+
+alter table TODO_COLLABORATION
+	add constraint PK_TODO_COLLABORATION primary key (TODO_ID, COLLABORATOR_ID);
+
+create index IDX_TODO_COLLABORATION_COLLABORATOR_ID on TODO_COLLABORATION (COLLABORATOR_ID, TODO_ID);
+
+-- At most one pending collaboration request per todo and collaborator (findByTodoIdAndCollaboratorId, collaboration request counts), keeping the oldest one
+delete from TODO_COLLABORATION_REQUEST duplicate
+	using TODO_COLLABORATION_REQUEST original
+	where duplicate.TODO_ID = original.TODO_ID
+		and duplicate.COLLABORATOR_ID = original.COLLABORATOR_ID
+		and duplicate.ID > original.ID;
+
+alter table TODO_COLLABORATION_REQUEST
+	add constraint UK_TODO_COLLABORATION_REQUEST_TODO_COLLABORATOR unique (TODO_ID, COLLABORATOR_ID);
+
+create index IDX_TODO_COLLABORATION_REQUEST_COLLABORATOR_ID on TODO_COLLABORATION_REQUEST (COLLABORATOR_ID);
+
+-- Orphan removal of the notes and reminders when a todo is deleted
+create index IDX_NOTE_TODO_ID on NOTE (TODO_ID);
+
+create index IDX_REMINDER_TODO_ID on REMINDER (TODO_ID);
@@ -0,0 +1,10 @@
+-- [N]:flyway]:jpa - Hibernate reserves blocks of 50 ids with a single call to these sequences (pooled optimizer) instead of relying on IDENTITY columns, which lets it batch the inserts of a todo and its children.
+-- The next block starts after the ids already in use. The column defaults keep working for the rows inserted without Hibernate.
+
+alter sequence TODO_ID_SEQ increment by 50;
+
+alter sequence NOTE_ID_SEQ increment by 50;
+
+alter sequence REMINDER_ID_SEQ increment by 50;
+
+alter sequence TODO_COLLABORATION_REQUEST_ID_SEQ increment by 50;
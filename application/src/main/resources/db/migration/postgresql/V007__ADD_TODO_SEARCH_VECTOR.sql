@@ -0,0 +1,54 @@
+-- [N]:flyway - Full-text search over the title, the description and the notes of the todos (see TodoRepository#searchOwnedAndSharedSummaries).
+-- SEARCH_VECTOR weighs the words of the title (A) above those of the description (B) and of the notes (C). It is kept up to date by triggers,
+-- on TODO when its title or description changes and on NOTE for the todo of each inserted, updated or deleted note.
+
+alter table TODO add column SEARCH_VECTOR tsvector;
+
+create function TODO_SEARCH_VECTOR(TODO_TITLE varchar, TODO_DESCRIPTION varchar, SEARCHED_TODO_ID bigint) returns tsvector as $$
+  select setweight(to_tsvector('english', coalesce(TODO_TITLE, '')), 'A')
+    || setweight(to_tsvector('english', coalesce(TODO_DESCRIPTION, '')), 'B')
+    || setweight(to_tsvector('english', coalesce(string_agg(N.CONTENT, ' '), '')), 'C')
+  from NOTE N
+  where N.TODO_ID = SEARCHED_TODO_ID
+$$ language sql stable;
+
+create function SET_TODO_SEARCH_VECTOR() returns trigger as $$
+begin
+  NEW.SEARCH_VECTOR := TODO_SEARCH_VECTOR(NEW.TITLE, NEW.DESCRIPTION, NEW.ID);
+  return NEW;
+end
+$$ language plpgsql;
+
+create function REFRESH_TODO_SEARCH_VECTOR(REFRESHED_TODO_ID bigint) returns void as $$
+  update TODO
+  set SEARCH_VECTOR = TODO_SEARCH_VECTOR(TITLE, DESCRIPTION, ID)
+  where ID = REFRESHED_TODO_ID
+$$ language sql;
+
+create function REFRESH_NOTE_TODO_SEARCH_VECTOR() returns trigger as $$
+begin
+  if TG_OP = 'INSERT' then
+    perform REFRESH_TODO_SEARCH_VECTOR(NEW.TODO_ID);
+  elsif TG_OP = 'DELETE' then
+    perform REFRESH_TODO_SEARCH_VECTOR(OLD.TODO_ID);
+  else
+    perform REFRESH_TODO_SEARCH_VECTOR(NEW.TODO_ID);
+    if NEW.TODO_ID is distinct from OLD.TODO_ID then
+      perform REFRESH_TODO_SEARCH_VECTOR(OLD.TODO_ID);
+    end if;
+  end if;
+  return null;
+end
+$$ language plpgsql;
+
+update TODO set SEARCH_VECTOR = TODO_SEARCH_VECTOR(TITLE, DESCRIPTION, ID);
+
+create trigger TRG_TODO_SEARCH_VECTOR
+  before insert or update of TITLE, DESCRIPTION on TODO
+  for each row execute function SET_TODO_SEARCH_VECTOR();
+
+create trigger TRG_NOTE_TODO_SEARCH_VECTOR
+  after insert or update of CONTENT, TODO_ID or delete on NOTE
+  for each row execute function REFRESH_NOTE_TODO_SEARCH_VECTOR();
+
+create index IDX_TODO_SEARCH_VECTOR on TODO using gin (SEARCH_VECTOR);
@@ -0,0 +1,7 @@
+-- [N]:flyway]:sqs - The OutboxRelay claims the messages it sends for a while instead of keeping them locked during the sends, and sets aside those it can't read (see OutboxRelay).
+
+alter table OUTBOX_MESSAGE add column CLAIMED_UNTIL TIMESTAMP WITH TIME ZONE;
+
+alter table OUTBOX_MESSAGE add column FAILED_AT TIMESTAMP WITH TIME ZONE;
+
+alter table OUTBOX_MESSAGE add column FAILURE TEXT;
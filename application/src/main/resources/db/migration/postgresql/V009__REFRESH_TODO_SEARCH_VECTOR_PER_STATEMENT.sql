@@ -0,0 +1,48 @@
+-- [N]:flyway - Refreshes the SEARCH_VECTOR of the todos of the notes once per statement on NOTE instead of once per note (see V007__ADD_TODO_SEARCH_VECTOR.sql).
+-- The triggers read the inserted, updated or deleted notes from their transition tables: a statement touching many notes, e.g. moving or deleting all the notes
+-- of a todo, refreshes each of their todos once. A trigger with transition tables fires on a single event and updates of any column, hence the three triggers.
+
+drop trigger TRG_NOTE_TODO_SEARCH_VECTOR on NOTE;
+
+drop function REFRESH_NOTE_TODO_SEARCH_VECTOR();
+
+drop function REFRESH_TODO_SEARCH_VECTOR(bigint);
+
+create function REFRESH_NOTES_TODO_SEARCH_VECTOR() returns trigger as $$
+begin
+  if TG_OP = 'INSERT' then
+    update TODO T
+    set SEARCH_VECTOR = TODO_SEARCH_VECTOR(T.TITLE, T.DESCRIPTION, T.ID)
+    where T.ID in (select TODO_ID from NEW_NOTES);
+  elsif TG_OP = 'DELETE' then
+    update TODO T
+    set SEARCH_VECTOR = TODO_SEARCH_VECTOR(T.TITLE, T.DESCRIPTION, T.ID)
+    where T.ID in (select TODO_ID from OLD_NOTES);
+  else
+    update TODO T
+    set SEARCH_VECTOR = TODO_SEARCH_VECTOR(T.TITLE, T.DESCRIPTION, T.ID)
+    where T.ID in (
+      select unnest(array[N.TODO_ID, O.TODO_ID])
+      from NEW_NOTES N
+        join OLD_NOTES O on O.ID = N.ID
+      where (N.CONTENT, N.TODO_ID) is distinct from (O.CONTENT, O.TODO_ID)
+    );
+  end if;
+  return null;
+end
+$$ language plpgsql;
+
+create trigger TRG_NOTE_INSERT_TODO_SEARCH_VECTOR
+  after insert on NOTE
+  referencing new table as NEW_NOTES
+  for each statement execute function REFRESH_NOTES_TODO_SEARCH_VECTOR();
+
+create trigger TRG_NOTE_UPDATE_TODO_SEARCH_VECTOR
+  after update on NOTE
+  referencing old table as OLD_NOTES new table as NEW_NOTES
+  for each statement execute function REFRESH_NOTES_TODO_SEARCH_VECTOR();
+
+create trigger TRG_NOTE_DELETE_TODO_SEARCH_VECTOR
+  after delete on NOTE
+  referencing old table as OLD_NOTES
+  for each statement execute function REFRESH_NOTES_TODO_SEARCH_VECTOR();
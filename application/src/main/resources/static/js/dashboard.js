@@ -0,0 +1,137 @@
+// Loads the next rows of the dashboard, either when clicking "Load more" or when scrolling down to it (infinite scroll).
+
+function loadMoreTodos() {
+  const button = $('#load-more');
+
+  if (button.length === 0 || button.prop('disabled')) {
+    return;
+  }
+
+  button.prop('disabled', true);
+
+  $.get(button.data('href'), function (rows) {
+    $('#load-more-row').replaceWith(rows);
+    observeLoadMoreRow();
+  }).fail(function () {
+    button.prop('disabled', false);
+  });
+}
+
+function observeLoadMoreRow() {
+  const row = document.getElementById('load-more-row');
+
+  if (row === null || !('IntersectionObserver' in window)) {
+    return;
+  }
+
+  const observer = new IntersectionObserver(function (entries) {
+    if (entries.some(entry => entry.isIntersecting)) {
+      observer.disconnect();
+      loadMoreTodos();
+    }
+  });
+  observer.observe(row);
+}
+
+$(document).ready(function () {
+  $(document).on('click', '#load-more', loadMoreTodos);
+  observeLoadMoreRow();
+});
+
+// Collaborator picker: suggests collaborators by name prefix and shares the todo with the selected one.
+
+// Shorter prefixes aren't looked up (see DashboardService#searchCollaborators).
+const MIN_COLLABORATOR_PREFIX_LENGTH = 2;
+
+let shareTodoId = null;
+let collaboratorSearchTimeout = null;
+
+function promptForCollaboratorName() {
+  $('#collaborator-suggestions').empty()
+    .append($('<span class="list-group-item">').text('Type at least ' + MIN_COLLABORATOR_PREFIX_LENGTH + ' letters of the name'));
+}
+
+function searchCollaborators(query) {
+  $.getJSON('/dashboard/collaborators', {query: query}, function (collaborators) {
+    const suggestions = $('#collaborator-suggestions').empty();
+
+    if (collaborators.length === 0) {
+      suggestions.append($('<span class="list-group-item">').text('No collaborator available'));
+    }
+
+    collaborators.forEach(function (collaborator) {
+      suggestions.append(
+        $('<button type="button" class="list-group-item list-group-item-action">')
+          .text(collaborator.name)
+          .data('collaborator-id', collaborator.id)
+      );
+    });
+  });
+}
+
+$(document).ready(function () {
+  $('#share-todo').on('show.bs.modal', function (e) {
+    shareTodoId = $(e.relatedTarget).data('todo-id');
+    $('#collaborator-search').val('');
+    promptForCollaboratorName();
+  });
+
+  $('#collaborator-search').on('input', function () {
+    const query = $(this).val().trim();
+
+    clearTimeout(collaboratorSearchTimeout);
+    if (query.length < MIN_COLLABORATOR_PREFIX_LENGTH) {
+      promptForCollaboratorName();
+      return;
+    }
+    collaboratorSearchTimeout = setTimeout(() => searchCollaborators(query), 250);
+  });
+
+  // The todo is shared without reloading the dashboard, its row is patched by the change of the todo (see todo-updates.js). The form is submitted instead if the request fails.
+  $('#collaborator-suggestions').on('click', 'button', function () {
+    const form = $('#share-todo-form').attr('action', '/todo/' + shareTodoId + '/collaborations/' + $(this).data('collaborator-id'));
+
+    $.ajax({url: form.attr('action'), type: 'POST', dataType: 'json', headers: csrfHeaders()})
+      .done(function (result) {
+        $('#share-todo').modal('hide');
+        $('#message').text(result.message);
+        $('#toast').toast('show');
+      })
+      .fail(function () {
+        form.submit();
+      });
+  });
+});
+
+// In-place deletion: the confirmed todo is deleted without reloading the dashboard. The deletion link of the modal is followed instead if the request fails.
+
+let deleteTodoId = null;
+
+$(document).ready(function () {
+  $('#confirm-delete').on('show.bs.modal', function (e) {
+    deleteTodoId = $(e.relatedTarget).data('todo-id');
+  });
+
+  $('#confirm-deletion').on('click', function (e) {
+    const link = $(this);
+    const todoId = deleteTodoId;
+
+    if (todoId === undefined || todoId === null) {
+      return;
+    }
+    e.preventDefault();
+
+    $.ajax({url: '/todo/' + todoId, type: 'DELETE', headers: csrfHeaders()})
+      .done(function () {
+        $('#todo-rows').children('tr[data-todo-id="' + todoId + '"]').remove();
+        $('#confirm-delete').modal('hide');
+      })
+      .fail(function () {
+        window.location.href = link.attr('href');
+      });
+  });
+});
+
+function csrfHeaders() {
+  return {[$('meta[name="_csrf_header"]').attr('content')]: $('meta[name="_csrf"]').attr('content')};
+}
@@ -5,26 +5,99 @@ let stompClient = null;
 /**
  * Creates a STOMP client via the SockJS library.<p/>
  * [N]:stomp]:websocket - Note, if WebSocket isn’t supported by the browser, SockJS will degrade gracefully to HTTP. 
- * @param email An itentifier of the user to which is targetted the message.
  */ 
-function connectToWebSocketEndpoint(email) {
+function connectToWebSocketEndpoint() {
   const socket = new SockJS('/websocket');
 
   stompClient = Stomp.over(socket);
   stompClient.connect({}, () => {
     // [?] From where comes the message
     // [N] Subscribe to a generic channel
-    stompClient.subscribe('/topic/todoUpdates', function (message) {
-      $('#message').html(message.body);
-      $('#toast').toast('show');
+    stompClient.subscribe('/topic/todoUpdates', showNotifications);
+
+    // [N]:websocket]:user - Subscribe to the messages of the authenticated user, which the server routes to the sessions of that user only (see WebSocketConfig)
+    stompClient.subscribe('/user/queue/todoUpdates', showNotifications);
+
+    // [N]:websocket]:notification - Subscribe to the changes of the todos of the authenticated user, which patch the rows of the dashboard in place
+    stompClient.subscribe('/user/queue/todoChanges', function (message) {
+      JSON.parse(message.body).forEach(applyTodoChange);
+    });
+  });
+}
+
+/**
+ * [N]:websocket]:notification - Shows the notifications of a frame in a single toast, one per line. The server coalesces the notifications of a burst into a JSON array (see NotificationPipeline).
+ */
+function showNotifications(message) {
+  const notifications = JSON.parse(message.body);
+
+  $('#message').empty().append(notifications.map(notification => $('<div>').text(notification)));
+  $('#toast').toast('show');
+}
+
+/**
+ * [N]:websocket]:notification - Applies a change of a todo (see TodoChange) to its row of the dashboard, if displayed: a deleted todo's row is removed, the row of an updated todo is patched, and the row of a new todo, or of a todo newly shared with the user, is inserted. A RESYNC replaces the changes of a burst too large to be sent, the rows are reloaded instead.
+ */
+function applyTodoChange(change) {
+  const rows = $('#todo-rows');
+  const row = rows.children('tr[data-todo-id="' + change.id + '"]');
+
+  if (change.type === 'RESYNC') {
+    reloadTodoRows(rows);
+  } else if (change.type === 'DELETED') {
+    row.remove();
+  } else if (row.length > 0) {
+    row.find('[data-todo-field]').each(function () {
+      $(this).text(change[$(this).data('todo-field')] ?? '');
     });
+  } else if (change.type !== 'UPDATED' && rows.data('live-inserts')) {
+    insertTodoRow(rows, change);
+  }
+}
 
-    if (email) {
-      // [N] Subscribe to a channel specific to the authenticated user (email)
-      stompClient.subscribe('/topic/todoUpdates/' + email, function (message) {
-        $('#message').html(message.body);
-        $('#toast').toast('show');
-      });
+/**
+ * Reloads the first page of the dashboard's rows, or the whole page of the search results.
+ */
+function reloadTodoRows(rows) {
+  if (rows.length === 0) {
+    return;
+  }
+  if (!rows.data('live-inserts')) {
+    window.location.reload();
+    return;
+  }
+
+  $.get('/dashboard/todos/rows', function (html) {
+    rows.html(html);
+    observeLoadMoreRow();
+  });
+}
+
+/**
+ * Renders the row of a new todo with the keyset endpoint of the "load more" button, asking for the single row at the todo's position, and inserts it in the order of the dashboard: owned todos first, by id. A todo beyond the rows loaded so far is left to the "load more" button.
+ */
+function insertTodoRow(rows, change) {
+  const isAfter = (row) => row.data('todo-collaboration') === change.collaboration ? row.data('todo-id') > change.id : row.data('todo-collaboration');
+  const nextRow = rows.children('tr[data-todo-id]').filter(function () {
+    return isAfter($(this));
+  }).first();
+
+  if (nextRow.length === 0 && $('#load-more-row').length > 0) {
+    return;
+  }
+
+  $.get('/dashboard/todos/rows', {afterShared: change.collaboration, afterId: change.id - 1, size: 1}, function (html) {
+    const newRow = $(html).filter('tr[data-todo-id="' + change.id + '"]');
+
+    if (newRow.length === 0 || rows.children('tr[data-todo-id="' + change.id + '"]').length > 0) {
+      return;
+    }
+    if (nextRow.length > 0 && $.contains(rows[0], nextRow[0])) {
+      newRow.insertBefore(nextRow);
+    } else if ($('#load-more-row').length > 0) {
+      newRow.insertBefore('#load-more-row');
+    } else {
+      rows.append(newRow);
     }
   });
 }
@@ -0,0 +1,275 @@
+package dev.stratospheric.todoapp;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import dev.stratospheric.todoapp.collaboration.TodoCollaborationRequestRepository;
+import dev.stratospheric.todoapp.outbox.OutboxMessageRepository;
+import dev.stratospheric.todoapp.person.PersonRepository;
+import dev.stratospheric.todoapp.todo.TodoRepository;
+import jakarta.persistence.EntityManager;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Verifies with {@code EXPLAIN} that the queries of the repositories are served by indexes (see {@code V005__ADD_HOT_QUERY_INDEXES.sql} and {@code V007__ADD_TODO_SEARCH_VECTOR.sql}) once the tables hold a realistic amount of data.<p/>
+ * Each case calls the repositories like the application does, and every statement Hibernate sends for it is captured, along with its parameters, at the JDBC level. The plans are those of these statements, with the parameters inlined.
+ */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class HotQueryIndexesTest {
+
+  static final int PERSONS = 10_000;
+  static final int TODOS = 100_000;
+  static final int OUTBOX_MESSAGES = 10_000;
+
+  private static final String EMAIL = "user42@stratospheric.dev";
+
+  @Container
+  static PostgreSQLContainer<?> database = new PostgreSQLContainer<>("postgres:12.9");
+
+  private static DataSource dataSource;
+
+  private static final List<CapturedStatement> capturedStatements = new ArrayList<>();
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private TodoCollaborationRequestRepository todoCollaborationRequestRepository;
+
+  @Autowired
+  private OutboxMessageRepository outboxMessageRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @DynamicPropertySource
+  static void databaseProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", database::getJdbcUrl);
+    registry.add("spring.datasource.username", database::getUsername);
+    registry.add("spring.datasource.password", database::getPassword);
+  }
+
+  @BeforeAll
+  static void migrateAndSeed() throws SQLException {
+    dataSource = migrateAndSeed(database.getJdbcUrl(), database.getUsername(), database.getPassword());
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("hotQueries")
+  void shouldNotScanWholeTables(String query, Consumer<HotQueryIndexesTest> call) throws SQLException {
+    capturedStatements.clear();
+    call.accept(this);
+    entityManager.flush();
+
+    assertFalse(capturedStatements.isEmpty(), () -> query + " didn't send any statement");
+    for (CapturedStatement statement : capturedStatements) {
+      String plan = explain(dataSource, statement.inlined());
+
+      assertFalse(plan.contains("Seq Scan"), () -> query + " scans a whole table:\n" + statement.inlined() + "\n" + plan);
+    }
+  }
+
+  static DataSource migrateAndSeed(String jdbcUrl, String username, String password) throws SQLException {
+    Flyway flyway = Flyway.configure()
+      .dataSource(jdbcUrl, username, password)
+      .locations("classpath:db/migration/postgresql")
+      .load();
+    flyway.migrate();
+
+    DataSource dataSource = flyway.getConfiguration().getDataSource();
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("""
+        insert into person (email, name)
+        select 'user' || i || '@stratospheric.dev', 'user' || i
+        from generate_series(1, %1$d) i
+        """.formatted(PERSONS));
+      statement.execute("""
+        insert into todo (id, title, description, due_date, priority, status, owner_id)
+        select i, 'Todo ' || i, 'Description ' || i, current_date + i %% 30, 2, 'OPEN', i %% %1$d + 1
+        from generate_series(1, %2$d) i
+        """.formatted(PERSONS, TODOS));
+      // The ids are given explicitly, as the sequence hands them out in steps of 50 (see V006__USE_POOLED_SEQUENCES.sql)
+      statement.execute("select setval('todo_id_seq', %d)".formatted(TODOS));
+      statement.execute("""
+        insert into todo_collaboration (todo_id, collaborator_id)
+        select t.id, (t.owner_id %% %1$d) + 1
+        from todo t
+        where t.id %% 2 = 0
+        """.formatted(PERSONS));
+      statement.execute("""
+        insert into todo_collaboration_request (todo_id, collaborator_id, token)
+        select t.id, ((t.owner_id + 1) %% %1$d) + 1, md5(t.id::text)
+        from todo t
+        where t.id %% 5 = 0
+        """.formatted(PERSONS));
+      statement.execute("insert into note (content, todo_id) select 'Note', id from todo where id % 10 = 0");
+      statement.execute("insert into reminder (due_date, todo_id) select due_date, id from todo where id % 10 = 0");
+      // A backlog of messages, e.g. while SQS is unavailable, some of them unreadable
+      statement.execute("""
+        insert into outbox_message (queue_name, payload_type, payload, created_at, failed_at)
+        select 'queue', 'type', '{}', now(), case when i %% 100 = 0 then now() end
+        from generate_series(1, %d) i
+        """.formatted(OUTBOX_MESSAGES));
+      statement.execute("analyze");
+    }
+
+    return dataSource;
+  }
+
+  static Stream<Arguments> hotQueries() {
+    return Stream.of(
+      hotQuery("TodoRepository#findAllByOwnerEmailOrderByIdAsc", test -> test.todoRepository.findAllByOwnerEmailOrderByIdAsc(EMAIL)),
+      hotQuery("TodoRepository#findAllByCollaboratorsEmailOrderByIdAsc", test -> test.todoRepository.findAllByCollaboratorsEmailOrderByIdAsc(EMAIL)),
+      hotQuery("TodoRepository#findByIdAndOwnerEmail", test -> test.todoRepository.findByIdAndOwnerEmail(42L, EMAIL)),
+      hotQuery("TodoRepository#findAllOwnedAndSharedSummaries", test -> test.todoRepository.findAllOwnedAndSharedSummaries(EMAIL)),
+      hotQuery("TodoRepository#findOwnedAndSharedSummariesAfter", test -> test.todoRepository.findOwnedAndSharedSummariesAfter(EMAIL, true, 50_000, 20)),
+      hotQuery("TodoRepository#findAccess", test -> test.todoRepository.findAccess(42, EMAIL)),
+      hotQuery("TodoRepository#searchOwnedAndSharedSummaries", test -> test.todoRepository.searchOwnedAndSharedSummaries(EMAIL, "description", 26, 0)),
+      hotQuery("TodoRepository#searchOwnedAndSharedSummaries (rare term)", test -> test.todoRepository.searchOwnedAndSharedSummaries(EMAIL, "42", 26, 0)),
+      hotQuery("TodoCollaborationRequestRepository#findByTodoIdAndCollaboratorId", test -> test.todoCollaborationRequestRepository.findByTodoIdAndCollaboratorId(42L, 44L)),
+      hotQuery("PersonRepository#findByEmail", test -> test.personRepository.findByEmail(EMAIL)),
+      hotQuery("PersonRepository#findByName", test -> test.personRepository.findByName("user42")),
+      // As called by DashboardService#searchCollaborators
+      hotQuery("PersonRepository#findByNameStartingWithIgnoreCaseAndEmailNot", test -> test.personRepository.findByNameStartingWithIgnoreCaseAndEmailNot(
+        "user123", EMAIL, PageRequest.of(0, 10, Sort.by("name")))),
+      hotQuery("OutboxMessageRepository#lockNextMessages", test -> test.outboxMessageRepository.lockNextMessages(Instant.now(), 10)),
+      // The orphan removal of the notes, reminders, collaborations and collaboration requests
+      hotQuery("TodoRepository#deleteById", test -> test.todoRepository.deleteById(40L))
+    );
+  }
+
+  private static Arguments hotQuery(String query, Consumer<HotQueryIndexesTest> call) {
+    return Arguments.of(query, call);
+  }
+
+  static String explain(DataSource dataSource, String sql) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet plan = statement.executeQuery("explain " + sql)) {
+      StringBuilder lines = new StringBuilder();
+      while (plan.next()) {
+        lines.append(plan.getString(1)).append('\n');
+      }
+      return lines.toString();
+    }
+  }
+
+  /**
+   * A statement prepared by Hibernate, with the parameters last bound to it by index.
+   */
+  record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+
+    String inlined() {
+      StringBuilder inlined = new StringBuilder();
+      int parameterIndex = 1;
+      for (char character : sql.toCharArray()) {
+        inlined.append(character == '?' ? literal(parameters.get(parameterIndex++)) : String.valueOf(character));
+      }
+      return inlined.toString();
+    }
+
+    private static String literal(Object value) {
+      if (value == null) {
+        return "null";
+      }
+      if (value instanceof Number || value instanceof Boolean) {
+        return value.toString();
+      }
+      return "'" + value.toString().replace("'", "''") + "'";
+    }
+  }
+
+  /**
+   * Records the statements prepared through the {@link DataSource} of the application context.
+   */
+  @TestConfiguration
+  static class StatementCaptureConfig {
+
+    @Bean
+    static BeanPostProcessor statementCapturingDataSourcePostProcessor() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          return bean instanceof DataSource target ? proxy(DataSource.class, target, StatementCaptureConfig::captureConnections) : bean;
+        }
+      };
+    }
+
+    private static Object captureConnections(Object target, Method method, Object[] args) throws Throwable {
+      Object result = invoke(target, method, args);
+      return result instanceof Connection connection ? proxy(Connection.class, connection, StatementCaptureConfig::captureStatements) : result;
+    }
+
+    private static Object captureStatements(Object target, Method method, Object[] args) throws Throwable {
+      Object result = invoke(target, method, args);
+      if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement preparedStatement) {
+        CapturedStatement statement = new CapturedStatement((String) args[0], new TreeMap<>());
+        capturedStatements.add(statement);
+        return proxy(PreparedStatement.class, preparedStatement, (preparedTarget, preparedMethod, preparedArgs) -> {
+          if (preparedMethod.getDeclaringClass() == PreparedStatement.class && preparedMethod.getName().startsWith("set") && preparedArgs.length >= 2) {
+            statement.parameters().put((Integer) preparedArgs[0], preparedMethod.getName().equals("setNull") ? null : preparedArgs[1]);
+          }
+          return invoke(preparedTarget, preparedMethod, preparedArgs);
+        });
+      }
+      return result;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Interception interception) {
+      return type.cast(Proxy.newProxyInstance(HotQueryIndexesTest.class.getClassLoader(), new Class<?>[]{type},
+        (proxy, method, args) -> interception.invoke(target, method, args)));
+    }
+
+    @FunctionalInterface
+    private interface Interception {
+      Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package dev.stratospheric.todoapp;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import dev.stratospheric.todoapp.person.Person;
+import dev.stratospheric.todoapp.person.PersonRepository;
+import dev.stratospheric.todoapp.todo.Priority;
+import dev.stratospheric.todoapp.todo.Status;
+import dev.stratospheric.todoapp.todo.Todo;
+import dev.stratospheric.todoapp.todo.TodoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "custom.hibernate-cache.enabled=true")
+class SecondLevelCacheIntegrationTest extends AbstractDevIntegrationTest {
+
+  private static final String COLLABORATORS = Todo.class.getName() + ".collaborators";
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private SessionFactory sessionFactory;
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    statistics = sessionFactory.getStatistics();
+  }
+
+  @Test
+  void shouldReadCollaboratorsFromCacheOnceLoaded() {
+    Person owner = givenPerson();
+    Person collaborator = givenPerson();
+    long todoId = givenTodo(owner, collaborator);
+
+    collaboratorNamesOf(todoId);
+    statistics.clear();
+    List<String> collaborators = collaboratorNamesOf(todoId);
+
+    assertEquals(List.of(collaborator.getName()), collaborators);
+    assertEquals(0, statistics.getCollectionLoadCount());
+    assertEquals(1, statistics.getCollectionStatistics(COLLABORATORS).getCacheHitCount());
+    assertTrue(statistics.getDomainDataRegionStatistics("person").getHitCount() > 0);
+  }
+
+  @Test
+  void shouldInvalidateCachedCollaboratorsWhenAddingCollaborator() {
+    Person owner = givenPerson();
+    Person collaborator = givenPerson();
+    Person otherCollaborator = givenPerson();
+    long todoId = givenTodo(owner, collaborator);
+    collaboratorNamesOf(todoId);
+
+    transactionTemplate.executeWithoutResult(status ->
+      todoRepository.findById(todoId).orElseThrow().addCollaborator(personRepository.getReferenceById(otherCollaborator.getId())));
+
+    assertEquals(Set.of(collaborator.getName(), otherCollaborator.getName()), Set.copyOf(collaboratorNamesOf(todoId)));
+  }
+
+  @Test
+  void shouldEvictCachedCollaboratorsWhenDeletingTodo() {
+    Person owner = givenPerson();
+    long todoId = givenTodo(owner, givenPerson());
+    collaboratorNamesOf(todoId);
+    assertTrue(sessionFactory.getCache().containsCollection(COLLABORATORS, todoId));
+
+    statistics.clear();
+
+    transactionTemplate.executeWithoutResult(status -> todoRepository.deleteById(todoId));
+
+    assertEquals(1, statistics.getCollectionStatistics(COLLABORATORS).getRemoveCount());
+    assertEquals(0, statistics.getCollectionStatistics(COLLABORATORS).getCacheHitCount());
+    assertFalse(todoRepository.findById(todoId).isPresent());
+  }
+
+  @Test
+  void shouldPublishCacheStatistics() {
+    collaboratorNamesOf(givenTodo(givenPerson(), givenPerson()));
+
+    assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tags("region", "todo-collaborators", "result", "hit").functionCounter());
+    assertNotNull(meterRegistry.find("hibernate.cache.query.requests").functionCounter());
+    assertNull(meterRegistry.find("hibernate.sessions.open").meter());
+  }
+
+  private Person givenPerson() {
+    String name = "person-" + UUID.randomUUID();
+    Person person = new Person();
+    person.setName(name);
+    person.setEmail(name + "@stratospheric.dev");
+    return personRepository.save(person);
+  }
+
+  private long givenTodo(Person owner, Person collaborator) {
+    return transactionTemplate.execute(status -> {
+      Todo todo = new Todo();
+      todo.setTitle("Cached todo");
+      todo.setDueDate(LocalDate.now().plusDays(42));
+      todo.setStatus(Status.OPEN);
+      todo.setPriority(Priority.DEFAULT);
+      todo.setOwner(personRepository.getReferenceById(owner.getId()));
+      todo.getCollaborators().add(personRepository.getReferenceById(collaborator.getId()));
+      return todoRepository.save(todo).getId();
+    });
+  }
+
+  private List<String> collaboratorNamesOf(long todoId) {
+    return transactionTemplate.execute(status -> todoRepository.findById(todoId).orElseThrow()
+      .getCollaborators()
+      .stream()
+      .map(Person::getName)
+      .toList());
+  }
+}
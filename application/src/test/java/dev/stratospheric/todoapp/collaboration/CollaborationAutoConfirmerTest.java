@@ -0,0 +1,94 @@
+package dev.stratospheric.todoapp.collaboration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class CollaborationAutoConfirmerTest {
+
+  private final TodoCollaborationService todoCollaborationService = mock(TodoCollaborationService.class);
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void shouldConfirmAfterTheDelayWithoutBlockingTheCaller() {
+    CollaborationAutoConfirmer autoConfirmer = new CollaborationAutoConfirmer(todoCollaborationService, meterRegistry, Duration.ofSeconds(2), 1);
+
+    long start = System.nanoTime();
+    autoConfirmer.scheduleConfirmation(givenNotification(1L));
+    autoConfirmer.scheduleConfirmation(givenNotification(2L));
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+    assertEquals(2, meterRegistry.get("stratospheric.collaboration.auto-confirmations.pending").gauge().value());
+    verifyNoInteractions(todoCollaborationService);
+  }
+
+  @Test
+  void shouldCountFiredAndFailedConfirmations() throws Exception {
+    CollaborationAutoConfirmer autoConfirmer = new CollaborationAutoConfirmer(todoCollaborationService, meterRegistry, Duration.ofMillis(10), 1);
+    given(todoCollaborationService.confirmCollaboration(anyString(), eq(1L), anyLong(), anyString())).willReturn(true);
+    given(todoCollaborationService.confirmCollaboration(anyString(), eq(2L), anyLong(), anyString())).willReturn(false);
+    given(todoCollaborationService.confirmCollaboration(anyString(), eq(3L), anyLong(), anyString())).willThrow(new IllegalArgumentException());
+
+    autoConfirmer.scheduleConfirmation(givenNotification(1L));
+    autoConfirmer.scheduleConfirmation(givenNotification(2L));
+    autoConfirmer.scheduleConfirmation(givenNotification(3L));
+    awaitConfirmations(autoConfirmer);
+
+    assertEquals(1, meterRegistry.get("stratospheric.collaboration.auto-confirmations").tag("outcome", "fired").counter().count());
+    assertEquals(2, meterRegistry.get("stratospheric.collaboration.auto-confirmations").tag("outcome", "failed").counter().count());
+    assertEquals(0, meterRegistry.get("stratospheric.collaboration.auto-confirmations.pending").gauge().value());
+  }
+
+  @Test
+  void shouldDropTheDelayedConfirmationsOnShutdown() throws Exception {
+    CollaborationAutoConfirmer autoConfirmer = new CollaborationAutoConfirmer(todoCollaborationService, meterRegistry, Duration.ofSeconds(2), 1);
+    autoConfirmer.scheduleConfirmation(givenNotification(1L));
+
+    autoConfirmer.shutdown();
+
+    assertTrue(autoConfirmer.awaitTermination(Duration.ofSeconds(1)));
+    verifyNoInteractions(todoCollaborationService);
+    assertEquals(0, meterRegistry.get("stratospheric.collaboration.auto-confirmations.pending").gauge().value());
+  }
+
+  @Test
+  void shouldNotCountTheConfirmationsRejectedOnceShutDown() {
+    CollaborationAutoConfirmer autoConfirmer = new CollaborationAutoConfirmer(todoCollaborationService, meterRegistry, Duration.ofSeconds(2), 1);
+    autoConfirmer.shutdown();
+
+    assertThrows(RejectedExecutionException.class, () -> autoConfirmer.scheduleConfirmation(givenNotification(1L)));
+
+    assertEquals(0, meterRegistry.get("stratospheric.collaboration.auto-confirmations.pending").gauge().value());
+  }
+
+  private void awaitConfirmations(CollaborationAutoConfirmer autoConfirmer) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (meterRegistry.get("stratospheric.collaboration.auto-confirmations.pending").gauge().value() > 0) {
+      assertTrue(System.nanoTime() < deadline, "The confirmations didn't run");
+      Thread.sleep(10);
+    }
+    autoConfirmer.shutdown();
+  }
+
+  private TodoCollaborationNotification givenNotification(Long todoId) {
+    TodoCollaborationNotification notification = new TodoCollaborationNotification();
+    notification.setTodoId(todoId);
+    notification.setCollaboratorId(42L);
+    notification.setCollaboratorEmail("collaborator@stratospheric.dev");
+    notification.setToken("token");
+    return notification;
+  }
+}
@@ -0,0 +1,22 @@
+package dev.stratospheric.todoapp.collaboration;
+
+import dev.stratospheric.todoapp.notification.NotificationPipeline;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class CollaborationConfirmedNotifierTest {
+
+  private final NotificationPipeline notificationPipeline = mock(NotificationPipeline.class);
+  private final CollaborationConfirmedNotifier notifier = new CollaborationConfirmedNotifier(notificationPipeline);
+
+  @Test
+  void shouldSendMessageToOwner() {
+    notifier.notifyOwner(new CollaborationConfirmedEvent(this, "owner@stratospheric.dev", "Collaboration confirmed."));
+
+    verify(notificationPipeline).sendToUser("owner@stratospheric.dev", "/queue/todoUpdates", "Collaboration confirmed.");
+    verifyNoMoreInteractions(notificationPipeline);
+  }
+}
@@ -0,0 +1,67 @@
+package dev.stratospheric.todoapp.collaboration;
+
+import io.awspring.cloud.sqs.listener.acknowledgement.BatchAcknowledgement;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class TodoSharingListenerTest {
+
+  private final MailSender mailSender = mock(MailSender.class);
+  private final CollaborationAutoConfirmer collaborationAutoConfirmer = mock(CollaborationAutoConfirmer.class);
+
+  private final TodoSharingListener todoSharingListener = new TodoSharingListener(
+    mailSender,
+    collaborationAutoConfirmer,
+    false,
+    "noreply@stratospheric.dev",
+    "http://localhost:8080",
+    Executors.newFixedThreadPool(4));
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldAcknowledgeOnlyTheMessagesWhoseEmailWasSent() {
+    List<Message<TodoCollaborationNotification>> messages = givenMessages(10);
+    BatchAcknowledgement<TodoCollaborationNotification> acknowledgement = mock(BatchAcknowledgement.class);
+
+    willThrow(new MailSendException("throttled"))
+      .given(mailSender)
+      .send(argThat((SimpleMailMessage message) -> message.getTo()[0].equals("collaborator-3@stratospheric.dev")));
+
+    todoSharingListener.listenToSharingMessages(messages, acknowledgement);
+
+    verify(mailSender, times(10)).send(any(SimpleMailMessage.class));
+    List<Message<TodoCollaborationNotification>> expected = new ArrayList<>(messages);
+    expected.remove(3);
+    verify(acknowledgement).acknowledge(expected);
+    verifyNoInteractions(collaborationAutoConfirmer);
+  }
+
+  private List<Message<TodoCollaborationNotification>> givenMessages(int amount) {
+    List<Message<TodoCollaborationNotification>> messages = new ArrayList<>();
+
+    for (long i = 0; i < amount; i++) {
+      TodoCollaborationNotification notification = new TodoCollaborationNotification();
+      notification.setTodoId(i);
+      notification.setCollaboratorEmail("collaborator-" + i + "@stratospheric.dev");
+      messages.add(MessageBuilder.withPayload(notification).build());
+    }
+
+    return messages;
+  }
+}
@@ -0,0 +1,186 @@
+package dev.stratospheric.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedExecutorsTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private BoundedExecutors boundedExecutors;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    release.countDown();
+    boundedExecutors.shutdown();
+  }
+
+  @Test
+  void shouldRunOnTheCallerWhenSaturated() {
+    TaskExecutor executor = givenSaturatedExecutor(SaturationPolicy.CALLER_RUNS);
+    List<String> threads = new CopyOnWriteArrayList<>();
+
+    executor.execute(() -> threads.add(Thread.currentThread().getName()));
+
+    assertEquals(List.of(Thread.currentThread().getName()), threads);
+    assertRejectedTasks(1);
+  }
+
+  @Test
+  void shouldDropTheOldestTaskWhenSaturated() throws InterruptedException {
+    TaskExecutor executor = givenSaturatedExecutor(SaturationPolicy.DROP_OLDEST);
+    List<String> executed = new CopyOnWriteArrayList<>();
+    CountDownLatch newest = new CountDownLatch(1);
+
+    executor.execute(() -> {
+      executed.add("newest");
+      newest.countDown();
+    });
+    release.countDown();
+    newest.await();
+
+    assertEquals(List.of("newest"), executed);
+    assertRejectedTasks(1);
+  }
+
+  @Test
+  void shouldRejectWhenSaturated() {
+    TaskExecutor executor = givenSaturatedExecutor(SaturationPolicy.REJECT);
+
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+    }));
+    assertRejectedTasks(1);
+  }
+
+  @Test
+  void shouldDescribeTheExecutorsOnTheActuatorEndpoint() {
+    givenSaturatedExecutor(SaturationPolicy.REJECT);
+
+    ExecutorsEndpoint.ExecutorDescriptor descriptor = givenEndpoint().executors().get("test");
+
+    assertEquals(SaturationPolicy.REJECT, descriptor.getSaturationPolicy());
+    assertEquals(1, descriptor.getActiveThreads());
+    assertEquals(1, descriptor.getQueueSize());
+    assertEquals(0, descriptor.getQueueRemainingCapacity());
+    assertEquals(1, meterRegistry.get("executor.queued").tag("name", "test").gauge().value());
+  }
+
+  @Test
+  void shouldDescribeTheBuffersDrainedByAnExecutor() {
+    givenSaturatedExecutor(SaturationPolicy.REJECT);
+
+    ExecutorsEndpoint.BufferDescriptor descriptor = givenEndpoint(new ExecutorBuffer() {
+      @Override
+      public String getExecutorName() {
+        return "test";
+      }
+
+      @Override
+      public int getSize() {
+        return 7;
+      }
+
+      @Override
+      public int getRemainingCapacity() {
+        return 3;
+      }
+
+      @Override
+      public long getDroppedItems() {
+        return 2;
+      }
+    }).executors().get("test").getBuffers().get(0);
+
+    assertEquals(7, descriptor.getSize());
+    assertEquals(3, descriptor.getRemainingCapacity());
+    assertEquals(2, descriptor.getDroppedItems());
+  }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_21)
+  void shouldDescribeTheTasksWaitingForTheConcurrencyLimitOfAVirtualExecutor() throws InterruptedException {
+    boundedExecutors = new BoundedExecutors(new CustomConfigurationProperties(), meterRegistry);
+    TaskExecutor executor = boundedExecutors.createVirtual("test", 1);
+    CountDownLatch started = new CountDownLatch(1);
+    executor.execute(() -> {
+      started.countDown();
+      awaitRelease();
+    });
+    started.await();
+    Thread waiting = new Thread(() -> executor.execute(this::awaitRelease));
+    waiting.start();
+    while (meterRegistry.get("executor.queued").tag("name", "test").gauge().value() < 1) {
+      Thread.onSpinWait();
+    }
+
+    ExecutorsEndpoint.ExecutorDescriptor descriptor = givenEndpoint().executors().get("test");
+
+    assertEquals(1, descriptor.getConcurrencyLimit());
+    assertEquals(1, descriptor.getActiveThreads());
+    assertEquals(1, descriptor.getQueueSize());
+    release.countDown();
+    waiting.join();
+  }
+
+  /**
+   * An executor with one thread and a queue of one, both occupied by tasks waiting for {@code release}.
+   */
+  private TaskExecutor givenSaturatedExecutor(SaturationPolicy saturationPolicy) {
+    CustomConfigurationProperties.ExecutorPool pool = new CustomConfigurationProperties.ExecutorPool();
+    pool.setPoolSize(1);
+    pool.setQueueCapacity(1);
+    pool.setSaturationPolicy(saturationPolicy);
+    CustomConfigurationProperties properties = new CustomConfigurationProperties();
+    properties.getExecutors().put("test", pool);
+    boundedExecutors = new BoundedExecutors(properties, meterRegistry);
+
+    TaskExecutor executor = boundedExecutors.create("test");
+    CountDownLatch started = new CountDownLatch(1);
+    executor.execute(() -> {
+      started.countDown();
+      awaitRelease();
+    });
+    executor.execute(this::awaitRelease);
+    try {
+      started.await();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    return executor;
+  }
+
+  private ExecutorsEndpoint givenEndpoint(ExecutorBuffer... executorBuffers) {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    for (int i = 0; i < executorBuffers.length; i++) {
+      beanFactory.addBean("executorBuffer" + i, executorBuffers[i]);
+    }
+    return new ExecutorsEndpoint(boundedExecutors, beanFactory.getBeanProvider(ExecutorBuffer.class));
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void assertRejectedTasks(double expected) {
+    assertEquals(expected, meterRegistry.get("stratospheric.executor.rejected").tag("name", "test").counter().count());
+  }
+}
@@ -0,0 +1,107 @@
+package dev.stratospheric.todoapp.config;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.netty.Connection;
+import reactor.netty.tcp.TcpClient;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BrokerAddressSelectorTest {
+
+  private static final InetSocketAddress ACTIVE = InetSocketAddress.createUnresolved("b-1.mq.eu-central-1.amazonaws.com", 61614);
+  private static final InetSocketAddress STANDBY = InetSocketAddress.createUnresolved("b-2.mq.eu-central-1.amazonaws.com", 61614);
+
+  private final MockClock clock = new MockClock();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+  private final BrokerAddressSelector selector = new BrokerAddressSelector(List.of(ACTIVE, STANDBY), Duration.ofSeconds(1), Duration.ofSeconds(5), meterRegistry);
+
+  @Test
+  void shouldTakeBrokersInTurn() {
+    assertEquals(List.of(ACTIVE, STANDBY, ACTIVE, STANDBY), List.of(selector.next(), selector.next(), selector.next(), selector.next()));
+  }
+
+  @Test
+  void shouldSkipBrokerUntilItsBackOffEnds() {
+    selector.connectFailed(STANDBY, 0);
+
+    assertEquals(List.of(ACTIVE, ACTIVE, ACTIVE), List.of(selector.next(), selector.next(), selector.next()));
+    assertEquals(0, meterRegistry.get("stratospheric.stomp.relay.available").tag("broker", "b-2.mq.eu-central-1.amazonaws.com:61614").gauge().value());
+
+    clock.add(Duration.ofSeconds(1));
+
+    assertEquals(List.of(STANDBY, ACTIVE), List.of(selector.next(), selector.next()));
+  }
+
+  @Test
+  void shouldDoubleBackOffUpToMaximumAndResetItOnSuccess() {
+    for (int i = 0; i < 4; i++) {
+      selector.connectFailed(STANDBY, 0);
+    }
+    clock.add(Duration.ofSeconds(4));
+    assertEquals(List.of(ACTIVE, ACTIVE), List.of(selector.next(), selector.next()));
+    clock.add(Duration.ofSeconds(1));
+    assertEquals(List.of(ACTIVE, STANDBY), List.of(selector.next(), selector.next()));
+
+    selector.connectSucceeded(STANDBY, 0);
+    selector.connectFailed(STANDBY, 0);
+    clock.add(Duration.ofSeconds(1));
+
+    assertEquals(List.of(ACTIVE, STANDBY), List.of(selector.next(), selector.next()));
+  }
+
+  @Test
+  void shouldTryBrokerWhoseBackOffEndsFirstWhenAllAreBackingOff() {
+    selector.connectFailed(ACTIVE, 0);
+    selector.connectFailed(STANDBY, 0);
+    selector.connectFailed(STANDBY, 0);
+
+    assertEquals(List.of(ACTIVE, ACTIVE), List.of(selector.next(), selector.next()));
+  }
+
+  @Test
+  void shouldRequireAnAddress() {
+    assertThrows(IllegalArgumentException.class, () -> new BrokerAddressSelector(List.of(), Duration.ofSeconds(1), Duration.ofSeconds(5), meterRegistry));
+  }
+
+  @Test
+  void shouldMeasureConnectionsPerBroker() throws IOException {
+    try (ServerSocket broker = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      InetSocketAddress available = InetSocketAddress.createUnresolved("127.0.0.1", broker.getLocalPort());
+      InetSocketAddress down = InetSocketAddress.createUnresolved("127.0.0.1", unusedPort());
+      BrokerAddressSelector selector = new BrokerAddressSelector(List.of(down, available), Duration.ofMinutes(1), Duration.ofMinutes(1), new SimpleMeterRegistry());
+      TcpClient tcpClient = TcpClient.create()
+        .remoteAddress(selector::next)
+        .doOnChannelInit(selector::onChannelInit);
+
+      assertThrows(Exception.class, tcpClient::connectNow);
+      Connection connection = tcpClient.connectNow();
+
+      assertEquals(available, selector.next());
+      assertEquals(1, selector.getOpenConnections(available));
+      assertEquals(0, selector.getOpenConnections(down));
+
+      connection.disposeNow();
+      // the listeners of the close future run on the event loop, before any task submitted afterwards
+      connection.channel().eventLoop().submit(() -> { }).syncUninterruptibly();
+
+      assertEquals(0, selector.getOpenConnections(available));
+    }
+  }
+
+  private static int unusedPort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package dev.stratospheric.todoapp.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ConnectionLimitingDataSourceTest {
+
+  private final DataSource targetDataSource = mock(DataSource.class);
+  private final ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(targetDataSource, 2, Duration.ofMillis(50));
+
+  @Test
+  void shouldFailWhenAllConnectionsAreInUse() throws SQLException {
+    given(targetDataSource.getConnection()).willAnswer(invocation -> mock(Connection.class));
+
+    dataSource.getConnection();
+    dataSource.getConnection();
+
+    assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+  }
+
+  @Test
+  void shouldHandTheConnectionToAWaitingThreadOnceClosed() throws Exception {
+    ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(targetDataSource, 1, Duration.ofSeconds(5));
+    given(targetDataSource.getConnection()).willAnswer(invocation -> mock(Connection.class));
+    Connection connection = dataSource.getConnection();
+
+    CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+      try {
+        return dataSource.getConnection();
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    while (dataSource.getWaitingThreads() == 0) {
+      Thread.onSpinWait();
+    }
+    assertFalse(waiting.isDone());
+
+    connection.close();
+
+    assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+    assertEquals(0, dataSource.getWaitingThreads());
+  }
+
+  @Test
+  void shouldReleaseTheConnectionOnceWhenClosed() throws SQLException {
+    Connection targetConnection = mock(Connection.class);
+    given(targetDataSource.getConnection()).willReturn(targetConnection);
+
+    Connection connection = dataSource.getConnection();
+    connection.close();
+    connection.close();
+    dataSource.getConnection();
+    dataSource.getConnection();
+
+    verify(targetConnection, times(2)).close();
+    assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+  }
+
+  @Test
+  void shouldReleaseThePermitWhenTheTargetFails() throws SQLException {
+    given(targetDataSource.getConnection()).willThrow(new SQLException("database is down"));
+
+    assertThrows(SQLException.class, dataSource::getConnection);
+    assertThrows(SQLException.class, dataSource::getConnection);
+    assertThrows(SQLException.class, dataSource::getConnection);
+    assertEquals(0, dataSource.getWaitingThreads());
+  }
+
+  @Test
+  void shouldCompareConnectionsByIdentity() throws SQLException {
+    given(targetDataSource.getConnection()).willReturn(mock(Connection.class));
+
+    Connection connection = dataSource.getConnection();
+
+    assertEquals(connection, connection);
+    assertNotEquals(connection, dataSource.getConnection());
+  }
+}
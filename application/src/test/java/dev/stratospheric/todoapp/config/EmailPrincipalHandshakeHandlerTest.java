@@ -0,0 +1,52 @@
+package dev.stratospheric.todoapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+class EmailPrincipalHandshakeHandlerTest {
+
+  private final EmailPrincipalHandshakeHandler cut = new EmailPrincipalHandshakeHandler();
+
+  @Test
+  void shouldNameTheWebSocketPrincipalByTheEmailOfTheOidcUser() {
+    OidcIdToken idToken = OidcIdToken.withTokenValue("token")
+      .subject("4b1e7c5a-subject")
+      .claim("email", "duke@stratospheric.dev")
+      .build();
+    OAuth2AuthenticationToken authentication = new OAuth2AuthenticationToken(
+      new DefaultOidcUser(AuthorityUtils.createAuthorityList("OIDC_USER"), idToken), List.of(), "cognito");
+
+    assertEquals("4b1e7c5a-subject", authentication.getName());
+    assertEquals("duke@stratospheric.dev", determineUser(authentication).getName());
+  }
+
+  @Test
+  void shouldKeepOtherPrincipals() {
+    OAuth2AuthenticationToken authentication = new OAuth2AuthenticationToken(
+      new DefaultOAuth2User(AuthorityUtils.createAuthorityList("OAUTH2_USER"), Map.of("sub", "subject"), "sub"), List.of(), "github");
+
+    assertSame(authentication, determineUser(authentication));
+  }
+
+  private Principal determineUser(Principal requestPrincipal) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/websocket");
+    request.setUserPrincipal(requestPrincipal);
+    return cut.determineUser(new ServletServerHttpRequest(request), mock(WebSocketHandler.class), new HashMap<>());
+  }
+}
@@ -0,0 +1,68 @@
+package dev.stratospheric.todoapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserDestinationBroadcastInterceptorTest {
+
+  private static final String BROADCAST = "/topic/user-destination-broadcast";
+  private static final String TO_OWNER = "/user/owner@stratospheric.dev/queue/todoUpdates";
+
+  private final ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+  private final UserDestinationBroadcastInterceptor interceptor = new UserDestinationBroadcastInterceptor("/user/", BROADCAST);
+
+  @Test
+  void shouldBroadcastMessageOfApplicationToUser() {
+    Message<?> broadcast = interceptor.preSend(message(SimpMessageType.MESSAGE, TO_OWNER, null), channel);
+
+    assertEquals(BROADCAST, SimpMessageHeaderAccessor.getDestination(broadcast.getHeaders()));
+    assertEquals(TO_OWNER, NativeMessageHeaderAccessor.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, broadcast.getHeaders()));
+    assertEquals("Collaboration confirmed", broadcast.getPayload());
+  }
+
+  @Test
+  void shouldNotBroadcastMessageAgain() {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setDestination(TO_OWNER);
+    accessor.setNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, TO_OWNER);
+    Message<String> message = MessageBuilder.createMessage("Collaboration confirmed", accessor.getMessageHeaders());
+
+    assertSame(message, interceptor.preSend(message, channel));
+  }
+
+  @Test
+  void shouldLetMessagesToTopicsAndBroadcastsFromBrokerThrough() {
+    Message<String> toTopic = message(SimpMessageType.MESSAGE, "/topic/todoUpdates", null);
+    Message<String> fromBroker = message(SimpMessageType.MESSAGE, BROADCAST, StompBrokerRelayMessageHandler.SYSTEM_SESSION_ID);
+    Message<String> subscription = message(SimpMessageType.SUBSCRIBE, "/user/queue/todoUpdates", "session");
+
+    assertSame(toTopic, interceptor.preSend(toTopic, channel));
+    assertSame(fromBroker, interceptor.preSend(fromBroker, channel));
+    assertSame(subscription, interceptor.preSend(subscription, channel));
+  }
+
+  @Test
+  void shouldRefuseClientsTheBroadcastAndUserDestinations() {
+    assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(message(SimpMessageType.SUBSCRIBE, BROADCAST, "session"), channel));
+    assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(message(SimpMessageType.MESSAGE, BROADCAST, "session"), channel));
+    assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(message(SimpMessageType.MESSAGE, TO_OWNER, "session"), channel));
+  }
+
+  private static Message<String> message(SimpMessageType messageType, String destination, String sessionId) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(messageType);
+    accessor.setDestination(destination);
+    accessor.setSessionId(sessionId);
+    return MessageBuilder.createMessage("Collaboration confirmed", accessor.getMessageHeaders());
+  }
+}
@@ -0,0 +1,112 @@
+package dev.stratospheric.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.TaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class VirtualThreadConfigTest {
+
+  private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+    .withUserConfiguration(VirtualThreadConfig.class)
+    .withBean(BoundedExecutors.class, () -> new BoundedExecutors(new CustomConfigurationProperties(), new SimpleMeterRegistry()));
+
+  @Test
+  void shouldOnlyApplyWhenVirtualThreadsAreEnabled() {
+    contextRunner
+      .run(context -> assertFalse(context.containsBean("virtualThreadProtocolHandlerCustomizer")));
+    contextRunner
+      .withPropertyValues("custom.threads.virtual=false")
+      .run(context -> assertFalse(context.containsBean("virtualThreadProtocolHandlerCustomizer")));
+  }
+
+  @Test
+  void shouldLimitTheConnectionsOfTheHikariDataSourceToItsPoolSize() throws SQLException {
+    HikariDataSource hikariDataSource = mock(HikariDataSource.class);
+    given(hikariDataSource.getMaximumPoolSize()).willReturn(2);
+    given(hikariDataSource.getConnectionTimeout()).willReturn(50L);
+    given(hikariDataSource.getConnection()).willAnswer(invocation -> mock(Connection.class));
+
+    Object bean = VirtualThreadConfig.connectionLimitingDataSourcePostProcessor().postProcessAfterInitialization(hikariDataSource, "dataSource");
+
+    DataSource dataSource = assertInstanceOf(ConnectionLimitingDataSource.class, bean);
+    dataSource.getConnection();
+    dataSource.getConnection();
+    assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+  }
+
+  @Test
+  void shouldLeaveOtherBeansAlone() {
+    Object bean = new Object();
+
+    assertSame(bean, VirtualThreadConfig.connectionLimitingDataSourcePostProcessor().postProcessAfterInitialization(bean, "bean"));
+  }
+
+  @Test
+  void shouldPublishTheNumberOfThreadsWaitingForAConnection() {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    DataSource dataSource = new ConnectionLimitingDataSource(mock(DataSource.class), 10, Duration.ofSeconds(1));
+
+    new VirtualThreadConfig().connectionLimitingDataSourceMetrics(dataSource).bindTo(meterRegistry);
+
+    assertEquals(0, meterRegistry.get("stratospheric.jdbc.connections.waiting").gauge().value());
+  }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_21)
+  void shouldRunAsyncTasksOnVirtualThreads() {
+    contextRunner
+      .withPropertyValues("custom.threads.virtual=true")
+      .withBean(HikariDataSource.class)
+      .run(context -> {
+        assertInstanceOf(ConnectionLimitingDataSource.class, context.getBean(DataSource.class));
+
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        context.getBean(TaskExecutor.class).execute(() -> {
+          try {
+            virtual.complete((Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+          } catch (ReflectiveOperationException e) {
+            virtual.completeExceptionally(e);
+          }
+        });
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+      });
+  }
+
+  @Test
+  @EnabledForJreRange(max = JRE.JAVA_20)
+  void shouldFailTheStartupBeforeJava21() {
+    contextRunner
+      .withPropertyValues("custom.threads.virtual=true")
+      .withBean(HikariDataSource.class)
+      .run(context -> {
+        Throwable cause = context.getStartupFailure();
+        while (cause != null && !(cause instanceof IllegalStateException && cause.getMessage().startsWith("Virtual threads require Java 21"))) {
+          cause = cause.getCause();
+        }
+        assertNotNull(cause);
+      });
+  }
+}
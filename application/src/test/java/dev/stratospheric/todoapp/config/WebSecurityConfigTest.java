@@ -0,0 +1,56 @@
+package dev.stratospheric.todoapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class WebSecurityConfigTest {
+
+  private final GrantedAuthoritiesMapper mapper = new WebSecurityConfig(mock(LogoutSuccessHandler.class))
+    .administratorAuthoritiesMapper(Set.of("duke@stratospheric.dev"));
+
+  @Test
+  void shouldGrantTheAdminRoleToAdministrators() {
+    OidcUserAuthority duke = givenOidcUserAuthority("duke@stratospheric.dev", true);
+
+    assertEquals(Set.of("OIDC_USER", "ROLE_ADMIN"), authorities(mapper.mapAuthorities(List.of(duke))));
+  }
+
+  @Test
+  void shouldNotGrantTheAdminRoleToOtherUsers() {
+    OidcUserAuthority tom = givenOidcUserAuthority("tom@stratospheric.dev", true);
+
+    assertEquals(Set.of("OIDC_USER"), authorities(mapper.mapAuthorities(List.of(tom))));
+  }
+
+  @Test
+  void shouldNotGrantTheAdminRoleForAnUnverifiedEmail() {
+    OidcUserAuthority duke = givenOidcUserAuthority("duke@stratospheric.dev", false);
+
+    assertEquals(Set.of("OIDC_USER"), authorities(mapper.mapAuthorities(List.of(duke))));
+  }
+
+  private static OidcUserAuthority givenOidcUserAuthority(String email, boolean emailVerified) {
+    OidcIdToken idToken = OidcIdToken.withTokenValue("token")
+      .subject("subject")
+      .claim("email", email)
+      .claim("email_verified", emailVerified)
+      .build();
+    return new OidcUserAuthority(idToken);
+  }
+
+  private static Set<String> authorities(Collection<? extends GrantedAuthority> authorities) {
+    return AuthorityUtils.authorityListToSet(authorities);
+  }
+}
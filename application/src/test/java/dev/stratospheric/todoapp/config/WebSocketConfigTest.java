@@ -0,0 +1,271 @@
+package dev.stratospheric.todoapp.config;
+
+import dev.stratospheric.todoapp.notification.NotificationPipeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.command.ActiveMQDestination;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebSocketConfigTest {
+
+  private static final String OWNER = "owner@stratospheric.dev";
+  private static final String COLLABORATOR = "collaborator@stratospheric.dev";
+
+  private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+    .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+    .withUserConfiguration(WebSocketConfig.class, EmbeddedMessageBrokerConfig.class)
+    .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+  @TempDir
+  Path dataDirectory;
+
+  @Test
+  void shouldBrokerMessagesInMemoryInSimpleMode() {
+    contextRunner
+      .withPropertyValues("custom.web-socket-broker.mode=SIMPLE")
+      .run(context -> {
+        assertTrue(context.getBean(SimpleBrokerMessageHandler.class).isRunning());
+        assertTrue(context.getBeansOfType(StompBrokerRelayMessageHandler.class).isEmpty());
+        assertTrue(context.getBeansOfType(BrokerService.class).isEmpty());
+        assertTrue(context.getBeansOfType(UserQueueBrokerMessageHandler.class).isEmpty());
+      });
+  }
+
+  @Test
+  void shouldSendToSessionsOfUserInSimpleMode() {
+    contextRunner
+      .withPropertyValues("custom.web-socket-broker.mode=SIMPLE")
+      .run(context -> {
+        BlockingQueue<Message<?>> messagesToClients = captureMessagesToClients(context, SimpMessageType.MESSAGE);
+        connectAndSubscribeToTodoUpdates(context, "owner-session", OWNER);
+        connectAndSubscribeToTodoUpdates(context, "collaborator-session", COLLABORATOR);
+
+        assertTodoUpdate("owner-session", "Collaboration confirmed", sendToOwnerUntilReceived(context, messagesToClients));
+        assertTrue(messagesToClients.stream().allMatch(message -> "owner-session".equals(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))));
+      });
+  }
+
+  @Test
+  void shouldSendWaitingNotificationsBeforeBrokerStops() {
+    contextRunner
+      .withUserConfiguration(NotificationPipeline.class)
+      .withBean("notificationExecutor", Executor.class, () -> Runnable::run)
+      .withPropertyValues("custom.web-socket-broker.mode=SIMPLE", "custom.notifications.coalesce-window=PT1H")
+      .run(context -> {
+        BlockingQueue<Message<?>> messagesToClients = captureMessagesToClients(context, SimpMessageType.MESSAGE);
+        connectAndSubscribeToTodoUpdates(context, "owner-session", OWNER);
+        assertNotNull(sendToOwnerUntilReceived(context, messagesToClients));
+
+        // the broker hands the messages to the client outbound channel, whose interceptors run in its thread
+        BlockingQueue<Message<?>> messagesFromBroker = new LinkedBlockingQueue<>();
+        context.getBean("clientOutboundChannel", AbstractSubscribableChannel.class).addInterceptor(new ChannelInterceptor() {
+          @Override
+          public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+            messagesFromBroker.add(message);
+            return message;
+          }
+        });
+        context.getBean(NotificationPipeline.class).sendToUser(OWNER, "/queue/todoUpdates", "Collaboration confirmed");
+        assertTrue(messagesFromBroker.isEmpty());
+        // whatever the order of their definitions, Spring stops the pipeline before the broker it depends on
+        String pipelineName = context.getBeanNamesForType(NotificationPipeline.class)[0];
+        assertTrue(Set.of(context.getBeanFactory().getDependentBeans("simpleBrokerMessageHandler")).contains(pipelineName));
+
+        context.close();
+
+        assertEquals("[\"Collaboration confirmed\"]", new String((byte[]) messagesFromBroker.remove().getPayload(), StandardCharsets.UTF_8));
+      });
+  }
+
+  @Test
+  void shouldRelayToEmbeddedBrokerInEmbeddedMode() {
+    contextRunner
+      .withPropertyValues(
+        "custom.web-socket-broker.mode=EMBEDDED",
+        "custom.web-socket-broker.embedded.data-directory=" + dataDirectory)
+      .run(context -> {
+        BrokerService broker = context.getBean(BrokerService.class);
+        StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+
+        assertTrue(broker.isStarted());
+        assertTrue(dataDirectory.resolve("kahadb").toFile().isDirectory());
+        for (int i = 0; i < 100 && !relay.isBrokerAvailable(); i++) {
+          Thread.sleep(100);
+        }
+        assertTrue(relay.isBrokerAvailable());
+
+        try (Connection connection = new ActiveMQConnectionFactory("vm://" + broker.getBrokerName() + "?create=false").createConnection()) {
+          connection.start();
+          Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+          MessageConsumer consumer = session.createConsumer(session.createTopic("todoUpdates"));
+
+          context.getBean(SimpMessagingTemplate.class).convertAndSend("/topic/todoUpdates", "Collaboration confirmed");
+
+          // with its content-length header, the STOMP frame becomes a BytesMessage
+          assertEquals("Collaboration confirmed", new String(consumer.receive(5000).getBody(byte[].class), StandardCharsets.UTF_8));
+        }
+      });
+  }
+
+  @Test
+  void shouldKeepDataOfEachEmbeddedBrokerInItsOwnTemporaryDirectory() {
+    AtomicReference<File> firstDataDirectory = new AtomicReference<>();
+    AtomicReference<File> secondDataDirectory = new AtomicReference<>();
+    ApplicationContextRunner embeddedBrokerRunner = new ApplicationContextRunner()
+      .withUserConfiguration(EmbeddedMessageBrokerConfig.class)
+      .withPropertyValues("custom.web-socket-broker.mode=EMBEDDED");
+
+    embeddedBrokerRunner.run(first -> embeddedBrokerRunner.run(second -> {
+      firstDataDirectory.set(first.getBean(BrokerService.class).getDataDirectoryFile());
+      secondDataDirectory.set(second.getBean(BrokerService.class).getDataDirectoryFile());
+
+      assertTrue(first.getBean(BrokerService.class).isStarted());
+      assertTrue(second.getBean(BrokerService.class).isStarted());
+      assertNotEquals(firstDataDirectory.get(), secondDataDirectory.get());
+    }));
+
+    assertFalse(firstDataDirectory.get().exists());
+    assertFalse(secondDataDirectory.get().exists());
+  }
+
+  @Test
+  void shouldSendToSessionsOfUserThroughSingleBrokerTopicInEmbeddedMode() {
+    contextRunner
+      .withPropertyValues(
+        "custom.web-socket-broker.mode=EMBEDDED",
+        "custom.web-socket-broker.embedded.data-directory=" + dataDirectory)
+      .run(context -> {
+        StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+        for (int i = 0; i < 100 && !relay.isBrokerAvailable(); i++) {
+          Thread.sleep(100);
+        }
+        BlockingQueue<Message<?>> messagesToClients = captureMessagesToClients(context, SimpMessageType.MESSAGE);
+        BlockingQueue<Message<?>> inMemoryAcknowledgements = captureMessagesToClients(context, SimpMessageType.CONNECT_ACK);
+        connectAndSubscribeToTodoUpdates(context, "owner-session", OWNER);
+        connectAndSubscribeToTodoUpdates(context, "collaborator-session", COLLABORATOR);
+
+        assertTodoUpdate("owner-session", "Collaboration confirmed", sendToOwnerUntilReceived(context, messagesToClients));
+        assertTrue(messagesToClients.stream().allMatch(message -> "owner-session".equals(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))));
+        // the relay alone answers the CONNECT frames
+        assertTrue(inMemoryAcknowledgements.isEmpty());
+        Set<ActiveMQDestination> brokerDestinations = context.getBean(BrokerService.class).getBroker().getDestinationMap().keySet();
+        assertTrue(brokerDestinations.stream().anyMatch(destination -> destination.getPhysicalName().equals("user-destination-broadcast")));
+        assertFalse(brokerDestinations.stream().anyMatch(ActiveMQDestination::isQueue));
+      });
+  }
+
+  @Test
+  void shouldRequireBrokerUrlInRelayMode() {
+    contextRunner
+      .run(context -> assertNotNull(context.getStartupFailure()));
+  }
+
+  @Test
+  void shouldParseEachBrokerOfFailoverEndpoint() {
+    WebSocketConfig.Endpoint endpoint = WebSocketConfig.Endpoint.fromEndpointString(
+      "failover:(stomp+ssl://b-1.mq.eu-central-1.amazonaws.com:61614,stomp+ssl://b-2.mq.eu-central-1.amazonaws.com:61614)");
+
+    assertEquals(List.of(
+        InetSocketAddress.createUnresolved("b-1.mq.eu-central-1.amazonaws.com", 61614),
+        InetSocketAddress.createUnresolved("b-2.mq.eu-central-1.amazonaws.com", 61614)),
+      endpoint.toAddresses());
+  }
+
+  /**
+   * Connects a web socket session of the given user and subscribes it to its todo updates, as the {@code StompSubProtocolHandler} does.
+   */
+  private static void connectAndSubscribeToTodoUpdates(ApplicationContext context, String sessionId, String email) {
+    SubscribableChannel clientInboundChannel = context.getBean("clientInboundChannel", SubscribableChannel.class);
+    Principal user = () -> email;
+
+    StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+    connect.setSessionId(sessionId);
+    connect.setUser(user);
+    connect.setAcceptVersion("1.2");
+    connect.setHeartbeat(0, 0);
+    Message<byte[]> connectMessage = MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders());
+    clientInboundChannel.send(connectMessage);
+    context.publishEvent(new SessionConnectedEvent(context, connectMessage, user));
+
+    StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+    subscribe.setSessionId(sessionId);
+    subscribe.setUser(user);
+    subscribe.setSubscriptionId("todo-updates");
+    subscribe.setDestination("/user/queue/todoUpdates");
+    clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+  }
+
+  /**
+   * The client inbound channel handles the subscriptions asynchronously, as does the system session of the relay with the broadcast topic.
+   */
+  private static Message<?> sendToOwnerUntilReceived(ApplicationContext context, BlockingQueue<Message<?>> messagesToClients) throws InterruptedException {
+    Message<?> todoUpdate = null;
+    for (int i = 0; i < 50 && todoUpdate == null; i++) {
+      context.getBean(SimpMessagingTemplate.class).convertAndSendToUser(OWNER, "/queue/todoUpdates", "Collaboration confirmed");
+      todoUpdate = messagesToClients.poll(100, TimeUnit.MILLISECONDS);
+    }
+    return todoUpdate;
+  }
+
+  private static BlockingQueue<Message<?>> captureMessagesToClients(ApplicationContext context, SimpMessageType messageType) {
+    BlockingQueue<Message<?>> messages = new LinkedBlockingQueue<>();
+    context.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(message -> {
+      if (messageType.equals(SimpMessageHeaderAccessor.getMessageType(message.getHeaders()))) {
+        messages.add(message);
+      }
+    });
+    return messages;
+  }
+
+  private static void assertTodoUpdate(String sessionId, String payload, Message<?> message) {
+    assertNotNull(message);
+    assertEquals(sessionId, SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+    assertEquals("/user/queue/todoUpdates", NativeMessageHeaderAccessor.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, message.getHeaders()));
+    assertEquals(payload, new String((byte[]) message.getPayload(), StandardCharsets.UTF_8));
+  }
+}
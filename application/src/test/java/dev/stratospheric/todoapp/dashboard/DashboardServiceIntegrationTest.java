@@ -0,0 +1,261 @@
+package dev.stratospheric.todoapp.dashboard;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import dev.stratospheric.todoapp.AbstractDevIntegrationTest;
+import dev.stratospheric.todoapp.person.Person;
+import dev.stratospheric.todoapp.person.PersonRepository;
+import dev.stratospheric.todoapp.todo.Note;
+import dev.stratospheric.todoapp.todo.Priority;
+import dev.stratospheric.todoapp.todo.Status;
+import dev.stratospheric.todoapp.todo.Todo;
+import dev.stratospheric.todoapp.todo.TodoRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class DashboardServiceIntegrationTest extends AbstractDevIntegrationTest {
+
+  @Autowired
+  private DashboardService dashboardService;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private Person owner;
+  private Person collaborator;
+
+  @BeforeEach
+  void setUp() {
+    owner = new Person();
+    owner.setName("duke");
+    owner.setEmail("duke@hjolystratos.net");
+
+    collaborator = new Person();
+    collaborator.setName("collaborator");
+    collaborator.setEmail("collaborator@hjolystratos.net");
+
+    personRepository.saveAll(List.of(owner, collaborator));
+  }
+
+  @Test
+  void shouldListOwnedTodosBeforeSharedTodos() {
+    givenTodos(owner, 2, collaborator);
+    givenTodos(collaborator, 1, owner);
+
+    List<TodoDto> todos = dashboardService.getAllOwnedAndSharedTodos(owner.getEmail());
+
+    assertEquals(3, todos.size());
+    assertFalse(todos.get(0).isCollaboration());
+    assertFalse(todos.get(1).isCollaboration());
+    assertTrue(todos.get(2).isCollaboration());
+    assertEquals(1, todos.get(0).getAmountOfCollaborators());
+    assertEquals(0, todos.get(0).getAmountOfCollaborationRequests());
+  }
+
+  @Test
+  void shouldRenderDashboardWithConstantStatementCount() {
+    givenTodos(owner, 1, collaborator);
+    long statementsForOneTodo = countStatementsForDashboard();
+
+    givenTodos(owner, 99, collaborator);
+    givenTodos(collaborator, 50, owner);
+    long statementsForManyTodos = countStatementsForDashboard();
+
+    assertEquals(1, statementsForOneTodo);
+    assertEquals(statementsForOneTodo, statementsForManyTodos);
+  }
+
+  @Test
+  void shouldPageThroughOwnedAndSharedTodosWithKeyset() {
+    givenTodos(owner, 3, collaborator);
+    givenTodos(collaborator, 2, owner);
+
+    Slice<TodoDto> firstPage = dashboardService.getOwnedAndSharedTodos(owner.getEmail(), false, 0, 2);
+    TodoDto lastOfFirstPage = firstPage.getContent().get(1);
+
+    Slice<TodoDto> secondPage = dashboardService.getOwnedAndSharedTodos(owner.getEmail(), lastOfFirstPage.isCollaboration(), lastOfFirstPage.getId(), 2);
+    TodoDto lastOfSecondPage = secondPage.getContent().get(1);
+
+    Slice<TodoDto> thirdPage = dashboardService.getOwnedAndSharedTodos(owner.getEmail(), lastOfSecondPage.isCollaboration(), lastOfSecondPage.getId(), 2);
+
+    assertTrue(firstPage.hasNext());
+    assertFalse(secondPage.getContent().get(0).isCollaboration());
+    assertTrue(lastOfSecondPage.isCollaboration());
+    assertTrue(secondPage.hasNext());
+    assertEquals(1, thirdPage.getNumberOfElements());
+    assertTrue(thirdPage.getContent().get(0).isCollaboration());
+    assertFalse(thirdPage.hasNext());
+  }
+
+  @Test
+  void shouldSuggestCollaboratorsByNamePrefixExcludingCurrentUser() {
+    List<CollaboratorDto> collaborators = dashboardService.searchCollaborators(owner.getEmail(), "COL");
+
+    assertEquals(1, collaborators.size());
+    assertEquals(collaborator.getId(), collaborators.get(0).getId());
+    assertTrue(dashboardService.searchCollaborators(owner.getEmail(), "duke").isEmpty());
+  }
+
+  @Test
+  void shouldNotSuggestCollaboratorsForTooShortPrefix() {
+    assertTrue(dashboardService.searchCollaborators(owner.getEmail(), "").isEmpty());
+    assertTrue(dashboardService.searchCollaborators(owner.getEmail(), " c ").isEmpty());
+  }
+
+  @Test
+  void shouldSearchTitlesDescriptionsAndNotesOfOwnedAndSharedTodosOnly() {
+    Person stranger = new Person();
+    stranger.setName("stranger");
+    stranger.setEmail("stranger@hjolystratos.net");
+    personRepository.save(stranger);
+
+    Todo inNote = givenTodo(owner, "Groceries", "For the weekend", null, "Fresh milk and bread");
+    Todo inTitle = givenTodo(owner, "Buy milk", null, null);
+    Todo inDescription = givenTodo(collaborator, "Farm visit", "Pick up the milk", owner);
+    givenTodo(stranger, "Buy milk", null, null);
+    givenTodo(owner, "Buy bread", null, null);
+    entityManager.flush();
+
+    Slice<TodoDto> todos = dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "milks", 0, 10);
+
+    assertEquals(List.of(inTitle.getId(), inDescription.getId(), inNote.getId()), todos.map(TodoDto::getId).toList());
+    assertTrue(todos.getContent().get(1).isCollaboration());
+    assertFalse(todos.hasNext());
+    assertTrue(dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "milk -bread", 0, 10).map(TodoDto::getId).toList().contains(inTitle.getId()));
+    assertTrue(dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), " ", 0, 10).isEmpty());
+  }
+
+  @Test
+  void shouldFindTodosByTheirCurrentTitleAndNotes() {
+    Todo todo = givenTodo(owner, "Call the plumber", null, null);
+    entityManager.flush();
+
+    todo.setTitle("Call the electrician");
+    Note note = new Note();
+    note.setContent("Ask about the invoice");
+    todo.getNotes().add(note);
+    entityManager.flush();
+
+    assertTrue(dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "plumber", 0, 10).isEmpty());
+    assertEquals(1, dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "electrician invoice", 0, 10).getNumberOfElements());
+
+    todo.getNotes().clear();
+    entityManager.flush();
+
+    assertTrue(dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "invoice", 0, 10).isEmpty());
+  }
+
+  @Test
+  void shouldFindTodosByTheNotesChangedInASingleStatement() {
+    Todo from = givenTodo(owner, "Call the plumber", null, null, "Ask about the invoice", "Keep the receipt");
+    Todo to = givenTodo(owner, "Call the electrician", null, null);
+    entityManager.flush();
+
+    entityManager.createNativeQuery("update note set todo_id = :to where todo_id = :from")
+      .setParameter("to", to.getId())
+      .setParameter("from", from.getId())
+      .executeUpdate();
+
+    assertEquals(List.of(to.getId()), dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "invoice receipt", 0, 10).map(TodoDto::getId).toList());
+
+    entityManager.createNativeQuery("delete from note where todo_id = :to")
+      .setParameter("to", to.getId())
+      .executeUpdate();
+
+    assertTrue(dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "invoice", 0, 10).isEmpty());
+  }
+
+  @Test
+  void shouldPageThroughSearchResults() {
+    givenTodos(owner, 3, collaborator);
+    entityManager.flush();
+
+    Slice<TodoDto> firstPage = dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "todo", 0, 2);
+    Slice<TodoDto> secondPage = dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "todo", 1, 2);
+
+    assertEquals(2, firstPage.getNumberOfElements());
+    assertTrue(firstPage.hasNext());
+    assertEquals(1, secondPage.getNumberOfElements());
+    assertFalse(secondPage.hasNext());
+    assertFalse(firstPage.map(TodoDto::getId).toList().contains(secondPage.getContent().get(0).getId()));
+    assertEquals(1, secondPage.getContent().get(0).getAmountOfCollaborators());
+  }
+
+  @Test
+  void shouldReturnAnEmptyPageBeyondTheIntegerOffsets() {
+    givenTodos(owner, 1, collaborator);
+    entityManager.flush();
+
+    Slice<TodoDto> page = dashboardService.searchOwnedAndSharedTodos(owner.getEmail(), "todo", Integer.MAX_VALUE, 100);
+
+    assertTrue(page.isEmpty());
+    assertFalse(page.hasNext());
+  }
+
+  private long countStatementsForDashboard() {
+    entityManager.flush();
+    entityManager.clear();
+
+    Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    dashboardService.getAllOwnedAndSharedTodos(owner.getEmail());
+
+    return statistics.getPrepareStatementCount();
+  }
+
+  private Todo givenTodo(Person todoOwner, String title, String description, Person todoCollaborator, String... notes) {
+    Todo todo = new Todo();
+    todo.setTitle(title);
+    todo.setDescription(description);
+    todo.setDueDate(LocalDate.now().plusDays(42));
+    todo.setStatus(Status.OPEN);
+    todo.setPriority(Priority.DEFAULT);
+    todo.setOwner(todoOwner);
+    if (todoCollaborator != null) {
+      todo.getCollaborators().add(todoCollaborator);
+    }
+    for (String content : notes) {
+      Note note = new Note();
+      note.setContent(content);
+      todo.getNotes().add(note);
+    }
+
+    return todoRepository.save(todo);
+  }
+
+  private void givenTodos(Person todoOwner, int amount, Person todoCollaborator) {
+    for (int i = 0; i < amount; i++) {
+      Todo todo = new Todo();
+      todo.setTitle("Todo " + i);
+      todo.setDescription("Description " + i);
+      todo.setDueDate(LocalDate.now().plusDays(42));
+      todo.setStatus(Status.OPEN);
+      todo.setPriority(Priority.DEFAULT);
+      todo.setOwner(todoOwner);
+      todo.getCollaborators().add(todoCollaborator);
+
+      todoRepository.save(todo);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package dev.stratospheric.todoapp.notification;
+
+import dev.stratospheric.todoapp.todo.TodoChange;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class NotificationPipelineTest {
+
+  private static final String OWNER = "owner@stratospheric.dev";
+  private static final String OTHER_OWNER = "other-owner@stratospheric.dev";
+  private static final String TODO_UPDATES = "/queue/todoUpdates";
+
+  private final SimpMessagingTemplate simpMessagingTemplate = mock(SimpMessagingTemplate.class);
+  private final MockClock clock = new MockClock();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+  private final NotificationPipeline pipeline = new NotificationPipeline(simpMessagingTemplate, List.of(), Runnable::run, meterRegistry,
+    Duration.ofMillis(500), 3, 2, Duration.ofSeconds(10));
+
+  @Test
+  void shouldCoalesceNotificationsOfUserOverWindow() {
+    pipeline.sendToUser(OWNER, TODO_UPDATES, "Duke confirmed");
+    clock.add(Duration.ofMillis(200));
+    pipeline.sendToUser(OWNER, TODO_UPDATES, "Tom confirmed");
+    pipeline.sendToUser(OTHER_OWNER, TODO_UPDATES, "Ada confirmed");
+
+    pipeline.flushDue();
+    verifyNoInteractions(simpMessagingTemplate);
+
+    clock.add(Duration.ofMillis(300));
+    pipeline.flushDue();
+
+    verify(simpMessagingTemplate).convertAndSendToUser(OWNER, TODO_UPDATES, List.of("Duke confirmed", "Tom confirmed"));
+    verify(simpMessagingTemplate, never()).convertAndSendToUser(OTHER_OWNER, TODO_UPDATES, List.of("Ada confirmed"));
+    assertEquals(1, meterRegistry.get("stratospheric.notifications.frames").counter().count());
+    assertEquals(1, meterRegistry.get("stratospheric.notifications.frames.saved").tag("reason", "coalesced").counter().count());
+    assertEquals(2, meterRegistry.get("stratospheric.notifications.latency").timer().count());
+    assertEquals(800, meterRegistry.get("stratospheric.notifications.latency").timer().totalTime(TimeUnit.MILLISECONDS));
+    assertEquals(1, meterRegistry.get("stratospheric.notifications.pending").gauge().value());
+  }
+
+  @Test
+  void shouldSendDuplicatesOnceAndDropOldestBeyondMaxBatchSize() {
+    for (String notification : List.of("Duke confirmed", "Duke confirmed", "Tom confirmed", "Ada confirmed", "Duke confirmed", "Grace confirmed")) {
+      pipeline.send("/topic/todoUpdates", notification);
+    }
+
+    clock.add(Duration.ofMillis(500));
+    pipeline.flushDue();
+
+    verify(simpMessagingTemplate).convertAndSend("/topic/todoUpdates", List.of("Ada confirmed", "Duke confirmed", "Grace confirmed"));
+    assertEquals(2, meterRegistry.get("stratospheric.notifications.frames.saved").tag("reason", "coalesced").counter().count());
+    assertEquals(2, meterRegistry.get("stratospheric.notifications.frames.saved").tag("reason", "duplicate").counter().count());
+    assertEquals(1, meterRegistry.get("stratospheric.notifications.frames.saved").tag("reason", "dropped").counter().count());
+  }
+
+  @Test
+  void shouldSendTheLatestOfTheChangesOfATodoLast() {
+    TodoChange titleA = givenUpdatedTodo("A");
+    TodoChange titleB = givenUpdatedTodo("B");
+
+    for (TodoChange change : List.of(titleA, titleB, givenUpdatedTodo("A"))) {
+      pipeline.sendToUser(OWNER, "/queue/todoChanges", change, "Resync");
+    }
+
+    clock.add(Duration.ofMillis(500));
+    pipeline.flushDue();
+
+    verify(simpMessagingTemplate).convertAndSendToUser(OWNER, "/queue/todoChanges", List.of(titleB, titleA));
+    assertEquals(1, meterRegistry.get("stratospheric.notifications.frames.saved").tag("reason", "duplicate").counter().count());
+  }
+
+  @Test
+  void shouldReplaceNotificationsByOverflowNotificationBeyondMaxBatchSize() {
+    for (String change : List.of("Todo 1 deleted", "Todo 2 deleted", "Todo 3 deleted", "Todo 4 deleted", "Todo 5 deleted")) {
+      pipeline.sendToUser(OWNER, "/queue/todoChanges", change, "Resync");
+    }
+
+    clock.add(Duration.ofMillis(500));
+    pipeline.flushDue();
+
+    verify(simpMessagingTemplate).convertAndSendToUser(OWNER, "/queue/todoChanges", List.of("Resync"));
+    assertEquals(5, meterRegistry.get("stratospheric.notifications.frames.saved").tag("reason", "dropped").counter().count());
+  }
+
+  @Test
+  void shouldHoldNotificationsOfUserOverRateLimitUntilNextFrameIsAllowed() {
+    for (int frame = 0; frame < 2; frame++) {
+      pipeline.sendToUser(OWNER, TODO_UPDATES, "Update " + frame);
+      clock.add(Duration.ofMillis(500));
+      pipeline.flushDue();
+    }
+    pipeline.sendToUser(OWNER, TODO_UPDATES, "Update 2");
+    clock.add(Duration.ofMillis(500));
+    pipeline.sendToUser(OWNER, TODO_UPDATES, "Update 3");
+    pipeline.flushDue();
+
+    verify(simpMessagingTemplate).convertAndSendToUser(OWNER, TODO_UPDATES, List.of("Update 0"));
+    verify(simpMessagingTemplate).convertAndSendToUser(OWNER, TODO_UPDATES, List.of("Update 1"));
+    assertEquals(2, meterRegistry.get("stratospheric.notifications.frames").counter().count());
+
+    // the third frame is allowed 5 seconds after the first one
+    clock.add(Duration.ofMillis(3500));
+    pipeline.flushDue();
+    assertEquals(2, meterRegistry.get("stratospheric.notifications.frames").counter().count());
+
+    clock.add(Duration.ofMillis(500));
+    pipeline.flushDue();
+
+    verify(simpMessagingTemplate).convertAndSendToUser(OWNER, TODO_UPDATES, List.of("Update 2", "Update 3"));
+  }
+
+  @Test
+  void shouldSendAllWaitingNotificationsWhenStopped() {
+    // the frames are sent in the stopping thread, not on the executor
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+    NotificationPipeline pipeline = new NotificationPipeline(simpMessagingTemplate, List.of(), task -> { }, meterRegistry,
+      Duration.ofMillis(500), 3, 2, Duration.ofSeconds(10));
+    pipeline.start();
+    pipeline.sendToUser(OWNER, TODO_UPDATES, "Duke confirmed");
+    pipeline.send("/topic/todoUpdates", "Tom confirmed");
+
+    pipeline.stop();
+
+    verify(simpMessagingTemplate).convertAndSendToUser(OWNER, TODO_UPDATES, List.of("Duke confirmed"));
+    verify(simpMessagingTemplate).convertAndSend("/topic/todoUpdates", List.of("Tom confirmed"));
+    assertEquals(0, meterRegistry.get("stratospheric.notifications.pending").gauge().value());
+    assertFalse(pipeline.isRunning());
+  }
+
+  private static TodoChange givenUpdatedTodo(String title) {
+    return new TodoChange(TodoChange.Type.UPDATED, 42, title, "2026-12-24", 0, 0, false);
+  }
+}
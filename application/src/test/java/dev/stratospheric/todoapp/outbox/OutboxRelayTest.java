@@ -0,0 +1,138 @@
+package dev.stratospheric.todoapp.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.stratospheric.todoapp.collaboration.TodoCollaborationNotification;
+import io.awspring.cloud.sqs.operations.SendBatchOperationFailedException;
+import io.awspring.cloud.sqs.operations.SendResult;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class OutboxRelayTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private OutboxMessageRepository outboxMessageRepository;
+  private SqsTemplate sqsTemplate;
+  private OutboxRelay outboxRelay;
+
+  @BeforeEach
+  void setUp() {
+    outboxMessageRepository = mock(OutboxMessageRepository.class);
+    sqsTemplate = mock(SqsTemplate.class);
+    outboxRelay = new OutboxRelay(
+      outboxMessageRepository,
+      sqsTemplate,
+      objectMapper,
+      new TransactionTemplate(mock(PlatformTransactionManager.class)),
+      100,
+      Duration.ofMinutes(1));
+  }
+
+  @Test
+  void shouldSendInBatchesOfTenAndDeleteSentMessages() throws Exception {
+    given(outboxMessageRepository.lockNextMessages(any(Instant.class), eq(100))).willReturn(givenOutboxMessages(25));
+    given(sqsTemplate.sendMany(eq("stratospheric-todo-sharing"), anyCollection()))
+      .willAnswer(invocation -> new SendResult.Batch<>(sent(invocation.getArgument(1)), List.of()));
+
+    assertEquals(25, outboxRelay.relayNextMessages());
+
+    verify(sqsTemplate, times(3)).sendMany(eq("stratospheric-todo-sharing"), anyCollection());
+    verify(outboxMessageRepository).claim(eq(ids(1, 25)), any(Instant.class));
+    verify(outboxMessageRepository).deleteAllByIdInBatch(ids(1, 25));
+    verify(outboxMessageRepository, never()).release(anyCollection());
+  }
+
+  @Test
+  void shouldReleaseMessagesThatCouldNotBeSent() throws Exception {
+    given(outboxMessageRepository.lockNextMessages(any(Instant.class), eq(100))).willReturn(givenOutboxMessages(3));
+    given(sqsTemplate.sendMany(eq("stratospheric-todo-sharing"), anyCollection()))
+      .willAnswer(invocation -> {
+        List<Message<Object>> messages = new ArrayList<>(invocation.getArgument(1));
+        throw new SendBatchOperationFailedException(
+          "failed",
+          "stratospheric-todo-sharing",
+          new SendResult.Batch<>(
+            sent(messages.subList(0, 2)),
+            List.of(new SendResult.Failed<>("throttled", "stratospheric-todo-sharing", messages.get(2), Map.of()))));
+      });
+
+    assertEquals(2, outboxRelay.relayNextMessages());
+
+    verify(outboxMessageRepository).deleteAllByIdInBatch(ids(1, 2));
+    verify(outboxMessageRepository).release(List.of(3L));
+  }
+
+  @Test
+  void shouldMarkUnreadableMessagesAsFailedAndSendTheOthers() throws Exception {
+    List<OutboxMessage> messages = givenOutboxMessages(3);
+    messages.get(0).setPayloadType("dev.stratospheric.todoapp.UnknownNotification");
+    messages.get(1).setPayload("{not json");
+    given(outboxMessageRepository.lockNextMessages(any(Instant.class), eq(100))).willReturn(messages);
+    given(sqsTemplate.sendMany(eq("stratospheric-todo-sharing"), anyCollection()))
+      .willAnswer(invocation -> new SendResult.Batch<>(sent(invocation.getArgument(1)), List.of()));
+
+    assertEquals(1, outboxRelay.relayNextMessages());
+
+    verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(3L));
+    verify(outboxMessageRepository).markFailed(eq(1L), startsWith("java.lang.ClassNotFoundException"), any(Instant.class));
+    verify(outboxMessageRepository).markFailed(eq(2L), anyString(), any(Instant.class));
+    verify(outboxMessageRepository, never()).release(anyCollection());
+  }
+
+  private List<OutboxMessage> givenOutboxMessages(int amount) throws Exception {
+    List<OutboxMessage> messages = new ArrayList<>();
+
+    for (long id = 1; id <= amount; id++) {
+      TodoCollaborationNotification notification = new TodoCollaborationNotification();
+      notification.setTodoId(id);
+
+      OutboxMessage message = new OutboxMessage();
+      message.setId(id);
+      message.setQueueName("stratospheric-todo-sharing");
+      message.setPayloadType(TodoCollaborationNotification.class.getName());
+      message.setPayload(objectMapper.writeValueAsString(notification));
+      message.setCreatedAt(Instant.now());
+      messages.add(message);
+    }
+
+    return messages;
+  }
+
+  private static List<SendResult<Object>> sent(List<Message<Object>> messages) {
+    return messages
+      .stream()
+      .map(message -> new SendResult<>(UUID.randomUUID(), "stratospheric-todo-sharing", message, Map.<String, Object>of()))
+      .toList();
+  }
+
+  private static List<Long> ids(long from, long to) {
+    List<Long> ids = new ArrayList<>();
+    for (long id = from; id <= to; id++) {
+      ids.add(id);
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,55 @@
+package dev.stratospheric.todoapp.person;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PersonCacheTest {
+
+  private PersonRepository personRepository;
+  private MeterRegistry meterRegistry;
+  private PersonCache personCache;
+
+  @BeforeEach
+  void setUp() {
+    personRepository = mock(PersonRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    personCache = new PersonCache(personRepository, meterRegistry, 100, Duration.ofMinutes(10));
+  }
+
+  @Test
+  void shouldLoadPersonOnlyOnce() {
+    given(personRepository.findSummaryByEmail("duke@hjolystratos.net"))
+      .willReturn(Optional.of(new PersonSummary(42L, "duke", "duke@hjolystratos.net")));
+
+    assertEquals(42L, personCache.findByEmail("duke@hjolystratos.net").orElseThrow().getId());
+    assertEquals(42L, personCache.findByEmail("duke@hjolystratos.net").orElseThrow().getId());
+
+    verify(personRepository, times(1)).findSummaryByEmail("duke@hjolystratos.net");
+    assertEquals(1, meterRegistry.get("cache.gets").tag("cache", PersonCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+    assertEquals(1, meterRegistry.get("cache.gets").tag("cache", PersonCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+  }
+
+  @Test
+  void shouldFindPersonCreatedAfterUnsuccessfulLookup() {
+    given(personRepository.findSummaryByEmail("duke@hjolystratos.net"))
+      .willReturn(Optional.empty())
+      .willReturn(Optional.of(new PersonSummary(42L, "duke", "duke@hjolystratos.net")));
+
+    assertTrue(personCache.findByEmail("duke@hjolystratos.net").isEmpty());
+    personCache.evict("duke@hjolystratos.net");
+
+    assertEquals(42L, personCache.findByEmail("duke@hjolystratos.net").orElseThrow().getId());
+  }
+}
@@ -0,0 +1,74 @@
+package dev.stratospheric.todoapp.person;
+
+import dev.stratospheric.todoapp.AbstractDevIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class PersonRepositoryIntegrationTest extends AbstractDevIntegrationTest {
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  /**
+   * Two requests of a user signing in for the first time, e.g. in two browser tabs, both create the missing {@link Person}.
+   */
+  @Test
+  void shouldInsertTheSamePersonOnlyOnceWhenInsertedConcurrently() throws Exception {
+    String email = "duke-" + UUID.randomUUID() + "@hjolystratos.net";
+    String name = "duke-" + UUID.randomUUID();
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    CountDownLatch firstInserted = new CountDownLatch(1);
+    CountDownLatch firstCommit = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    try {
+      Future<Long> first = executor.submit(() -> transaction.execute(status -> {
+        assertEquals(1, personRepository.insertIfAbsent(email, name));
+        firstInserted.countDown();
+        awaitUninterruptibly(firstCommit);
+        return personRepository.findByEmail(email).orElseThrow().getId();
+      }));
+      firstInserted.await();
+
+      Future<Long> second = executor.submit(() -> transaction.execute(status -> {
+        assertEquals(0, personRepository.insertIfAbsent(email, name));
+        return personRepository.findByEmail(email).orElseThrow().getId();
+      }));
+      // The second insert waits for the first transaction instead of failing on the unique constraint.
+      Thread.sleep(500);
+      assertFalse(second.isDone());
+      firstCommit.countDown();
+
+      assertEquals(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+    } finally {
+      firstCommit.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package dev.stratospheric.todoapp.todo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TodoAccessCacheTest {
+
+  private TodoRepository todoRepository;
+  private TodoAccessCache todoAccessCache;
+
+  @BeforeEach
+  void setUp() {
+    todoRepository = mock(TodoRepository.class);
+    todoAccessCache = new TodoAccessCache(todoRepository, new SimpleMeterRegistry(), 100, Duration.ofSeconds(30));
+  }
+
+  @Test
+  void shouldResolveAccessOnlyOnceUntilEvicted() {
+    given(todoRepository.findAccess(1L, "duke@hjolystratos.net"))
+      .willReturn(Optional.of("NONE"))
+      .willReturn(Optional.of("COLLABORATOR"));
+
+    assertEquals(TodoAccess.NONE, todoAccessCache.getAccess(1L, "duke@hjolystratos.net"));
+    assertEquals(TodoAccess.NONE, todoAccessCache.getAccess(1L, "duke@hjolystratos.net"));
+
+    todoAccessCache.evict(1L);
+
+    assertEquals(TodoAccess.COLLABORATOR, todoAccessCache.getAccess(1L, "duke@hjolystratos.net"));
+    verify(todoRepository, times(2)).findAccess(1L, "duke@hjolystratos.net");
+  }
+
+  @Test
+  void shouldEvictTheTodosWhoseCollaboratorsChangedOrWhichWereDeleted() {
+    given(todoRepository.findAccess(1L, "duke@hjolystratos.net")).willReturn(Optional.of("NONE"));
+
+    todoAccessCache.getAccess(1L, "duke@hjolystratos.net");
+    todoAccessCache.evictChanged(givenChangeEvent(TodoChange.Type.UPDATED));
+    todoAccessCache.getAccess(1L, "duke@hjolystratos.net");
+    todoAccessCache.evictChanged(givenChangeEvent(TodoChange.Type.COLLABORATOR_ADDED));
+    todoAccessCache.getAccess(1L, "duke@hjolystratos.net");
+    todoAccessCache.evictChanged(givenChangeEvent(TodoChange.Type.DELETED));
+    todoAccessCache.getAccess(1L, "duke@hjolystratos.net");
+
+    verify(todoRepository, times(3)).findAccess(1L, "duke@hjolystratos.net");
+  }
+
+  @Test
+  void shouldRejectUnknownTodo() {
+    given(todoRepository.findAccess(2L, "duke@hjolystratos.net")).willReturn(Optional.empty());
+
+    assertThrows(NotFoundException.class, () -> todoAccessCache.getAccess(2L, "duke@hjolystratos.net"));
+  }
+
+  @Test
+  void shouldGrantOwnerEveryAccess() {
+    assertTrue(TodoAccess.OWNER.includes(TodoAccess.COLLABORATOR));
+    assertFalse(TodoAccess.COLLABORATOR.includes(TodoAccess.OWNER));
+    assertFalse(TodoAccess.NONE.includes(TodoAccess.COLLABORATOR));
+  }
+
+  private TodoChangeEvent givenChangeEvent(TodoChange.Type type) {
+    Todo todo = new Todo();
+    todo.setId(1L);
+    return new TodoChangeEvent(this, type, todo, "owner@hjolystratos.net");
+  }
+}
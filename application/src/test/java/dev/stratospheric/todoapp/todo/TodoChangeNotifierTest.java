@@ -0,0 +1,61 @@
+package dev.stratospheric.todoapp.todo;
+
+import dev.stratospheric.todoapp.collaboration.TodoCollaborationRequest;
+import dev.stratospheric.todoapp.notification.NotificationPipeline;
+import dev.stratospheric.todoapp.person.Person;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class TodoChangeNotifierTest {
+
+  private static final String OWNER = "owner@stratospheric.dev";
+
+  private final NotificationPipeline notificationPipeline = mock(NotificationPipeline.class);
+  private final TodoChangeNotifier notifier = new TodoChangeNotifier(notificationPipeline);
+
+  @Test
+  void shouldSendChangeToOwnerAndAsSharedTodoToCollaborators() {
+    Todo todo = givenTodo();
+    todo.addCollaborator(givenPerson("duke@stratospheric.dev"));
+    todo.addCollaborator(givenPerson("tom@stratospheric.dev"));
+    todo.getCollaborationRequests().add(new TodoCollaborationRequest());
+
+    notifier.notifyChange(new TodoChangeEvent(this, TodoChange.Type.COLLABORATOR_ADDED, todo, OWNER));
+
+    TodoChange change = new TodoChange(TodoChange.Type.COLLABORATOR_ADDED, 42, "Write chapter 13", "2042-01-13", 2, 1, false);
+    TodoChange sharedChange = new TodoChange(TodoChange.Type.COLLABORATOR_ADDED, 42, "Write chapter 13", "2042-01-13", 2, 1, true);
+    verify(notificationPipeline).sendToUser(OWNER, "/queue/todoChanges", change, TodoChange.RESYNC);
+    verify(notificationPipeline).sendToUser("duke@stratospheric.dev", "/queue/todoChanges", sharedChange, TodoChange.RESYNC);
+    verify(notificationPipeline).sendToUser("tom@stratospheric.dev", "/queue/todoChanges", sharedChange, TodoChange.RESYNC);
+    verifyNoMoreInteractions(notificationPipeline);
+  }
+
+  @Test
+  void shouldSendNewTodoToOwnerOnly() {
+    notifier.notifyChange(new TodoChangeEvent(this, TodoChange.Type.CREATED, givenTodo(), OWNER));
+
+    verify(notificationPipeline).sendToUser(OWNER, "/queue/todoChanges",
+      new TodoChange(TodoChange.Type.CREATED, 42, "Write chapter 13", "2042-01-13", 0, 0, false), TodoChange.RESYNC);
+    verifyNoMoreInteractions(notificationPipeline);
+  }
+
+  private static Todo givenTodo() {
+    Todo todo = new Todo();
+    todo.setId(42L);
+    todo.setTitle("Write chapter 13");
+    todo.setDueDate(LocalDate.of(2042, 1, 13));
+    todo.setOwner(givenPerson(OWNER));
+    return todo;
+  }
+
+  private static Person givenPerson(String email) {
+    Person person = new Person();
+    person.setEmail(email);
+    return person;
+  }
+}
@@ -19,10 +19,17 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.LocalDate;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oidcLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 
 @WebMvcTest(TodoController.class)
 @Import({WebSecurityConfig.class, TestGitProperties.class})
@@ -98,6 +105,43 @@ class TodoControllerTest {
       .andExpect(header().string("Location", "http://localhost/login"));
   }
 
+  @Test
+  void shouldDeleteTodoInPlace() throws Exception {
+    OidcUser user = createOidcUser("info@hjolystratos.net");
+
+    this.mockMvc
+      .perform(delete("/todo/1")
+        .with(oidcLogin().oidcUser(user))
+        .with(csrf())
+      )
+      .andExpect(MockMvcResultMatchers.status().isNoContent());
+
+    verify(todoService).delete(1L, "info@hjolystratos.net");
+
+    this.mockMvc
+      .perform(delete("/todo/1")
+        .with(oidcLogin().oidcUser(user))
+      )
+      .andExpect(MockMvcResultMatchers.status().isForbidden());
+  }
+
+  @Test
+  void shouldRejectPastDueDateEnteredThroughTheForm() throws Exception {
+    OidcUser user = createOidcUser("info@hjolystratos.net");
+
+    this.mockMvc
+      .perform(post("/todo")
+        .with(oidcLogin().oidcUser(user))
+        .with(csrf())
+        .param("title", "Overdue")
+        .param("dueDate", LocalDate.now().minusDays(1).toString())
+      )
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(model().attributeHasFieldErrors("todo", "dueDate"));
+
+    verify(todoService, never()).saveNewTodo(any(), any(), any());
+  }
+
   private OidcUser createOidcUser(String emailAddress) {
     SecurityContextFactory.createSecurityContext(emailAddress);
 
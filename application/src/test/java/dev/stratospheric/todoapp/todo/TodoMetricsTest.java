@@ -0,0 +1,77 @@
+package dev.stratospheric.todoapp.todo;
+
+import dev.stratospheric.todoapp.todo.TodoMetrics.Operation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TodoMetricsTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final TodoMetrics cut = new TodoMetrics(meterRegistry, List.of(Duration.ofMillis(100), Duration.ofSeconds(1)));
+
+  @Test
+  void shouldRegisterAllTheTimersUpFront() {
+    assertEquals(Operation.values().length * 2, meterRegistry.find("stratospheric.todo.operations").timers().size());
+    assertEquals(0, meterRegistry.get("stratospheric.todo.created").counter().count());
+  }
+
+  @Test
+  void shouldTimeSuccessfulAndFailedOperations() {
+    assertEquals("todo", cut.record(Operation.CREATE, () -> "todo"));
+    assertThrows(ForbiddenException.class, () -> cut.record(Operation.DELETE, () -> {
+      throw new ForbiddenException();
+    }));
+
+    assertEquals(1, operationTimer("create", "success").count());
+    assertEquals(0, operationTimer("create", "failure").count());
+    assertEquals(1, operationTimer("delete", "failure").count());
+  }
+
+  @Test
+  void shouldTreatRejectedOperationsAsFailures() {
+    assertTrue(cut.recordOutcome(Operation.CONFIRM, () -> true));
+    assertFalse(cut.recordOutcome(Operation.CONFIRM, () -> false));
+
+    assertEquals(1, operationTimer("confirm", "success").count());
+    assertEquals(1, operationTimer("confirm", "failure").count());
+  }
+
+  @Test
+  void shouldPublishOnlyTheServiceLevelObjectivesAsHistogramBuckets() {
+    cut.record(Operation.UPDATE, () -> {
+    });
+
+    List<Double> buckets = Arrays.stream(operationTimer("update", "success").takeSnapshot().histogramCounts())
+      .map(CountAtBucket::bucket)
+      .toList();
+
+    assertEquals(List.of((double) Duration.ofMillis(100).toNanos(), (double) Duration.ofSeconds(1).toNanos()), buckets);
+  }
+
+  @Test
+  void shouldCountCreatedTodos() {
+    cut.todoCreated();
+    cut.todoCreated();
+
+    assertEquals(2, meterRegistry.get("stratospheric.todo.created").counter().count());
+  }
+
+  private Timer operationTimer(String operation, String outcome) {
+    return meterRegistry.get("stratospheric.todo.operations")
+      .tag("operation", operation)
+      .tag("outcome", outcome)
+      .timer();
+  }
+}
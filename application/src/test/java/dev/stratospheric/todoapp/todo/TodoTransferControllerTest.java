@@ -0,0 +1,118 @@
+package dev.stratospheric.todoapp.todo;
+
+import dev.stratospheric.todoapp.config.WebSecurityConfig;
+import dev.stratospheric.todoapp.util.SecurityContextFactory;
+import dev.stratospheric.todoapp.util.TestGitProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oidcLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TodoTransferController.class)
+@Import({WebSecurityConfig.class, TestGitProperties.class})
+class TodoTransferControllerTest {
+
+  private static final String EMAIL = "info@hjolystratos.net";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private TodoTransferService todoTransferService;
+
+  @MockBean
+  private LogoutSuccessHandler logoutSuccessHandler;
+
+  @MockBean
+  private ClientRegistrationRepository clientRegistrationRepository;
+
+  @Test
+  void shouldStreamExportAsAttachment() throws Exception {
+    willAnswer(invocation -> {
+      invocation.getArgument(2, OutputStream.class).write("{\"title\":\"Exported\"}".getBytes(StandardCharsets.UTF_8));
+      return 1;
+    }).given(todoTransferService).exportTodos(eq(EMAIL), eq(TodoFormat.NDJSON), any(OutputStream.class));
+
+    this.mockMvc
+      .perform(get("/todo/export")
+        .param("format", "ndjson")
+        .with(oidcLogin().oidcUser(createOidcUser(EMAIL))))
+      .andExpect(status().isOk())
+      .andExpect(header().string("Content-Type", "application/x-ndjson"))
+      .andExpect(header().string("Content-Disposition", "attachment; filename=\"todos.ndjson\""))
+      .andExpect(content().string("{\"title\":\"Exported\"}"));
+  }
+
+  @Test
+  void shouldRejectUnsupportedExportFormat() throws Exception {
+    this.mockMvc
+      .perform(get("/todo/export")
+        .param("format", "xlsx")
+        .with(oidcLogin().oidcUser(createOidcUser(EMAIL))))
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void shouldImportCsvBody() throws Exception {
+    given(todoTransferService.importTodos(any(InputStream.class), eq(TodoFormat.CSV), eq(EMAIL), any())).willReturn(2);
+
+    this.mockMvc
+      .perform(post("/todo/import")
+        .contentType("text/csv")
+        .content("title,dueDate\nFirst,2099-01-01\nSecond,2099-01-02\n")
+        .with(oidcLogin().oidcUser(createOidcUser(EMAIL)))
+        .with(csrf()))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.importedTodos").value(2));
+  }
+
+  @Test
+  void shouldRejectImportWithoutCsrfToken() throws Exception {
+    this.mockMvc
+      .perform(post("/todo/import")
+        .contentType("application/x-ndjson")
+        .content("{\"title\":\"First\",\"dueDate\":\"2099-01-01\"}\n")
+        .with(oidcLogin().oidcUser(createOidcUser(EMAIL))))
+      .andExpect(status().isForbidden());
+  }
+
+  @Test
+  void shouldRejectUnsupportedImportFormat() throws Exception {
+    this.mockMvc
+      .perform(post("/todo/import")
+        .contentType("application/json")
+        .content("[]")
+        .with(oidcLogin().oidcUser(createOidcUser(EMAIL)))
+        .with(csrf()))
+      .andExpect(status().isUnsupportedMediaType());
+  }
+
+  private OidcUser createOidcUser(String emailAddress) {
+    SecurityContextFactory.createSecurityContext(emailAddress);
+
+    return (OidcUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+  }
+}
@@ -0,0 +1,187 @@
+package dev.stratospheric.todoapp.todo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TodoTransferServiceTest {
+
+  private static final String EMAIL = "duke@hjolystratos.net";
+  private static final LocalDate DUE_DATE = LocalDate.now().plusDays(42);
+
+  private TodoService todoService;
+  private TodoRepository todoRepository;
+  private EntityManager entityManager;
+  private PlatformTransactionManager transactionManager;
+  private TodoTransferService cut;
+
+  @BeforeEach
+  void setUp() {
+    todoService = mock(TodoService.class);
+    todoRepository = mock(TodoRepository.class);
+    entityManager = mock(EntityManager.class);
+    transactionManager = mock(PlatformTransactionManager.class);
+    cut = new TodoTransferService(todoService, todoRepository, entityManager,
+      Validation.buildDefaultValidatorFactory().getValidator(), new TransactionTemplate(transactionManager),
+      Jackson2ObjectMapperBuilder.json().build());
+  }
+
+  @Test
+  void shouldImportCsvInChunksOfTheirOwnTransactions() throws IOException {
+    int todos = TodoTransferService.IMPORT_CHUNK_SIZE * 2 + 1;
+    String csv = "title,description,priority,status,dueDate\n" + IntStream.range(0, todos)
+      .mapToObj(i -> "Todo %d,\"Imported, from CSV\",HIGH,DONE,%s\n".formatted(i, DUE_DATE))
+      .collect(Collectors.joining());
+
+    assertEquals(todos, cut.importTodos(input(csv), TodoFormat.CSV, EMAIL, "Duke"));
+
+    List<List<Todo>> chunks = savedChunks(3);
+    assertEquals(List.of(TodoTransferService.IMPORT_CHUNK_SIZE, TodoTransferService.IMPORT_CHUNK_SIZE, 1), chunks.stream().map(List::size).toList());
+    Todo todo = chunks.get(2).get(0);
+    assertEquals("Todo " + (todos - 1), todo.getTitle());
+    assertEquals("Imported, from CSV", todo.getDescription());
+    assertEquals(Priority.HIGH, todo.getPriority());
+    assertEquals(Status.DONE, todo.getStatus());
+    assertEquals(DUE_DATE, todo.getDueDate());
+    verify(transactionManager, times(3)).getTransaction(any());
+    verify(transactionManager, times(3)).commit(any());
+  }
+
+  @Test
+  void shouldImportOverdueTodos() throws IOException {
+    LocalDate overdue = LocalDate.now().minusDays(1);
+    String ndjson = """
+      {"title":"Overdue","dueDate":"%s"}
+      """.formatted(overdue);
+
+    assertEquals(1, cut.importTodos(input(ndjson), TodoFormat.NDJSON, EMAIL, "Duke"));
+
+    assertEquals(overdue, savedChunks(1).get(0).get(0).getDueDate());
+  }
+
+  @Test
+  void shouldImportNdjsonWithDefaults() throws IOException {
+    String ndjson = """
+      {"title":"First","dueDate":"%1$s"}
+      {"title":"Second","description":"Imported from NDJSON","priority":"LOW","dueDate":"%1$s"}
+      """.formatted(DUE_DATE);
+
+    assertEquals(2, cut.importTodos(input(ndjson), TodoFormat.NDJSON, EMAIL, "Duke"));
+
+    List<Todo> chunk = savedChunks(1).get(0);
+    assertEquals(List.of("First", "Second"), chunk.stream().map(Todo::getTitle).toList());
+    assertEquals(Status.OPEN, chunk.get(0).getStatus());
+    assertEquals(Priority.LOW, chunk.get(1).getPriority());
+  }
+
+  @Test
+  void shouldRejectInvalidRecordAfterAChunkBeforeSavingAnything() {
+    String csv = "title,dueDate\n" + IntStream.range(0, TodoTransferService.IMPORT_CHUNK_SIZE)
+      .mapToObj(i -> "Todo %d,%s\n".formatted(i, DUE_DATE))
+      .collect(Collectors.joining()) + ",%s\n".formatted(DUE_DATE);
+
+    InvalidImportException exception = assertThrows(InvalidImportException.class,
+      () -> cut.importTodos(input(csv), TodoFormat.CSV, EMAIL, "Duke"));
+
+    assertEquals(TodoTransferService.IMPORT_CHUNK_SIZE + 1, exception.getRecordNumber());
+    assertTrue(exception.getMessage().contains("title must not be blank"), exception.getMessage());
+    assertTrue(exception.getMessage().endsWith("no todo has been imported"), exception.getMessage());
+    verify(todoService, never()).saveNewTodos(anyList(), eq(EMAIL), eq("Duke"));
+    verify(transactionManager, never()).getTransaction(any());
+  }
+
+  @Test
+  void shouldRejectUnreadableRecord() {
+    String ndjson = """
+      {"title":"First","dueDate":"%s"}
+      {"title":"Second","dueDate":"tomorrow"}
+      """.formatted(DUE_DATE);
+
+    InvalidImportException exception = assertThrows(InvalidImportException.class,
+      () -> cut.importTodos(input(ndjson), TodoFormat.NDJSON, EMAIL, "Duke"));
+
+    assertEquals(2, exception.getRecordNumber());
+    verify(todoService, never()).saveNewTodos(anyList(), eq(EMAIL), eq("Duke"));
+  }
+
+  @Test
+  void shouldExportAndDetachEveryTodo() throws IOException {
+    Todo first = todo("First", "Exported, as CSV");
+    Todo second = todo("Second", null);
+    given(todoRepository.streamAllByOwnerEmailOrderByIdAsc(EMAIL)).willReturn(Stream.of(first, second));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    assertEquals(2, cut.exportTodos(EMAIL, TodoFormat.CSV, output));
+
+    assertEquals("""
+      title,description,priority,status,dueDate
+      First,"Exported, as CSV",HIGH,OPEN,%1$s
+      Second,,HIGH,OPEN,%1$s
+      """.formatted(DUE_DATE), output.toString(StandardCharsets.UTF_8));
+    verify(entityManager).detach(first);
+    verify(entityManager).detach(second);
+  }
+
+  @Test
+  void shouldExportNdjsonThatCanBeImported() throws IOException {
+    given(todoRepository.streamAllByOwnerEmailOrderByIdAsc(EMAIL)).willReturn(Stream.of(todo("First", "Exported"), todo("Second", null)));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    cut.exportTodos(EMAIL, TodoFormat.NDJSON, output);
+
+    assertEquals("""
+      {"title":"First","description":"Exported","priority":"HIGH","status":"OPEN","dueDate":"%1$s"}
+      {"title":"Second","description":null,"priority":"HIGH","status":"OPEN","dueDate":"%1$s"}""".formatted(DUE_DATE),
+      output.toString(StandardCharsets.UTF_8));
+    assertEquals(2, cut.importTodos(new ByteArrayInputStream(output.toByteArray()), TodoFormat.NDJSON, EMAIL, "Duke"));
+  }
+
+  private List<List<Todo>> savedChunks(int count) {
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Todo>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(todoService, times(count)).saveNewTodos(chunks.capture(), eq(EMAIL), eq("Duke"));
+    return chunks.getAllValues();
+  }
+
+  private static Todo todo(String title, String description) {
+    Todo todo = new Todo();
+    todo.setTitle(title);
+    todo.setDescription(description);
+    todo.setPriority(Priority.HIGH);
+    todo.setStatus(Status.OPEN);
+    todo.setDueDate(DUE_DATE);
+    return todo;
+  }
+
+  private static InputStream input(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,122 @@
+package dev.stratospheric.todoapp.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class BreadcrumbWriteBufferTest {
+
+  private static final String TABLE_NAME = "local-todo-app-breadcrumb";
+
+  private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void shouldWriteBreadcrumbsInBatchesOfTwentyFive() throws Exception {
+    given(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).willReturn(BatchWriteItemResponse.builder().build());
+    BreadcrumbWriteBuffer writeBuffer = givenWriteBuffer(1000, BreadcrumbWriteBuffer.OverflowPolicy.DROP);
+
+    writeBuffer.start();
+    for (int i = 0; i < 60; i++) {
+      writeBuffer.add(givenBreadcrumb(i));
+    }
+    writeBuffer.stop();
+
+    ArgumentCaptor<BatchWriteItemRequest> requests = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+    verify(dynamoDbClient, times(3)).batchWriteItem(requests.capture());
+    assertEquals(List.of(25, 25, 10), requests.getAllValues().stream().map(request -> request.requestItems().get(TABLE_NAME).size()).toList());
+    assertEquals(3, meterRegistry.get("stratospheric.tracing.buffer.flush").timer().count());
+  }
+
+  @Test
+  void shouldRetryUnprocessedItems() throws Exception {
+    given(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+      .willAnswer(invocation -> {
+        List<WriteRequest> writeRequests = invocation.<BatchWriteItemRequest>getArgument(0).requestItems().get(TABLE_NAME);
+        return BatchWriteItemResponse.builder().unprocessedItems(Map.of(TABLE_NAME, writeRequests.subList(0, 2))).build();
+      })
+      .willReturn(BatchWriteItemResponse.builder().build());
+    BreadcrumbWriteBuffer writeBuffer = givenWriteBuffer(1000, BreadcrumbWriteBuffer.OverflowPolicy.DROP);
+
+    writeBuffer.start();
+    for (int i = 0; i < 5; i++) {
+      writeBuffer.add(givenBreadcrumb(i));
+    }
+    writeBuffer.stop();
+
+    ArgumentCaptor<BatchWriteItemRequest> requests = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+    verify(dynamoDbClient, times(2)).batchWriteItem(requests.capture());
+    assertEquals(2, requests.getAllValues().get(1).requestItems().get(TABLE_NAME).size());
+    assertEquals(0, meterRegistry.get("stratospheric.tracing.breadcrumbs.dropped").tag("reason", "unprocessed").counter().count());
+  }
+
+  @Test
+  void shouldDropBreadcrumbsWhenTheBufferIsFull() {
+    BreadcrumbWriteBuffer writeBuffer = givenWriteBuffer(10, BreadcrumbWriteBuffer.OverflowPolicy.DROP);
+
+    for (int i = 0; i < 15; i++) {
+      writeBuffer.add(givenBreadcrumb(i));
+    }
+
+    assertEquals(15, meterRegistry.get("stratospheric.tracing.breadcrumbs.dropped").tag("reason", "overflow").counter().count());
+    verifyNoInteractions(dynamoDbClient);
+    assertEquals(15, writeBuffer.getDroppedItems());
+  }
+
+  @Test
+  void shouldSpillBreadcrumbsBeforeTheBufferIsStarted() {
+    given(dynamoDbClient.putItem(any(PutItemRequest.class))).willReturn(PutItemResponse.builder().build());
+    BreadcrumbWriteBuffer writeBuffer = givenWriteBuffer(10, BreadcrumbWriteBuffer.OverflowPolicy.SPILL);
+
+    writeBuffer.add(givenBreadcrumb(0));
+
+    verify(dynamoDbClient).putItem(any(PutItemRequest.class));
+  }
+
+  private BreadcrumbWriteBuffer givenWriteBuffer(int capacity, BreadcrumbWriteBuffer.OverflowPolicy overflowPolicy) {
+    DynamoDbEnhancedClient dynamoDbEnhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+
+    return new BreadcrumbWriteBuffer(
+      dynamoDbEnhancedClient,
+      dynamoDbEnhancedClient.table(TABLE_NAME, TableSchema.fromBean(Breadcrumb.class)),
+      meterRegistry,
+      new SimpleAsyncTaskExecutor("tracing-"),
+      capacity,
+      overflowPolicy,
+      Duration.ofMillis(10),
+      Duration.ofMillis(200),
+      3,
+      Duration.ofMillis(10));
+  }
+
+  private Breadcrumb givenBreadcrumb(int i) {
+    Breadcrumb breadcrumb = new Breadcrumb();
+    breadcrumb.setId("breadcrumb-" + i);
+    breadcrumb.setUri("/dashboard");
+    breadcrumb.setUsername("duke");
+    breadcrumb.setTimestamp("2023-08-01T10:00:00Z");
+    return breadcrumb;
+  }
+}
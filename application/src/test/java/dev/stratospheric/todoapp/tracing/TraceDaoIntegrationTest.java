@@ -0,0 +1,96 @@
+package dev.stratospheric.todoapp.tracing;
+
+import dev.stratospheric.todoapp.AbstractDevIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the queries of the {@link TraceDao} against the {@value Breadcrumb#USERNAME_TIMESTAMP_INDEX} of the breadcrumb table created in LocalStack by {@code local-aws-infrastructure.sh}.
+ */
+@SpringBootTest
+class TraceDaoIntegrationTest extends AbstractDevIntegrationTest {
+
+  @Autowired
+  private TraceDao traceDao;
+
+  @Autowired
+  private DynamoDbTable<Breadcrumb> breadcrumbTable;
+
+  private final String username = "duke-" + UUID.randomUUID();
+  private final Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+  @Test
+  void shouldFindTheBreadcrumbsOfTheUserOldestFirst() {
+    givenBreadcrumb(username, "/dashboard", now.minus(Duration.ofDays(1)));
+    givenBreadcrumb(username, "/todo/add", now.minus(Duration.ofDays(20)));
+    givenBreadcrumb(username, "/todo/42", now.minus(Duration.ofDays(10)));
+    givenBreadcrumb("tom-" + UUID.randomUUID(), "/dashboard", now.minus(Duration.ofDays(1)));
+
+    assertEquals(List.of("/todo/add", "/todo/42", "/dashboard"), uris(traceDao.findAllEventsForUser(username)));
+    assertEquals(List.of("/todo/42", "/dashboard"), uris(traceDao.findUserTraceForLastTwoWeeks(username)));
+  }
+
+  @Test
+  void shouldPageThroughTheBreadcrumbsOfATimeRange() {
+    for (int i = 0; i < 5; i++) {
+      givenBreadcrumb(username, "/page/" + i, now.minus(Duration.ofHours(10 - i)));
+    }
+
+    List<String> uris = new ArrayList<>();
+    Breadcrumb after = null;
+    Slice<Breadcrumb> page;
+    int pages = 0;
+    do {
+      page = traceDao.findUserTrace(username, now.minus(Duration.ofHours(9)), now, after, 2);
+      uris.addAll(uris(page.getContent()));
+      after = page.getContent().get(page.getNumberOfElements() - 1);
+      pages++;
+    } while (page.hasNext());
+
+    assertEquals(List.of("/page/1", "/page/2", "/page/3", "/page/4"), uris);
+    assertEquals(2, pages);
+  }
+
+  @Test
+  void shouldFindBreadcrumbsWithTheFormerTimestampFormatOnceMigrated() {
+    Instant visited = now.minus(Duration.ofDays(3));
+    Breadcrumb breadcrumb = givenBreadcrumb(username, "/dashboard", visited);
+    breadcrumb.setTimestamp(visited.atZone(ZoneId.of("Europe/Berlin")).toString());
+    breadcrumbTable.putItem(breadcrumb);
+
+    new BreadcrumbTimestampMigration(breadcrumbTable).migrate();
+
+    List<Breadcrumb> breadcrumbs = traceDao.findUserTraceForLastTwoWeeks(username);
+    assertEquals(1, breadcrumbs.size());
+    assertEquals(visited, TraceDao.parseTimestamp(breadcrumbs.get(0).getTimestamp()));
+    assertFalse(breadcrumbs.get(0).getTimestamp().contains("["));
+  }
+
+  private Breadcrumb givenBreadcrumb(String username, String uri, Instant timestamp) {
+    Breadcrumb breadcrumb = new Breadcrumb();
+    breadcrumb.setId(UUID.randomUUID().toString());
+    breadcrumb.setUsername(username);
+    breadcrumb.setUri(uri);
+    breadcrumb.setTimestamp(TraceDao.TIMESTAMP_FORMAT.format(timestamp));
+    breadcrumbTable.putItem(breadcrumb);
+    return breadcrumb;
+  }
+
+  private static List<String> uris(List<Breadcrumb> breadcrumbs) {
+    return breadcrumbs.stream().map(Breadcrumb::getUri).toList();
+  }
+}
@@ -15,8 +15,9 @@ awslocal ses verify-email-identity --email-address philip@hjolystratos.net
 # [N]:local]:init_script]:nosql - Creates a dynamo table as part of the LocalStack container bootstrapping phase.
 awslocal dynamodb create-table \
     --table-name local-todo-app-breadcrumb \
-    --attribute-definitions AttributeName=id,AttributeType=S \
+    --attribute-definitions AttributeName=id,AttributeType=S AttributeName=username,AttributeType=S AttributeName=timestamp,AttributeType=S \
     --key-schema AttributeName=id,KeyType=HASH \
     --provisioned-throughput ReadCapacityUnits=10,WriteCapacityUnits=10 \
+    --global-secondary-indexes "IndexName=username-timestamp-index,KeySchema=[{AttributeName=username,KeyType=HASH},{AttributeName=timestamp,KeyType=RANGE}],Projection={ProjectionType=ALL},ProvisionedThroughput={ReadCapacityUnits=10,WriteCapacityUnits=10}"
 
 echo "Initialized."
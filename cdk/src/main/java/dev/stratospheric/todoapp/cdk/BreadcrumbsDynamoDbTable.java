@@ -5,6 +5,8 @@ import software.amazon.awscdk.RemovalPolicy;
 import software.amazon.awscdk.services.dynamodb.Attribute;
 import software.amazon.awscdk.services.dynamodb.AttributeType;
 import software.amazon.awscdk.services.dynamodb.BillingMode;
+import software.amazon.awscdk.services.dynamodb.GlobalSecondaryIndexProps;
+import software.amazon.awscdk.services.dynamodb.ProjectionType;
 import software.amazon.awscdk.services.dynamodb.Table;
 import software.amazon.awscdk.services.dynamodb.TableEncryption;
 import software.amazon.awscdk.services.dynamodb.TableProps;
@@ -25,7 +27,7 @@ public class BreadcrumbsDynamoDbTable extends Construct {
 
     super(scope, id);
 
-    new Table(
+    Table table = new Table(
       this,
       "BreadcrumbsDynamoDbTable",
       TableProps.builder()
@@ -40,6 +42,19 @@ public class BreadcrumbsDynamoDbTable extends Construct {
         .writeCapacity(10)
         .removalPolicy(RemovalPolicy.DESTROY)
         .build());
+
+    // [N]:nosql]:web-trace - Queries the journey of a user within a time range with a key condition, instead of reading all the items and filtering them. The index name must match Breadcrumb#USERNAME_TIMESTAMP_INDEX in the application.
+    table.addGlobalSecondaryIndex(
+      GlobalSecondaryIndexProps.builder()
+        .indexName("username-timestamp-index")
+        .partitionKey(
+          Attribute.builder().type(AttributeType.STRING).name("username").build())
+        .sortKey(
+          Attribute.builder().type(AttributeType.STRING).name("timestamp").build())
+        .projectionType(ProjectionType.ALL)
+        .readCapacity(10)
+        .writeCapacity(10)
+        .build());
   }
 
   // [N] record is a jdk14 feature for encupsulating final data (see https://www.baeldung.com/java-record-keyword)
@@ -1,5 +1,6 @@
 package dev.stratospheric.todoapp.cdk;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -11,17 +12,20 @@ import software.amazon.awscdk.services.cloudwatch.Dashboard;
 import software.amazon.awscdk.services.cloudwatch.DashboardProps;
 import software.amazon.awscdk.services.cloudwatch.GraphWidget;
 import software.amazon.awscdk.services.cloudwatch.GraphWidgetView;
+import software.amazon.awscdk.services.cloudwatch.IMetric;
 import software.amazon.awscdk.services.cloudwatch.LogQueryWidget;
 import software.amazon.awscdk.services.cloudwatch.MathExpression;
 import software.amazon.awscdk.services.cloudwatch.MathExpressionProps;
 import software.amazon.awscdk.services.cloudwatch.Metric;
 import software.amazon.awscdk.services.cloudwatch.MetricProps;
 import software.amazon.awscdk.services.cloudwatch.TextWidget;
+import software.amazon.awscdk.services.cloudwatch.YAxisProps;
 import software.constructs.Construct;
 
 public class OperationalCloudWatchDashboard extends Construct {
 
   private static final String METRIC_NAMESPACE = "stratospheric";
+  private static final List<String> TODO_OPERATIONS = List.of("create", "update", "delete", "share", "confirm");
 
   public OperationalCloudWatchDashboard(
     @NotNull Construct scope,
@@ -263,10 +267,57 @@ public class OperationalCloudWatchDashboard extends Construct {
             .height(6)
             .width(12)
             .build()
+        ),
+        List.of(
+          GraphWidget.Builder.create()
+            .title("Todo Operations")
+            .view(GraphWidgetView.TIME_SERIES)
+            .region(awsEnvironment.getRegion())
+            .setPeriodToTimeRange(true)
+            .left(TODO_OPERATIONS.stream()
+              .<IMetric>map(operation -> createTodoOperationMetric(applicationEnvironment, "stratospheric.todo.operations.count", operation, Map.of("outcome", "success"), "sum"))
+              .toList())
+            .right(TODO_OPERATIONS.stream()
+              .<IMetric>map(operation -> createTodoOperationMetric(applicationEnvironment, "stratospheric.todo.operations.count", operation, Map.of("outcome", "failure"), "sum"))
+              .toList())
+            .rightYAxis(YAxisProps.builder().label("Failures").showUnits(false).build())
+            .height(6)
+            .width(12)
+            .build(),
+          GraphWidget.Builder.create()
+            .title("Todo Operations p99 Latency in s")
+            .view(GraphWidgetView.TIME_SERIES)
+            .region(awsEnvironment.getRegion())
+            .setPeriodToTimeRange(true)
+            .left(TODO_OPERATIONS.stream()
+              .<IMetric>map(operation -> createTodoOperationMetric(applicationEnvironment, "stratospheric.todo.operations.percentile.value", operation, Map.of("outcome", "success", "phi", "0.99"), "max"))
+              .toList())
+            .height(6)
+            .width(12)
+            .build()
         ))
       ).build());
   }
 
+  /**
+   * Published by the application's {@code TodoMetrics}, with the {@code operation} and {@code outcome} dimensions.
+   */
+  @NotNull
+  private Metric createTodoOperationMetric(ApplicationEnvironment applicationEnvironment, String metricName, String operation, Map<String, String> dimensions, String statistic) {
+    Map<String, String> dimensionsMap = new HashMap<>(dimensions);
+    dimensionsMap.put("environment", applicationEnvironment.getEnvironmentName());
+    dimensionsMap.put("operation", operation);
+
+    return new Metric(MetricProps.builder()
+      .namespace(METRIC_NAMESPACE)
+      .metricName(metricName)
+      .label(operation)
+      .dimensionsMap(dimensionsMap)
+      .period(Duration.minutes(1))
+      .statistic(statistic)
+      .build());
+  }
+
   @NotNull
   private Metric createSqsMetric(String metricName, String queueName, String statistic) {
     return new Metric(MetricProps.builder()
@@ -162,7 +162,11 @@ public class ServiceApp {
             .sid("AllowDynamoTableAccess")
             .effect(Effect.ALLOW)
             .resources(
-              List.of(String.format("arn:aws:dynamodb:%s:%s:table/%s", region, accountId, applicationEnvironment.prefix("breadcrumb")))
+              List.of(
+                String.format("arn:aws:dynamodb:%s:%s:table/%s", region, accountId, applicationEnvironment.prefix("breadcrumb")),
+                // [N]:nosql - The user journey is queried through a global secondary index of the table (see BreadcrumbsDynamoDbTable).
+                String.format("arn:aws:dynamodb:%s:%s:table/%s/index/*", region, accountId, applicationEnvironment.prefix("breadcrumb"))
+              )
             )
             .actions(List.of(
               "dynamodb:Scan",